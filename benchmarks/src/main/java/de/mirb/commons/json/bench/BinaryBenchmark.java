@@ -0,0 +1,93 @@
+package de.mirb.pg.pojo.bench;
+
+import de.mirb.pg.pojo.JsonArray;
+import de.mirb.pg.pojo.JsonBinary;
+import de.mirb.pg.pojo.JsonObject;
+import de.mirb.pg.pojo.JsonPair;
+import de.mirb.pg.pojo.JsonParser;
+import de.mirb.pg.pojo.JsonParserException;
+import de.mirb.pg.pojo.JsonValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text parsing against decoding of the binary encoding (only the root and the full tree); the
+ * throughput is counted in bytes of the text document for all benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryBenchmark {
+
+  @Param({"SMALL", "DEEP", "LONG_STRINGS", "NUMBERS", "PRETTY", "LARGE"})
+  public Corpus corpus;
+
+  private byte[] bytes;
+  private byte[] binary;
+  private final JsonParser parser = new JsonParser();
+
+  @Setup
+  public void setup() throws JsonParserException {
+    bytes = corpus.bytes();
+    binary = JsonBinary.encode(parser.parse(bytes, 0, bytes.length));
+  }
+
+  @Benchmark
+  public int parse(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    return touch(parser.parse(bytes, 0, bytes.length));
+  }
+
+  @Benchmark
+  public JsonValue decode(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    return JsonBinary.decode(binary, 0, binary.length);
+  }
+
+  @Benchmark
+  public int decodeAll(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    return touch(JsonBinary.decode(binary, 0, binary.length));
+  }
+
+  @Benchmark
+  public byte[] encode(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    return JsonBinary.encode(parser.parse(bytes, 0, bytes.length));
+  }
+
+  private static int touch(JsonValue value) {
+    if (value instanceof JsonObject) {
+      int count = 1;
+      for (JsonPair pair : value.asObject().value()) {
+        count += touch(pair.getValue());
+      }
+      return count;
+    } else if (value instanceof JsonArray) {
+      JsonArray array = value.asArray();
+      if (array.isLongArray() || array.isDoubleArray()) {
+        return 1 + array.size();
+      }
+      int count = 1;
+      for (JsonValue element : array.value()) {
+        count += touch(element);
+      }
+      return count;
+    }
+    return 1;
+  }
+}
@@ -0,0 +1,94 @@
+package de.mirb.pg.pojo.bench;
+
+import de.mirb.pg.pojo.JsonArray;
+import de.mirb.pg.pojo.JsonObject;
+import de.mirb.pg.pojo.JsonParser;
+import de.mirb.pg.pojo.JsonParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Value tree with hand written mapping against direct binding of an order document with the given
+ * number of items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BindingBenchmark {
+
+  public static class Order {
+    public String id;
+    public String customer;
+    public String currency;
+    public List<Item> items;
+  }
+
+  public static class Item {
+    public String sku;
+    public long quantity;
+    public double price;
+  }
+
+  @Param({"1", "100"})
+  public int items;
+
+  private byte[] bytes;
+  private final JsonParser parser = new JsonParser();
+
+  @Setup
+  public void setup() {
+    StringBuilder sb = new StringBuilder("{ \"id\": \"o-4711\", \"customer\": \"c-0815\", \"currency\": \"EUR\", \"items\": [");
+    for (int i = 0; i < items; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append("{ \"sku\": \"sku-").append(i).append("\", \"quantity\": ").append(i % 7 + 1)
+          .append(", \"price\": ").append(i).append(".25 }");
+    }
+    bytes = sb.append("] }").toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public Order tree(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    JsonObject object = parser.parse(bytes, 0, bytes.length).asObject();
+    Order order = new Order();
+    order.id = object.get("id").valueAsString();
+    order.customer = object.get("customer").valueAsString();
+    order.currency = object.get("currency").valueAsString();
+    JsonArray array = object.get("items").asArray();
+    order.items = new ArrayList<>(array.size());
+    for (int i = 0; i < array.size(); i++) {
+      JsonObject element = array.get(i).asObject();
+      Item item = new Item();
+      item.sku = element.get("sku").valueAsString();
+      item.quantity = element.get("quantity").asNumber().asLong();
+      item.price = element.get("price").asNumber().asDouble();
+      order.items.add(item);
+    }
+    return order;
+  }
+
+  @Benchmark
+  public Order bind(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    return parser.parse(bytes, 0, bytes.length, Order.class);
+  }
+}
@@ -0,0 +1,57 @@
+package de.mirb.pg.pojo.bench;
+
+import de.mirb.pg.pojo.JsonCachingParser;
+import de.mirb.pg.pojo.JsonParser;
+import de.mirb.pg.pojo.JsonParserException;
+import de.mirb.pg.pojo.JsonValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a repeated document against a hit of {@link JsonCachingParser} (hash and comparison of
+ * the document).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CachingParserBenchmark {
+
+  @Param({"SMALL", "PRETTY", "LARGE"})
+  public Corpus corpus;
+
+  private byte[] bytes;
+  private final JsonParser parser = new JsonParser();
+  private final JsonCachingParser cache = new JsonCachingParser(1L << 30);
+
+  @Setup
+  public void setup() throws JsonParserException {
+    bytes = corpus.bytes();
+    cache.parse(bytes, 0, bytes.length);
+  }
+
+  @Benchmark
+  public JsonValue parse(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    return parser.parse(bytes, 0, bytes.length);
+  }
+
+  @Benchmark
+  public JsonValue cached(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    return cache.parse(bytes, 0, bytes.length);
+  }
+}
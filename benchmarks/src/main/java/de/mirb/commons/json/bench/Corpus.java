@@ -0,0 +1,148 @@
+package de.mirb.pg.pojo.bench;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Generated benchmark documents (deterministic, so results are comparable between releases).
+ */
+public enum Corpus {
+  /** small object with a handful of short string pairs */
+  SMALL {
+    @Override
+    String create() {
+      return flatObject(8);
+    }
+  },
+  /** object nested 200 levels deep */
+  DEEP {
+    @Override
+    String create() {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < 200; i++) {
+        sb.append("{ \"level").append(i).append("\": \"value\", \"next\": ");
+      }
+      sb.append("{ \"last\": \"value\" }");
+      for (int i = 0; i < 200; i++) {
+        sb.append(" }");
+      }
+      return sb.toString();
+    }
+  },
+  /** few pairs with 64k character string values */
+  LONG_STRINGS {
+    @Override
+    String create() {
+      StringBuilder sb = new StringBuilder("{ ");
+      for (int i = 0; i < 4; i++) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        sb.append("\"text").append(i).append("\": \"");
+        for (int j = 0; sb.length() < (i + 1) * 65536; j++) {
+          sb.append(WORDS[j % WORDS.length]).append(' ');
+        }
+        sb.append("end\"");
+      }
+      return sb.append(" }").toString();
+    }
+  },
+  /** arrays with integral, fractional and exponent numbers */
+  NUMBERS {
+    @Override
+    String create() {
+      StringBuilder sb = new StringBuilder("{ ");
+      for (int i = 0; i < 16; i++) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        sb.append("\"series").append(i).append("\": [");
+        for (int j = 0; j < 1000; j++) {
+          if (j > 0) {
+            sb.append(", ");
+          }
+          switch (j % 3) {
+            case 0:
+              sb.append(j * 7919L);
+              break;
+            case 1:
+              sb.append(-j).append('.').append(j % 97);
+              break;
+            default:
+              sb.append(j).append(".5e-").append(j % 12);
+          }
+        }
+        sb.append(']');
+      }
+      return sb.append(" }").toString();
+    }
+  },
+  /** multi MB document of nested objects */
+  LARGE {
+    @Override
+    String create() {
+      StringBuilder sb = new StringBuilder("{ ");
+      for (int i = 0; sb.length() < 4 * 1024 * 1024; i++) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        sb.append("\"entry").append(i).append("\": ").append(flatObject(12));
+      }
+      return sb.append(" }").toString();
+    }
+  },
+  /** pretty printed (newlines and two space indentation) object of nested objects */
+  PRETTY {
+    @Override
+    String create() {
+      StringBuilder sb = new StringBuilder("{\n");
+      for (int i = 0; i < 2000; i++) {
+        if (i > 0) {
+          sb.append(",\n");
+        }
+        sb.append("  \"entry").append(i).append("\" : {\n");
+        for (int j = 0; j < 8; j++) {
+          sb.append(j > 0 ? ",\n" : "").append("    \"key").append(j).append("\" : \"")
+              .append(WORDS[j % WORDS.length]).append(' ').append(WORDS[(i + j) % WORDS.length]).append('"');
+        }
+        sb.append("\n  }");
+      }
+      return sb.append("\n}\n").toString();
+    }
+  };
+
+  private static final String[] WORDS = {
+      "lorem", "ipsum", "dolor", "sit", "amet", "consetetur", "sadipscing", "elitr", "sed", "diam"
+  };
+
+  private String json;
+  private byte[] bytes;
+
+  abstract String create();
+
+  public synchronized String json() {
+    if (json == null) {
+      json = create();
+    }
+    return json;
+  }
+
+  public synchronized byte[] bytes() {
+    if (bytes == null) {
+      bytes = json().getBytes(StandardCharsets.UTF_8);
+    }
+    return bytes;
+  }
+
+  static String flatObject(int pairs) {
+    StringBuilder sb = new StringBuilder("{ ");
+    for (int i = 0; i < pairs; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append("\"key").append(i).append("\": \"")
+          .append(WORDS[i % WORDS.length]).append(' ').append(WORDS[(i + 3) % WORDS.length]).append(i)
+          .append('"');
+    }
+    return sb.append(" }").toString();
+  }
+}
@@ -0,0 +1,83 @@
+package de.mirb.pg.pojo.bench;
+
+import de.mirb.pg.pojo.JsonHandler;
+import de.mirb.pg.pojo.JsonNumber;
+import de.mirb.pg.pojo.JsonParser;
+import de.mirb.pg.pojo.JsonParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandlerBenchmark {
+
+  @Param({"SMALL", "DEEP", "LONG_STRINGS", "NUMBERS", "PRETTY", "LARGE"})
+  public Corpus corpus;
+
+  private String json;
+  private byte[] bytes;
+  private final JsonParser parser = new JsonParser();
+
+  @Setup
+  public void setup() {
+    json = corpus.json();
+    bytes = corpus.bytes();
+  }
+
+  @Benchmark
+  public void parse(Throughput throughput, Blackhole blackhole) throws JsonParserException {
+    throughput.bytes += json.length();
+    parser.parse(json, new BlackholeHandler(blackhole));
+  }
+
+  @Benchmark
+  public void parseUtf8(Throughput throughput, Blackhole blackhole) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    parser.parse(bytes, 0, bytes.length, new BlackholeHandler(blackhole));
+  }
+
+  private static final class BlackholeHandler implements JsonHandler {
+    private final Blackhole blackhole;
+
+    BlackholeHandler(Blackhole blackhole) {
+      this.blackhole = blackhole;
+    }
+
+    @Override
+    public boolean key(String name) {
+      blackhole.consume(name);
+      return true;
+    }
+
+    @Override
+    public void stringValue(String value) {
+      blackhole.consume(value);
+    }
+
+    @Override
+    public void numberValue(JsonNumber value) {
+      blackhole.consume(value);
+    }
+
+    @Override
+    public void booleanValue(boolean value) {
+      blackhole.consume(value);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package de.mirb.pg.pojo.bench;
+
+import de.mirb.pg.pojo.JsonParallelParser;
+import de.mirb.pg.pojo.JsonParser;
+import de.mirb.pg.pojo.JsonParserException;
+import de.mirb.pg.pojo.JsonValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential against parallel parsing of a 16 MB NDJSON input (the lines are {@link Corpus#SMALL}
+ * like objects); the speedup depends on the number of cores of the machine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelBenchmark {
+
+  private byte[] lines;
+  private byte[] array;
+  private final JsonParser parser = new JsonParser();
+  private final JsonParallelParser parallelParser = new JsonParallelParser();
+
+  @Setup
+  public void setup() {
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() < 16 * 1024 * 1024) {
+      sb.append(Corpus.flatObject(8)).append('\n');
+    }
+    lines = sb.toString().getBytes(StandardCharsets.UTF_8);
+    sb.setLength(sb.length() - 1);
+    array = ("[" + sb.toString().replace('\n', ',') + "]").getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public void sequentialLines(Throughput throughput, Blackhole blackhole) throws JsonParserException {
+    throughput.bytes += lines.length;
+    int start = 0;
+    for (int i = 0; i < lines.length; i++) {
+      if (lines[i] == '\n') {
+        blackhole.consume(parser.parse(lines, start, i - start));
+        start = i + 1;
+      }
+    }
+  }
+
+  @Benchmark
+  public void parallelLines(Throughput throughput, Blackhole blackhole) throws JsonParserException {
+    throughput.bytes += lines.length;
+    parallelParser.parseLines(lines, 0, lines.length, blackhole::consume);
+  }
+
+  @Benchmark
+  public JsonValue sequentialArray(Throughput throughput) throws JsonParserException {
+    throughput.bytes += array.length;
+    return parser.parse(array, 0, array.length);
+  }
+
+  @Benchmark
+  public void parallelArray(Throughput throughput, Blackhole blackhole) throws JsonParserException {
+    throughput.bytes += array.length;
+    parallelParser.parseArray(array, 0, array.length, blackhole::consume);
+  }
+}
@@ -0,0 +1,58 @@
+package de.mirb.pg.pojo.bench;
+
+import de.mirb.pg.pojo.JsonParser;
+import de.mirb.pg.pojo.JsonParserException;
+import de.mirb.pg.pojo.JsonValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+  @Param({"SMALL", "DEEP", "LONG_STRINGS", "NUMBERS", "PRETTY", "LARGE"})
+  public Corpus corpus;
+
+  private String json;
+  private byte[] bytes;
+  private final JsonParser parser = new JsonParser();
+
+  @Setup
+  public void setup() {
+    json = corpus.json();
+    bytes = corpus.bytes();
+  }
+
+  @Benchmark
+  public JsonValue parse(Throughput throughput) throws JsonParserException {
+    throughput.bytes += json.length();
+    return parser.parse(json);
+  }
+
+  @Benchmark
+  public JsonValue parseUtf8(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    return parser.parse(bytes, 0, bytes.length);
+  }
+
+  @Benchmark
+  public JsonValue parseIndexed(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    return parser.parseIndexed(bytes, 0, bytes.length);
+  }
+}
@@ -0,0 +1,60 @@
+package de.mirb.pg.pojo.bench;
+
+import de.mirb.pg.pojo.JsonParser;
+import de.mirb.pg.pojo.JsonParserException;
+import de.mirb.pg.pojo.JsonPath;
+import de.mirb.pg.pojo.JsonValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading two fields of a {@link Corpus#LARGE} document: via the full tree against the selection
+ * on the tokens (fields at the start and in the middle of the document).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathBenchmark {
+
+  private final JsonPath first = JsonPath.compile("/entry0/key1");
+  private final JsonPath middle = JsonPath.compile("/entry10000/key3");
+  private byte[] bytes;
+  private final JsonParser parser = new JsonParser();
+
+  @Setup
+  public void setup() {
+    bytes = Corpus.LARGE.bytes();
+  }
+
+  @Benchmark
+  public JsonValue parseTree(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    JsonValue tree = parser.parse(bytes, 0, bytes.length);
+    return middle.get(tree) == null ? null : first.get(tree);
+  }
+
+  @Benchmark
+  public JsonValue[] selectFirst(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    return parser.select(bytes, 0, bytes.length, first);
+  }
+
+  @Benchmark
+  public JsonValue[] selectMiddle(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    return parser.select(bytes, 0, bytes.length, first, middle);
+  }
+}
@@ -0,0 +1,56 @@
+package de.mirb.pg.pojo.bench;
+
+import de.mirb.pg.pojo.JsonParser;
+import de.mirb.pg.pojo.JsonParserException;
+import de.mirb.pg.pojo.JsonProjection;
+import de.mirb.pg.pojo.JsonValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full tree against a projection which keeps two of the eight pairs of {@link Corpus#SMALL} and
+ * one nested pair of {@link Corpus#LARGE} and {@link Corpus#PRETTY}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectionBenchmark {
+
+  @Param({"SMALL", "PRETTY", "LARGE"})
+  public Corpus corpus;
+
+  private byte[] bytes;
+  private final JsonParser parser = new JsonParser();
+  private final JsonProjection projection = JsonProjection.of("/key1", "/key5", "/entry1/key2");
+
+  @Setup
+  public void setup() {
+    bytes = corpus.bytes();
+  }
+
+  @Benchmark
+  public JsonValue parse(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    return parser.parse(bytes, 0, bytes.length);
+  }
+
+  @Benchmark
+  public JsonValue project(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    return parser.parse(bytes, 0, bytes.length, projection);
+  }
+}
@@ -0,0 +1,61 @@
+package de.mirb.pg.pojo.bench;
+
+import de.mirb.pg.pojo.JsonParser;
+import de.mirb.pg.pojo.JsonParserException;
+import de.mirb.pg.pojo.JsonSharedParser;
+import de.mirb.pg.pojo.JsonValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@link JsonSharedParser} for all threads against a new parser per document and one parser
+ * per thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SharedParserBenchmark {
+
+  @Param({"SMALL", "PRETTY"})
+  public Corpus corpus;
+
+  private byte[] bytes;
+  private final JsonSharedParser shared = new JsonSharedParser();
+
+  @Setup
+  public void setup() {
+    bytes = corpus.bytes();
+  }
+
+  @Benchmark
+  public JsonValue newParser(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    return new JsonParser().parse(bytes, 0, bytes.length);
+  }
+
+  @Benchmark
+  public JsonValue threadParser(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    return JsonParser.forCurrentThread().parse(bytes, 0, bytes.length);
+  }
+
+  @Benchmark
+  public JsonValue sharedParser(Throughput throughput) throws JsonParserException {
+    throughput.bytes += bytes.length;
+    return shared.parse(bytes, 0, bytes.length);
+  }
+}
@@ -0,0 +1,21 @@
+package de.mirb.pg.pojo.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counts the processed input, JMH reports it as bytes (chars for String input) per second.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Throughput {
+  public long bytes;
+
+  @Setup(Level.Iteration)
+  public void clean() {
+    bytes = 0;
+  }
+}
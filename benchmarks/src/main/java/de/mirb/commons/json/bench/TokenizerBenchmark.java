@@ -0,0 +1,75 @@
+package de.mirb.pg.pojo.bench;
+
+import de.mirb.pg.pojo.JsonCursor;
+import de.mirb.pg.pojo.JsonToken;
+import de.mirb.pg.pojo.JsonTokenizer;
+import de.mirb.pg.pojo.JsonTokenizerException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark {
+
+  @Param({"SMALL", "DEEP", "LONG_STRINGS", "NUMBERS", "PRETTY", "LARGE"})
+  public Corpus corpus;
+
+  private String json;
+  private byte[] bytes;
+  private final JsonTokenizer stateMachine = new JsonTokenizer(JsonTokenizer.Engine.STATE_MACHINE);
+  private final JsonTokenizer table = new JsonTokenizer(JsonTokenizer.Engine.TABLE);
+
+  @Setup
+  public void setup() {
+    json = corpus.json();
+    bytes = corpus.bytes();
+  }
+
+  @Benchmark
+  public List<JsonToken> tokenizeStateMachine(Throughput throughput) throws JsonTokenizerException {
+    throughput.bytes += json.length();
+    return stateMachine.tokenize(json);
+  }
+
+  @Benchmark
+  public List<JsonToken> tokenizeTable(Throughput throughput) throws JsonTokenizerException {
+    throughput.bytes += json.length();
+    return table.tokenize(json);
+  }
+
+  @Benchmark
+  public int cursor(Throughput throughput) throws JsonTokenizerException {
+    throughput.bytes += json.length();
+    return count(JsonCursor.create(json));
+  }
+
+  @Benchmark
+  public int cursorUtf8(Throughput throughput) throws JsonTokenizerException {
+    throughput.bytes += bytes.length;
+    return count(JsonCursor.create(bytes, 0, bytes.length));
+  }
+
+  private static int count(JsonCursor cursor) throws JsonTokenizerException {
+    int tokens = 0;
+    while (cursor.nextToken() != null) {
+      tokens++;
+    }
+    return tokens;
+  }
+}
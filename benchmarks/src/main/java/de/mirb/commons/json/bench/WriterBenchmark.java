@@ -0,0 +1,69 @@
+package de.mirb.pg.pojo.bench;
+
+import de.mirb.pg.pojo.JsonParser;
+import de.mirb.pg.pojo.JsonParserException;
+import de.mirb.pg.pojo.JsonValue;
+import de.mirb.pg.pojo.JsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing of parsed trees (the full tree and the views of the lazy mode) into a reused buffer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WriterBenchmark {
+
+  @Param({"SMALL", "DEEP", "LONG_STRINGS", "NUMBERS", "PRETTY", "LARGE"})
+  public Corpus corpus;
+
+  private JsonValue tree;
+  private JsonValue lazy;
+  private int length;
+  private ByteBuffer buffer;
+  private final JsonWriter writer = new JsonWriter(ByteBuffer.allocate(0));
+
+  @Setup
+  public void setup() throws JsonParserException {
+    byte[] bytes = corpus.bytes();
+    JsonParser parser = new JsonParser();
+    tree = parser.parse(bytes, 0, bytes.length);
+    lazy = parser.parseLazy(bytes, 0, bytes.length);
+    length = bytes.length;
+    buffer = ByteBuffer.allocate(2 * bytes.length + 1024);
+  }
+
+  @Benchmark
+  public ByteBuffer writeTree(Throughput throughput) throws IOException {
+    throughput.bytes += length;
+    ((Buffer) buffer).clear();
+    writer.reset(buffer).writeValue(tree).flush();
+    return buffer;
+  }
+
+  @Benchmark
+  public ByteBuffer writeLazy(Throughput throughput) throws IOException {
+    throughput.bytes += length;
+    ((Buffer) buffer).clear();
+    writer.reset(buffer).writeValue(lazy).flush();
+    return buffer;
+  }
+}
@@ -0,0 +1,336 @@
+package de.mirb.pg.pojo;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JSON array.
+ * <p>
+ * Arrays which only contain numbers are kept in a primitive <code>long[]</code> (integral numbers)
+ * or <code>double[]</code> instead of a list of {@link JsonNumber}s. Their elements can be read
+ * without boxing via {@link #getLong(int)}, {@link #getDouble(int)}, {@link #toLongArray()} and
+ * {@link #toDoubleArray()}; the list returned by {@link #value()} creates the
+ * {@link JsonNumber} elements on access. A <code>double[]</code> also holds the integral
+ * numbers of an array which contains both kinds (e.g. <code>[1.5, 2]</code>); they are marked, so
+ * they keep their kind (and are written as integral numbers) and the array round-trips unchanged.
+ */
+public class JsonArray extends JsonValue<List<JsonValue>> {
+  private static final int LONGS = 0;
+  private static final int DOUBLES = 1;
+  private static final int VALUES = 2;
+
+  private final int kind;
+  private final long[] longs;
+  private final double[] doubles;
+  /** bits of the elements of {@link #doubles} which are integral numbers (<code>null</code> if none are) */
+  private final long[] integral;
+  private final List<JsonValue> view;
+
+  private JsonArray(int kind, long[] longs, double[] doubles, long[] integral, List<JsonValue> values) {
+    super(null);
+    this.kind = kind;
+    this.longs = longs;
+    this.doubles = doubles;
+    this.integral = integral;
+    this.view = values == null ? new NumberList() : Collections.unmodifiableList(values);
+  }
+
+  public static JsonArrayBuilder with(JsonValue ... values) {
+    JsonArrayBuilder b = new JsonArrayBuilder();
+    for (JsonValue value : values) {
+      b.add(value);
+    }
+    return b;
+  }
+
+  public static JsonArrayBuilder start() {
+    return new JsonArrayBuilder();
+  }
+
+  @Override
+  public List<JsonValue> value() {
+    return view;
+  }
+
+  @Override
+  public String valueAsString() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < size(); i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(get(i).valueAsString());
+    }
+    return sb.append(']').toString();
+  }
+
+  public int size() {
+    switch (kind) {
+      case LONGS:
+        return longs.length;
+      case DOUBLES:
+        return doubles.length;
+      default:
+        return view.size();
+    }
+  }
+
+  public JsonValue get(int index) {
+    return view.get(index);
+  }
+
+  /**
+   * @return <code>true</code> if all elements are integral numbers which are stored as <code>long[]</code>
+   */
+  public boolean isLongArray() {
+    return kind == LONGS;
+  }
+
+  /**
+   * @return <code>true</code> if all elements are numbers which are stored as <code>double[]</code>
+   */
+  public boolean isDoubleArray() {
+    return kind == DOUBLES;
+  }
+
+  /**
+   * @return <code>true</code> if the element of a double array is an integral number
+   */
+  boolean isIntegral(int index) {
+    return isMarked(integral, index);
+  }
+
+  /**
+   * @return <code>true</code> if the double array contains integral numbers
+   */
+  boolean hasIntegral() {
+    return integral != null;
+  }
+
+  private static boolean isMarked(long[] bits, int index) {
+    return bits != null && index >>> 6 < bits.length && (bits[index >>> 6] & 1L << index) != 0;
+  }
+
+  /**
+   * @param index index of the element
+   * @return element as <code>long</code>
+   * @throws ClassCastException if the element is no number
+   */
+  public long getLong(int index) {
+    switch (kind) {
+      case LONGS:
+        return longs[index];
+      case DOUBLES:
+        return (long) doubles[index];
+      default:
+        return view.get(index).asNumber().asLong();
+    }
+  }
+
+  /**
+   * @param index index of the element
+   * @return element as <code>double</code>
+   * @throws ClassCastException if the element is no number
+   */
+  public double getDouble(int index) {
+    switch (kind) {
+      case LONGS:
+        return longs[index];
+      case DOUBLES:
+        return doubles[index];
+      default:
+        return view.get(index).asNumber().asDouble();
+    }
+  }
+
+  /**
+   * @return copy of the elements as <code>long</code> values
+   * @throws ClassCastException if an element is no number
+   */
+  public long[] toLongArray() {
+    if (kind == LONGS) {
+      return longs.clone();
+    }
+    long[] result = new long[size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = getLong(i);
+    }
+    return result;
+  }
+
+  /**
+   * @return copy of the elements as <code>double</code> values
+   * @throws ClassCastException if an element is no number
+   */
+  public double[] toDoubleArray() {
+    if (kind == DOUBLES) {
+      return doubles.clone();
+    }
+    double[] result = new double[size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = getDouble(i);
+    }
+    return result;
+  }
+
+  private class NumberList extends AbstractList<JsonValue> {
+    @Override
+    public JsonValue get(int index) {
+      if (kind == LONGS || isIntegral(index)) {
+        return new JsonNumber(getLong(index));
+      }
+      return new JsonNumber(doubles[index]);
+    }
+
+    @Override
+    public int size() {
+      return JsonArray.this.size();
+    }
+  }
+
+  /**
+   * Collects the elements of an array. As long as only numbers are added via {@link #add(long)}
+   * and {@link #add(double)} they are stored in a primitive array; the first number which can
+   * not be stored exactly or the first other value switches to a list of values.
+   */
+  public static class JsonArrayBuilder {
+    /** largest magnitude up to which every <code>long</code> is exactly representable as double */
+    private static final long MAX_EXACT = 1L << 53;
+    private static final long[] NO_LONGS = new long[0];
+
+    private int kind = LONGS;
+    private long[] longs = new long[8];
+    private double[] doubles;
+    /** bits of the integral numbers in {@link #doubles} */
+    private long[] integral;
+    private List<JsonValue> values;
+    private int size;
+
+    public JsonArrayBuilder add(long value) {
+      switch (kind) {
+        case LONGS:
+          if (size == longs.length) {
+            longs = Arrays.copyOf(longs, Math.max(8, size * 2));
+          }
+          longs[size++] = value;
+          break;
+        case DOUBLES:
+          if (value < -MAX_EXACT || value > MAX_EXACT) {
+            toValues();
+            values.add(new JsonNumber(value));
+          } else {
+            markIntegral(size);
+            addDouble(value);
+          }
+          break;
+        default:
+          values.add(new JsonNumber(value));
+      }
+      return this;
+    }
+
+    public JsonArrayBuilder add(double value) {
+      if (kind == LONGS) {
+        toDoubles();
+      }
+      if (kind == DOUBLES) {
+        addDouble(value);
+      } else {
+        values.add(new JsonNumber(value));
+      }
+      return this;
+    }
+
+    public JsonArrayBuilder add(JsonValue value) {
+      if (kind != VALUES && value instanceof JsonNumber) {
+        JsonNumber number = (JsonNumber) value;
+        if (number.kind() == JsonNumber.LONG) {
+          return add(number.asLong());
+        } else if (number.kind() == JsonNumber.DOUBLE) {
+          return add(number.asDouble());
+        }
+      }
+      if (kind != VALUES) {
+        toValues();
+      }
+      values.add(value);
+      return this;
+    }
+
+    /**
+     * Creates the array; the builder is empty afterwards (a list of values is handed over without
+     * copying it, so the array can not be changed via the builder).
+     */
+    public JsonArray build() {
+      final JsonArray array;
+      if (kind != VALUES && size == 0) {
+        array = new JsonArray(VALUES, null, null, null, new ArrayList<JsonValue>(0));
+      } else if (kind == LONGS) {
+        array = new JsonArray(LONGS, Arrays.copyOf(longs, size), null, null, null);
+      } else if (kind == DOUBLES) {
+        array = new JsonArray(DOUBLES, null, Arrays.copyOf(doubles, size), integral, null);
+        longs = NO_LONGS;
+      } else {
+        array = new JsonArray(VALUES, null, null, null, values);
+        longs = NO_LONGS;
+      }
+      kind = LONGS;
+      doubles = null;
+      integral = null;
+      values = null;
+      size = 0;
+      return array;
+    }
+
+    private void addDouble(double value) {
+      if (size == doubles.length) {
+        doubles = Arrays.copyOf(doubles, size * 2);
+      }
+      doubles[size++] = value;
+    }
+
+    private void markIntegral(int index) {
+      final int word = index >>> 6;
+      if (integral == null) {
+        integral = new long[word + 1];
+      } else if (word >= integral.length) {
+        integral = Arrays.copyOf(integral, Math.max(word + 1, integral.length * 2));
+      }
+      integral[word] |= 1L << index;
+    }
+
+    private void toDoubles() {
+      for (int i = 0; i < size; i++) {
+        if (longs[i] < -MAX_EXACT || longs[i] > MAX_EXACT) {
+          toValues();
+          return;
+        }
+      }
+      doubles = new double[Math.max(8, longs.length)];
+      for (int i = 0; i < size; i++) {
+        doubles[i] = longs[i];
+        markIntegral(i);
+      }
+      longs = null;
+      kind = DOUBLES;
+    }
+
+    private void toValues() {
+      values = new ArrayList<>(Math.max(8, size * 2));
+      for (int i = 0; i < size; i++) {
+        if (kind == LONGS || isMarked(integral, i)) {
+          values.add(new JsonNumber(kind == LONGS ? longs[i] : (long) doubles[i]));
+        } else {
+          values.add(new JsonNumber(doubles[i]));
+        }
+      }
+      longs = null;
+      doubles = null;
+      integral = null;
+      kind = VALUES;
+    }
+  }
+}
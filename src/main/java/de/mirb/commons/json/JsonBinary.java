@@ -0,0 +1,444 @@
+package de.mirb.pg.pojo;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of a {@link JsonValue} tree (for caches and the exchange between
+ * processes), which is read without tokenizing any text.
+ * <p>
+ * The names of all pairs are stored once in a key dictionary at the end of the document, the
+ * pairs refer to them by their index. Counts and string lengths are unsigned varints, integral
+ * numbers zig-zag varints and doubles 8 byte little endian values; containers carry the size of
+ * their content as fixed 4 byte value (so it can be patched after the content is written):
+ * <pre>
+ * document     = 'J' 'B' VERSION dictionary-offset:int32 value dictionary
+ * dictionary   = count:varint *( length:varint utf-8 )
+ * value        = STRING length:varint utf-8
+ *              / LONG zigzag:varint
+ *              / DOUBLE float64
+ *              / DECIMAL length:varint ascii
+ *              / OBJECT size:int32 count:varint *( key:varint value )
+ *              / ARRAY size:int32 count:varint *( value )
+ *              / LONG_ARRAY size:int32 count:varint *( zigzag:varint )
+ *              / DOUBLE_ARRAY size:int32 count:varint *( float64 )
+ * </pre>
+ * {@link #decode(ByteBuffer)} only reads the header and the dictionary; like in the lazy parse
+ * mode of {@link JsonParser} the values of pairs are decoded on first access of
+ * {@link JsonPair#getValue()} and containers which are never accessed are skipped via their size.
+ * The decoded tree references the buffer, so it must not be modified while the tree is in use;
+ * the reader itself keeps no state besides the dictionary, and all decoded values only have final
+ * fields, so two threads decoding the same pair at once just build equal values and the tree can
+ * be shared between threads (unlike the trees of the lazy parse mode, which decode via the
+ * parser's cursor).
+ */
+public final class JsonBinary {
+  static final byte VERSION = 1;
+
+  static final byte STRING = 1;
+  static final byte LONG = 2;
+  static final byte DOUBLE = 3;
+  static final byte DECIMAL = 4;
+  static final byte OBJECT = 5;
+  static final byte ARRAY = 6;
+  static final byte LONG_ARRAY = 7;
+  static final byte DOUBLE_ARRAY = 8;
+
+  /** magic, version and dictionary offset */
+  private static final int HEADER = 7;
+
+  private final ByteBuffer buffer;
+  private final int base;
+  private String[] keys;
+
+  private JsonBinary(ByteBuffer buffer, int base) {
+    this.buffer = buffer;
+    this.base = base;
+  }
+
+  /**
+   * Encodes the value (including all nested values).
+   *
+   * @param value value to encode
+   * @return the binary document
+   */
+  public static byte[] encode(JsonValue value) {
+    Encoder encoder = new Encoder();
+    encoder.document(value);
+    return Arrays.copyOf(encoder.bytes, encoder.size);
+  }
+
+  public static JsonValue decode(byte[] data, int offset, int length) throws JsonParserException {
+    return decode(ByteBuffer.wrap(data, offset, length));
+  }
+
+  /**
+   * Decodes the document between position and limit of the buffer (position and limit are not
+   * changed).
+   *
+   * @param data binary document created by {@link #encode(JsonValue)}
+   * @return the root value
+   * @throws JsonParserException if the data does not start with a valid header and dictionary
+   */
+  public static JsonValue decode(ByteBuffer data) throws JsonParserException {
+    final int start = data.position();
+    final int end = data.limit();
+    if (end - start < HEADER || data.get(start) != 'J' || data.get(start + 1) != 'B') {
+      throw new JsonParserException("Invalid binary document.");
+    }
+    if (data.get(start + 2) != VERSION) {
+      throw new JsonParserException("Unsupported binary version " + data.get(start + 2) + ".");
+    }
+    final JsonBinary binary = new JsonBinary(data.duplicate().order(ByteOrder.LITTLE_ENDIAN), start);
+    final int dictionary = binary.buffer.getInt(start + 3);
+    if (dictionary < HEADER || dictionary > end - start) {
+      throw new JsonParserException("Invalid binary dictionary offset " + dictionary + ".");
+    }
+    try {
+      binary.readKeys(start + dictionary, end);
+    } catch (IndexOutOfBoundsException e) {
+      throw new JsonParserException("Invalid binary dictionary.");
+    }
+    return binary.value(start + HEADER);
+  }
+
+  private void readKeys(int position, int end) throws JsonParserException {
+    final int count = varint(position);
+    int key = after(position);
+    if (count < 0 || count > end - key) {
+      throw new JsonParserException("Invalid binary dictionary.");
+    }
+    keys = new String[count];
+    for (int i = 0; i < count; i++) {
+      final int length = varint(key);
+      key = after(key);
+      if (length < 0 || key + length > end) {
+        throw new JsonParserException("Invalid binary dictionary.");
+      }
+      keys[i] = string(key, length);
+      key += length;
+    }
+  }
+
+  private JsonValue value(int position) {
+    switch (buffer.get(position)) {
+      case STRING:
+        return new JsonString(string(after(position + 1), varint(position + 1)));
+      case LONG:
+        return new JsonNumber(zigzag(position + 1));
+      case DOUBLE:
+        return new JsonNumber(buffer.getDouble(position + 1));
+      case DECIMAL:
+        return new JsonNumber(new BigDecimal(string(after(position + 1), varint(position + 1))));
+      case OBJECT:
+        return object(position);
+      case ARRAY:
+        return array(position);
+      case LONG_ARRAY: {
+        final JsonArray.JsonArrayBuilder builder = JsonArray.start();
+        int element = content(position);
+        for (int i = varint(position + 5); i > 0; i--) {
+          builder.add(zigzag(element));
+          element = after(element);
+        }
+        return builder.build();
+      }
+      case DOUBLE_ARRAY: {
+        final JsonArray.JsonArrayBuilder builder = JsonArray.start();
+        int element = content(position);
+        for (int i = varint(position + 5); i > 0; i--) {
+          builder.add(buffer.getDouble(element));
+          element += 8;
+        }
+        return builder.build();
+      }
+      default:
+        throw new IllegalStateException("Invalid binary value at offset " + (position - base) + ".");
+    }
+  }
+
+  private JsonObject object(int position) {
+    final JsonObject.JsonObjectBuilder builder = JsonObject.start();
+    int member = content(position);
+    for (int i = varint(position + 5); i > 0; i--) {
+      final String name = keys[varint(member)];
+      final int value = after(member);
+      builder.add(new BinaryPair(this, name, value));
+      member = skip(value);
+    }
+    return builder.build();
+  }
+
+  private JsonArray array(int position) {
+    final JsonArray.JsonArrayBuilder builder = JsonArray.start();
+    int element = content(position);
+    for (int i = varint(position + 5); i > 0; i--) {
+      final byte type = buffer.get(element);
+      if (type == LONG) {
+        builder.add(zigzag(element + 1));
+      } else if (type == DOUBLE) {
+        builder.add(buffer.getDouble(element + 1));
+      } else {
+        builder.add(value(element));
+      }
+      element = skip(element);
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return position of the first member or element of the container at the given position
+   */
+  private int content(int position) {
+    return after(position + 5);
+  }
+
+  /**
+   * @return position after the value at the given position
+   */
+  private int skip(int position) {
+    switch (buffer.get(position)) {
+      case STRING:
+      case DECIMAL:
+        return after(position + 1) + varint(position + 1);
+      case LONG:
+        return after(position + 1);
+      case DOUBLE:
+        return position + 9;
+      default:
+        return position + 5 + buffer.getInt(position + 1);
+    }
+  }
+
+  private int varint(int position) {
+    int result = 0;
+    for (int shift = 0; ; shift += 7) {
+      final byte b = buffer.get(position++);
+      result |= (b & 0x7f) << shift;
+      if (b >= 0) {
+        return result;
+      }
+    }
+  }
+
+  /**
+   * @return position after the varint at the given position
+   */
+  private int after(int position) {
+    while (buffer.get(position) < 0) {
+      position++;
+    }
+    return position + 1;
+  }
+
+  private long zigzag(int position) {
+    long result = 0;
+    for (int shift = 0; ; shift += 7) {
+      final byte b = buffer.get(position++);
+      result |= (long) (b & 0x7f) << shift;
+      if (b >= 0) {
+        return (result >>> 1) ^ -(result & 1);
+      }
+    }
+  }
+
+  private String string(int position, int length) {
+    if (buffer.hasArray()) {
+      return new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+    }
+    final byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = buffer.get(position + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Pair which decodes its value on first access (a benign race: the value is read once into a
+   * local and only has final fields).
+   */
+  private static final class BinaryPair extends JsonPair {
+    private final JsonBinary binary;
+    private final int position;
+    private JsonValue value;
+
+    BinaryPair(JsonBinary binary, String name, int position) {
+      super(name, null);
+      this.binary = binary;
+      this.position = position;
+    }
+
+    @Override
+    public JsonValue getValue() {
+      JsonValue v = value;
+      if (v == null) {
+        v = binary.value(position);
+        value = v;
+      }
+      return v;
+    }
+  }
+
+  private static final class Encoder {
+    private final Map<String, Integer> keyIds = new HashMap<>();
+    private String[] keys = new String[16];
+    private byte[] bytes = new byte[256];
+    private int size;
+
+    void document(JsonValue value) {
+      ensure(HEADER);
+      bytes[size++] = 'J';
+      bytes[size++] = 'B';
+      bytes[size++] = VERSION;
+      size += 4;
+      value(value);
+      putInt(3, size);
+      final int count = keyIds.size();
+      varint(count);
+      for (int i = 0; i < count; i++) {
+        utf8(keys[i]);
+      }
+    }
+
+    private void value(JsonValue value) {
+      if (value instanceof JsonObject) {
+        final int header = start(OBJECT);
+        final List<JsonPair> pairs = ((JsonObject) value).value();
+        varint(pairs.size());
+        for (JsonPair pair : pairs) {
+          varint(keyId(pair.getName()));
+          value(pair.getValue());
+        }
+        end(header);
+      } else if (value instanceof JsonArray) {
+        final JsonArray array = (JsonArray) value;
+        final int count = array.size();
+        if (array.isLongArray()) {
+          final int header = start(LONG_ARRAY);
+          varint(count);
+          for (int i = 0; i < count; i++) {
+            zigzag(array.getLong(i));
+          }
+          end(header);
+        } else if (array.isDoubleArray() && !array.hasIntegral()) {
+          // (integral numbers of a double array keep their kind as LONG values of an ARRAY)
+          final int header = start(DOUBLE_ARRAY);
+          varint(count);
+          for (int i = 0; i < count; i++) {
+            putDouble(array.getDouble(i));
+          }
+          end(header);
+        } else {
+          final int header = start(ARRAY);
+          varint(count);
+          for (int i = 0; i < count; i++) {
+            value(array.get(i));
+          }
+          end(header);
+        }
+      } else if (value instanceof JsonNumber) {
+        final JsonNumber number = (JsonNumber) value;
+        if (number.kind() == JsonNumber.LONG) {
+          type(LONG);
+          zigzag(number.asLong());
+        } else if (number.kind() == JsonNumber.DOUBLE) {
+          type(DOUBLE);
+          putDouble(number.asDouble());
+        } else {
+          type(DECIMAL);
+          utf8(number.asBigDecimal().toString());
+        }
+      } else if (value instanceof JsonString) {
+        type(STRING);
+        utf8(((JsonString) value).value());
+      } else {
+        throw new IllegalArgumentException("Unsupported value " + (value == null ? null : value.getClass()));
+      }
+    }
+
+    private int keyId(String name) {
+      Integer id = keyIds.get(name);
+      if (id == null) {
+        id = keyIds.size();
+        keyIds.put(name, id);
+        if (id == keys.length) {
+          keys = Arrays.copyOf(keys, id * 2);
+        }
+        keys[id] = name;
+      }
+      return id;
+    }
+
+    private void type(byte type) {
+      ensure(1);
+      bytes[size++] = type;
+    }
+
+    private int start(byte type) {
+      final int header = size;
+      ensure(5);
+      bytes[size] = type;
+      size += 5;
+      return header;
+    }
+
+    private void end(int header) {
+      putInt(header + 1, size - header - 5);
+    }
+
+    private void utf8(String value) {
+      final byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+      varint(encoded.length);
+      ensure(encoded.length);
+      System.arraycopy(encoded, 0, bytes, size, encoded.length);
+      size += encoded.length;
+    }
+
+    private void varint(int value) {
+      ensure(5);
+      while ((value & ~0x7f) != 0) {
+        bytes[size++] = (byte) (value | 0x80);
+        value >>>= 7;
+      }
+      bytes[size++] = (byte) value;
+    }
+
+    private void zigzag(long value) {
+      ensure(10);
+      long v = (value << 1) ^ (value >> 63);
+      while ((v & ~0x7fL) != 0) {
+        bytes[size++] = (byte) (v | 0x80);
+        v >>>= 7;
+      }
+      bytes[size++] = (byte) v;
+    }
+
+    private void putDouble(double value) {
+      ensure(8);
+      long bits = Double.doubleToRawLongBits(value);
+      for (int i = 0; i < 8; i++) {
+        bytes[size++] = (byte) bits;
+        bits >>>= 8;
+      }
+    }
+
+    private void putInt(int position, int value) {
+      bytes[position] = (byte) value;
+      bytes[position + 1] = (byte) (value >>> 8);
+      bytes[position + 2] = (byte) (value >>> 16);
+      bytes[position + 3] = (byte) (value >>> 24);
+    }
+
+    private void ensure(int additional) {
+      if (size + additional > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+      }
+    }
+  }
+}
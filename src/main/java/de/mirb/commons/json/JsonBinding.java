@@ -0,0 +1,415 @@
+package de.mirb.pg.pojo;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * How a Java type is bound by {@link JsonParser#parse(String, Class)}.
+ * <p>
+ * The binding of a class is created once and cached ({@link ClassValue}), so binding a document
+ * does not use reflection: objects are created and their properties set via method handles, the
+ * names of the pairs are looked up in a hash table of the properties on the units of the input
+ * (without creating a string), and <code>int</code>, <code>long</code>, <code>double</code> and
+ * <code>boolean</code> properties are set without boxing.
+ * <p>
+ * Supported are strings, primitives and their wrappers, {@link BigDecimal}, {@link BigInteger},
+ * {@link Number}, enums (by constant name), {@link JsonValue}s, lists, sets, maps with string keys,
+ * arrays, {@link Object} (strings, numbers, booleans, lists and maps) and beans. A bean is created
+ * via its no-argument constructor (any visibility) and its properties are set via public setters
+ * (of overloaded setters the one with the type of the field of the property, other overloads are
+ * rejected) or directly on the (non-final, non-transient) fields; a class without no-argument constructor is
+ * created via its constructor with the most parameters, whose parameter names are the names of
+ * the pairs (so the class must be compiled with <code>-parameters</code>).
+ */
+final class JsonBinding {
+  static final int STRING = 0;
+  static final int INT = 1;
+  static final int LONG = 2;
+  static final int DOUBLE = 3;
+  static final int BOOLEAN = 4;
+  static final int FLOAT = 5;
+  static final int SHORT = 6;
+  static final int BYTE = 7;
+  static final int BIG_DECIMAL = 8;
+  static final int BIG_INTEGER = 9;
+  static final int NUMBER = 10;
+  static final int ENUM = 11;
+  static final int JSON_VALUE = 12;
+  static final int OBJECT = 13;
+  static final int LIST = 14;
+  static final int SET = 15;
+  static final int MAP = 16;
+  static final int ARRAY = 17;
+  static final int BEAN = 18;
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final ClassValue<JsonBinding> CLASSES = new ClassValue<JsonBinding>() {
+    @Override
+    protected JsonBinding computeValue(Class<?> type) {
+      return create(type);
+    }
+  };
+
+  final int kind;
+  final Class<?> type;
+  /** binding of the elements of lists, sets and arrays and of the values of maps */
+  final JsonBinding element;
+  private final Map<String, Object> constants;
+  private final Bean bean;
+
+  private JsonBinding(int kind, Class<?> type, JsonBinding element, Map<String, Object> constants, Bean bean) {
+    this.kind = kind;
+    this.type = type;
+    this.element = element;
+    this.constants = constants;
+    this.bean = bean;
+  }
+
+  private JsonBinding(int kind, Class<?> type) {
+    this(kind, type, null, null, null);
+  }
+
+  /**
+   * @param type class or parameterized type (like <code>List&lt;Order&gt;</code>)
+   * @return binding of the type (cached for classes)
+   * @throws IllegalArgumentException if the type can not be bound
+   */
+  static JsonBinding of(Type type) {
+    if (type instanceof Class) {
+      return CLASSES.get((Class<?>) type);
+    } else if (type instanceof ParameterizedType) {
+      final ParameterizedType parameterized = (ParameterizedType) type;
+      final Class<?> raw = (Class<?>) parameterized.getRawType();
+      final Type[] arguments = parameterized.getActualTypeArguments();
+      if (raw.isAssignableFrom(ArrayList.class)) {
+        return new JsonBinding(LIST, raw, of(arguments[0]), null, null);
+      } else if (raw.isAssignableFrom(LinkedHashSet.class)) {
+        return new JsonBinding(SET, raw, of(arguments[0]), null, null);
+      } else if (raw.isAssignableFrom(LinkedHashMap.class)) {
+        if (arguments[0] != String.class) {
+          throw new IllegalArgumentException("Unsupported map key type: " + type);
+        }
+        return new JsonBinding(MAP, raw, of(arguments[1]), null, null);
+      }
+      return of(raw);
+    } else if (type instanceof GenericArrayType) {
+      final JsonBinding component = of(((GenericArrayType) type).getGenericComponentType());
+      return new JsonBinding(ARRAY, java.lang.reflect.Array.newInstance(component.type, 0).getClass(),
+          component, null, null);
+    } else if (type instanceof WildcardType) {
+      return of(((WildcardType) type).getUpperBounds()[0]);
+    }
+    // type variables
+    return of(Object.class);
+  }
+
+  private static JsonBinding create(Class<?> type) {
+    if (type == String.class || type == CharSequence.class) {
+      return new JsonBinding(STRING, type);
+    } else if (type == int.class || type == Integer.class) {
+      return new JsonBinding(INT, type);
+    } else if (type == long.class || type == Long.class) {
+      return new JsonBinding(LONG, type);
+    } else if (type == double.class || type == Double.class) {
+      return new JsonBinding(DOUBLE, type);
+    } else if (type == boolean.class || type == Boolean.class) {
+      return new JsonBinding(BOOLEAN, type);
+    } else if (type == float.class || type == Float.class) {
+      return new JsonBinding(FLOAT, type);
+    } else if (type == short.class || type == Short.class) {
+      return new JsonBinding(SHORT, type);
+    } else if (type == byte.class || type == Byte.class) {
+      return new JsonBinding(BYTE, type);
+    } else if (type == BigDecimal.class) {
+      return new JsonBinding(BIG_DECIMAL, type);
+    } else if (type == BigInteger.class) {
+      return new JsonBinding(BIG_INTEGER, type);
+    } else if (type == Number.class) {
+      return new JsonBinding(NUMBER, type);
+    } else if (type.isEnum()) {
+      final Map<String, Object> constants = new HashMap<>();
+      for (Object constant : type.getEnumConstants()) {
+        constants.put(((Enum<?>) constant).name(), constant);
+      }
+      return new JsonBinding(ENUM, type, null, constants, null);
+    } else if (JsonValue.class.isAssignableFrom(type)) {
+      return new JsonBinding(JSON_VALUE, type);
+    } else if (type == Object.class) {
+      return new JsonBinding(OBJECT, type);
+    } else if (type.isArray()) {
+      return new JsonBinding(ARRAY, type, of(type.getComponentType()), null, null);
+    } else if (type.isAssignableFrom(ArrayList.class)) {
+      return new JsonBinding(LIST, type, of(Object.class), null, null);
+    } else if (type.isAssignableFrom(LinkedHashSet.class)) {
+      return new JsonBinding(SET, type, of(Object.class), null, null);
+    } else if (type.isAssignableFrom(LinkedHashMap.class)) {
+      return new JsonBinding(MAP, type, of(Object.class), null, null);
+    } else if (type.isPrimitive() || type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+      throw new IllegalArgumentException("Unsupported type: " + type.getName());
+    }
+    return new JsonBinding(BEAN, type, null, null, new Bean(type));
+  }
+
+  /**
+   * @return <code>true</code> if the bound type is primitive (so <code>null</code> can not be bound)
+   */
+  boolean isPrimitive() {
+    return type.isPrimitive();
+  }
+
+  Bean bean() {
+    return bean;
+  }
+
+  Object constant(String name) {
+    return constants.get(name);
+  }
+
+  /**
+   * Creates the collection for a list or set binding.
+   */
+  Collection<Object> collection() {
+    return kind == LIST ? new ArrayList<>() : new LinkedHashSet<>();
+  }
+
+  /**
+   * Creates and sets the properties of a bean.
+   */
+  static final class Bean {
+    final Class<?> type;
+    /** <code>()Object</code> for the no-argument constructor, <code>(Object[])Object</code> otherwise */
+    private final MethodHandle constructor;
+    /** <code>true</code> if the properties are the arguments of the constructor */
+    final boolean creator;
+    private final Property[] properties;
+    /** open addressing table with (index + 1) of the property for a name */
+    private final int[] table;
+    private final Object[] defaults;
+
+    Bean(Class<?> type) {
+      this.type = type;
+      final List<Property> found = new ArrayList<>();
+      Constructor<?> constructor = null;
+      try {
+        constructor = type.getDeclaredConstructor();
+      } catch (NoSuchMethodException e) {
+        // created via the constructor with arguments
+      }
+      try {
+        if (constructor != null) {
+          constructor.setAccessible(true);
+          this.constructor = LOOKUP.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+          this.creator = false;
+          setters(type, found);
+          this.defaults = null;
+        } else {
+          constructor = creator(type);
+          constructor.setAccessible(true);
+          this.constructor = LOOKUP.unreflectConstructor(constructor)
+              .asSpreader(Object[].class, constructor.getParameterCount())
+              .asType(MethodType.methodType(Object.class, Object[].class));
+          this.creator = true;
+          final Parameter[] parameters = constructor.getParameters();
+          this.defaults = new Object[parameters.length];
+          for (int i = 0; i < parameters.length; i++) {
+            found.add(new Property(parameters[i].getName(), parameters[i].getParameterizedType(), i, null));
+            defaults[i] = defaultValue(parameters[i].getType());
+          }
+        }
+      } catch (IllegalAccessException | RuntimeException e) {
+        throw new IllegalArgumentException("Unable to bind " + type.getName() + ": " + e, e);
+      }
+      properties = found.toArray(new Property[found.size()]);
+      table = new int[Integer.highestOneBit(Math.max(1, properties.length) * 2 - 1) << 1];
+      final int mask = table.length - 1;
+      for (int i = 0; i < properties.length; i++) {
+        int slot = spread(properties[i].hash) & mask;
+        while (table[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        table[slot] = i + 1;
+      }
+    }
+
+    private static Constructor<?> creator(Class<?> type) {
+      Constructor<?> creator = null;
+      for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+        if (!constructor.isSynthetic()
+            && (creator == null || constructor.getParameterCount() > creator.getParameterCount())) {
+          creator = constructor;
+        }
+      }
+      if (creator == null || !creator.getParameters()[0].isNamePresent()) {
+        throw new IllegalArgumentException("Unable to bind " + type.getName()
+            + ": no default constructor and no constructor parameter names (compile with -parameters)");
+      }
+      return creator;
+    }
+
+    /**
+     * Collects the public setters and the fields without setter of the class and its super classes.
+     */
+    private static void setters(Class<?> type, List<Property> found) throws IllegalAccessException {
+      final Map<String, List<Method>> setters = new LinkedHashMap<>();
+      for (Method method : type.getMethods()) {
+        final String name = method.getName();
+        if (name.length() > 3 && name.startsWith("set") && method.getParameterCount() == 1
+            && !Modifier.isStatic(method.getModifiers()) && !method.isBridge()) {
+          setters.computeIfAbsent(decapitalize(name.substring(3)), k -> new ArrayList<>(1)).add(method);
+        }
+      }
+      final Set<String> names = new HashSet<>(setters.keySet());
+      for (Map.Entry<String, List<Method>> entry : setters.entrySet()) {
+        final Method method = setter(type, entry.getKey(), entry.getValue());
+        // public setters of non-public classes
+        method.setAccessible(true);
+        found.add(new Property(entry.getKey(), method.getGenericParameterTypes()[0], -1, LOOKUP.unreflect(method)));
+      }
+      for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          final int modifiers = field.getModifiers();
+          if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !Modifier.isFinal(modifiers)
+              && !field.isSynthetic() && names.add(field.getName())) {
+            field.setAccessible(true);
+            found.add(new Property(field.getName(), field.getGenericType(), -1, LOOKUP.unreflectSetter(field)));
+          }
+        }
+      }
+    }
+
+    /**
+     * Chooses among overloaded setters (whose order in {@link Class#getMethods()} is unspecified)
+     * the one with the type of the field of the property as parameter type.
+     *
+     * @throws IllegalArgumentException if there is no such setter
+     */
+    private static Method setter(Class<?> type, String property, List<Method> candidates) {
+      if (candidates.size() == 1) {
+        return candidates.get(0);
+      }
+      for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          if (field.getName().equals(property) && !Modifier.isStatic(field.getModifiers())) {
+            for (Method candidate : candidates) {
+              if (candidate.getParameterTypes()[0] == field.getType()) {
+                return candidate;
+              }
+            }
+          }
+        }
+      }
+      throw new IllegalArgumentException("Ambiguous setters for property " + property + ": " + candidates);
+    }
+
+    private static String decapitalize(String name) {
+      return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+      if (!type.isPrimitive()) {
+        return null;
+      } else if (type == boolean.class) {
+        return false;
+      } else if (type == char.class) {
+        return '\0';
+      }
+      return java.lang.reflect.Array.get(java.lang.reflect.Array.newInstance(type, 1), 0);
+    }
+
+    private static int spread(int h) {
+      return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return property for the name of the current string token of the cursor or <code>null</code>
+     */
+    Property property(JsonCursor cursor) {
+      final int h = cursor.stringHash();
+      final int mask = table.length - 1;
+      for (int slot = spread(h) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+        final Property property = properties[table[slot] - 1];
+        if (property.hash == h && cursor.stringEquals(property.name)) {
+          return property;
+        }
+      }
+      return null;
+    }
+
+    Object newInstance() throws Throwable {
+      return (Object) constructor.invokeExact();
+    }
+
+    /**
+     * @return arguments of the constructor with the defaults of all properties
+     */
+    Object[] arguments() {
+      return defaults.clone();
+    }
+
+    Object newInstance(Object[] arguments) throws Throwable {
+      return (Object) constructor.invokeExact(arguments);
+    }
+  }
+
+  /**
+   * Property of a bean: a setter, a field or an argument of the constructor.
+   */
+  static final class Property {
+    final String name;
+    final int hash;
+    /** index of the constructor argument */
+    final int argument;
+    /**
+     * Setter with the type <code>(Object, T)void</code> for the {@link #unboxed} primitive types,
+     * otherwise <code>(Object, Object)void</code> (<code>null</code> for constructor arguments)
+     */
+    final MethodHandle setter;
+    /** <code>true</code> for <code>int</code>, <code>long</code>, <code>double</code> and <code>boolean</code> */
+    final boolean unboxed;
+    private final Type type;
+    private volatile JsonBinding binding;
+
+    Property(String name, Type type, int argument, MethodHandle setter) {
+      this.name = name;
+      this.hash = name.hashCode();
+      this.type = type;
+      this.argument = argument;
+      this.unboxed = type == int.class || type == long.class || type == double.class || type == boolean.class;
+      this.setter = setter == null ? null : setter.asType(MethodType.methodType(void.class, Object.class,
+          unboxed ? (Class<?>) type : Object.class));
+    }
+
+    /**
+     * @return binding of the property type (created on first use, so recursive types are possible)
+     */
+    JsonBinding binding() {
+      JsonBinding b = binding;
+      if (b == null) {
+        b = of(type);
+        binding = b;
+      }
+      return b;
+    }
+  }
+}
@@ -0,0 +1,310 @@
+package de.mirb.pg.pojo;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Parser which caches the value trees of the parsed documents, so a repeated document (like a
+ * configuration or a schema) is returned from the cache without tokenizing it again.
+ * <p>
+ * Documents are keyed by a 64-bit hash of their content and their length; on a hit the content is
+ * compared with the cached document, so a hash collision only results in a miss. The cache is
+ * bounded by the estimated retained size of the cached trees and documents and evicts via a
+ * segmented LRU: new trees enter a probation segment and are moved into the protected segment
+ * (at most 80% of the size) on their first hit, so a scan of one-time documents does not evict
+ * the frequently used ones. Documents whose retained size exceeds the probation segment are
+ * parsed but not cached.
+ * <p>
+ * Instances are thread-safe; the documents are parsed outside of the lock by a
+ * {@link JsonSharedParser}. The returned trees are shared between all callers and must not be
+ * changed (they are immutable).
+ */
+public final class JsonCachingParser {
+  private static final long P1 = 0x9E3779B185EBCA87L;
+  private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long P3 = 0x165667B19E3779F9L;
+  /** estimated size of an object header with one reference */
+  private static final int OBJECT = 16;
+  /** estimated size of an empty string (string and array object) */
+  private static final int STRING = 40;
+
+  private final JsonSharedParser parser;
+  private final long maxRetainedSize;
+  private final long maxProtectedSize;
+  private final LinkedHashMap<Key, Entry> probation = new LinkedHashMap<>(16, 0.75f, true);
+  private final LinkedHashMap<Key, Entry> protect = new LinkedHashMap<>(16, 0.75f, true);
+  private long probationSize;
+  private long protectedSize;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * @param maxRetainedSize maximum estimated size (in bytes) of all cached trees and documents
+   */
+  public JsonCachingParser(long maxRetainedSize) {
+    this(new JsonSharedParser(), maxRetainedSize);
+  }
+
+  public JsonCachingParser(JsonSharedParser parser, long maxRetainedSize) {
+    if (maxRetainedSize < 0) {
+      throw new IllegalArgumentException("Negative maximum retained size: " + maxRetainedSize);
+    }
+    this.parser = parser;
+    this.maxRetainedSize = maxRetainedSize;
+    this.maxProtectedSize = maxRetainedSize / 5 * 4;
+  }
+
+  public JsonValue parse(String json) throws JsonParserException {
+    final Key key = new Key(hash(json), json.length());
+    JsonValue value = get(key, json, 0);
+    if (value == null) {
+      value = parser.parse(json);
+      value = put(new Entry(key, json, value, STRING + 2L * json.length() + retainedSize(value)), 0);
+    }
+    return value;
+  }
+
+  /**
+   * Parses the UTF-8 encoded bytes; on a miss they are copied into the cache.
+   */
+  public JsonValue parse(byte[] json, int offset, int length) throws JsonParserException {
+    final Key key = new Key(hash(json, offset, length), length);
+    JsonValue value = get(key, json, offset);
+    if (value == null) {
+      value = parser.parse(json, offset, length);
+      final byte[] copy = new byte[length];
+      System.arraycopy(json, offset, copy, 0, length);
+      value = put(new Entry(key, copy, value, OBJECT + length + retainedSize(value)), 0);
+    }
+    return value;
+  }
+
+  private synchronized JsonValue get(Key key, Object json, int offset) {
+    Entry entry = protect.get(key);
+    if (entry != null && entry.matches(json, offset, key.length)) {
+      hits++;
+      return entry.value;
+    }
+    entry = probation.get(key);
+    if (entry != null && entry.matches(json, offset, key.length)) {
+      probation.remove(key);
+      probationSize -= entry.size;
+      protect.put(key, entry);
+      protectedSize += entry.size;
+      while (protectedSize > maxProtectedSize) {
+        final Entry demoted = removeEldest(protect);
+        protectedSize -= demoted.size;
+        probation.put(demoted.key, demoted);
+        probationSize += demoted.size;
+      }
+      hits++;
+      return entry.value;
+    }
+    misses++;
+    return null;
+  }
+
+  /**
+   * @return the value of the entry or of an equal entry which was cached in the meantime
+   */
+  private synchronized JsonValue put(Entry entry, int offset) {
+    final Key key = entry.key;
+    final Entry existing = protect.containsKey(key) ? protect.get(key) : probation.get(key);
+    if (existing != null) {
+      if (existing.matches(entry.source, offset, key.length)) {
+        return existing.value;
+      }
+      // hash collision: the new document replaces the cached one
+      if (protect.remove(key) != null) {
+        protectedSize -= existing.size;
+      } else {
+        probation.remove(key);
+        probationSize -= existing.size;
+      }
+    }
+    if (entry.size <= maxRetainedSize - maxProtectedSize) {
+      probation.put(key, entry);
+      probationSize += entry.size;
+      while (probationSize + protectedSize > maxRetainedSize) {
+        final boolean fromProbation = !probation.isEmpty();
+        final Entry evicted = removeEldest(fromProbation ? probation : protect);
+        if (fromProbation) {
+          probationSize -= evicted.size;
+        } else {
+          protectedSize -= evicted.size;
+        }
+        evictions++;
+      }
+    }
+    return entry.value;
+  }
+
+  private static Entry removeEldest(LinkedHashMap<Key, Entry> segment) {
+    final Iterator<Entry> it = segment.values().iterator();
+    final Entry eldest = it.next();
+    it.remove();
+    return eldest;
+  }
+
+  public synchronized void clear() {
+    probation.clear();
+    protect.clear();
+    probationSize = 0;
+    protectedSize = 0;
+  }
+
+  /**
+   * @return number of cached documents
+   */
+  public synchronized int size() {
+    return probation.size() + protect.size();
+  }
+
+  /**
+   * @return estimated size (in bytes) of all cached trees and documents
+   */
+  public synchronized long getRetainedSize() {
+    return probationSize + protectedSize;
+  }
+
+  public synchronized long getHitCount() {
+    return hits;
+  }
+
+  public synchronized long getMissCount() {
+    return misses;
+  }
+
+  public synchronized long getEvictionCount() {
+    return evictions;
+  }
+
+  /**
+   * Estimates the heap size of the tree (names are counted for every pair, also if they are
+   * shared via a key cache).
+   */
+  static long retainedSize(JsonValue value) {
+    if (value instanceof JsonObject) {
+      long size = 3 * OBJECT + 24;
+      for (JsonPair pair : ((JsonObject) value).value()) {
+        size += OBJECT + 16 + STRING + 2L * pair.getName().length() + retainedSize(pair.getValue());
+      }
+      return size;
+    } else if (value instanceof JsonArray) {
+      final JsonArray array = (JsonArray) value;
+      long size = 2 * OBJECT + 24 + 8L * array.size();
+      if (!array.isLongArray() && !array.isDoubleArray()) {
+        for (JsonValue element : array.value()) {
+          size += retainedSize(element);
+        }
+      }
+      return size;
+    } else if (value instanceof JsonString) {
+      return OBJECT + STRING + 2L * ((JsonString) value).length();
+    } else if (value instanceof JsonNumber) {
+      return ((JsonNumber) value).kind() == JsonNumber.DECIMAL ? 3 * STRING : STRING;
+    }
+    return OBJECT;
+  }
+
+  /**
+   * Hash of the characters in the way of xxHash64 with one lane (not cryptographic).
+   */
+  static long hash(String s) {
+    final int length = s.length();
+    long h = P3 + length;
+    int i = 0;
+    for (; i + 4 <= length; i += 4) {
+      h = round(h, s.charAt(i) | (long) s.charAt(i + 1) << 16 | (long) s.charAt(i + 2) << 32
+          | (long) s.charAt(i + 3) << 48);
+    }
+    long tail = 0;
+    for (int shift = 0; i < length; i++, shift += 16) {
+      tail |= (long) s.charAt(i) << shift;
+    }
+    return mix(round(h, tail));
+  }
+
+  static long hash(byte[] b, int offset, int length) {
+    final int end = offset + length;
+    long h = P3 + length;
+    int i = offset;
+    for (; i + 8 <= end; i += 8) {
+      h = round(h, (b[i] & 0xFFL) | (b[i + 1] & 0xFFL) << 8 | (b[i + 2] & 0xFFL) << 16
+          | (b[i + 3] & 0xFFL) << 24 | (b[i + 4] & 0xFFL) << 32 | (b[i + 5] & 0xFFL) << 40
+          | (b[i + 6] & 0xFFL) << 48 | (b[i + 7] & 0xFFL) << 56);
+    }
+    long tail = 0;
+    for (int shift = 0; i < end; i++, shift += 8) {
+      tail |= (b[i] & 0xFFL) << shift;
+    }
+    return mix(round(h, tail));
+  }
+
+  private static long round(long h, long k) {
+    k *= P2;
+    k = Long.rotateLeft(k, 31) * P1;
+    h ^= k;
+    return Long.rotateLeft(h, 27) * P1 + P3;
+  }
+
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= P2;
+    h ^= h >>> 29;
+    h *= P3;
+    return h ^ h >>> 32;
+  }
+
+  private static final class Key {
+    private final long hash;
+    private final int length;
+
+    Key(long hash, int length) {
+      this.hash = hash;
+      this.length = length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key && ((Key) o).hash == hash && ((Key) o).length == length;
+    }
+
+    @Override
+    public int hashCode() {
+      return (int) (hash ^ hash >>> 32);
+    }
+  }
+
+  private static final class Entry {
+    /** the document (<code>String</code> or a copy of the bytes) */
+    private final Key key;
+    private final Object source;
+    private final JsonValue value;
+    private final long size;
+
+    Entry(Key key, Object source, JsonValue value, long size) {
+      this.key = key;
+      this.source = source;
+      this.value = value;
+      this.size = size;
+    }
+
+    boolean matches(Object json, int offset, int length) {
+      if (source instanceof String) {
+        return source.equals(json);
+      } else if (!(json instanceof byte[])) {
+        return false;
+      }
+      final byte[] bytes = (byte[]) source;
+      final byte[] other = (byte[]) json;
+      for (int i = 0; i < length; i++) {
+        if (bytes[i] != other[offset + i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
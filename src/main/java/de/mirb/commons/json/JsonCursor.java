@@ -0,0 +1,947 @@
+package de.mirb.pg.pojo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pull based token cursor which tokenizes its input lazily (one token per {@link #nextToken()} call)
+ * instead of materializing a list of {@link JsonToken}s.
+ * <p>
+ * The cursor uses the {@link JsonTokenizer.Engine#TABLE} engine and accepts the same input as
+ * {@link JsonTokenizer#tokenize(String)} (leading and trailing whitespace is ignored).
+ * Literals are only created on request via {@link #getLiteral()}.
+ */
+public abstract class JsonCursor {
+  private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+  final JsonTableTokenizer table = new JsonTableTokenizer();
+  private final JsonNumber.Decoder decoder = new JsonNumber.Decoder();
+
+  private int count;
+  private int index;
+  private JsonToken.Token current;
+  private int offset;
+  private int end;
+  private boolean escaped;
+
+  JsonCursor() {
+  }
+
+  public static JsonCursor create(final String json) {
+    final char[] chars = json.toCharArray();
+    return new CharArrayCursor(chars, 0, chars.length);
+  }
+
+  public static JsonCursor create(final char[] json, final int offset, final int length) {
+    return new CharArrayCursor(json, offset, length);
+  }
+
+  /**
+   * Creates a cursor over UTF-8 encoded bytes. Offsets and lengths of tokens are byte based;
+   * string content is only decoded when a literal is requested.
+   */
+  public static JsonCursor create(final byte[] json, final int offset, final int length) {
+    return new ByteArrayCursor(json, offset, length);
+  }
+
+  /**
+   * Creates a cursor over the remaining UTF-8 encoded bytes of the given buffer
+   * (the position of the buffer is not changed).
+   * Offsets of tokens are indexes of the backing array for heap buffers and absolute
+   * buffer indexes for direct buffers.
+   */
+  public static JsonCursor create(final ByteBuffer json) {
+    if (json.hasArray()) {
+      return new ByteArrayCursor(json.array(), json.arrayOffset() + json.position(), json.remaining());
+    }
+    return new ByteBufferCursor(json, json.position(), json.remaining());
+  }
+
+  /**
+   * Resets the token state for a new input (the table and the number decoder are kept).
+   */
+  void resetState() {
+    table.reset();
+    count = 0;
+    index = 0;
+    current = null;
+    offset = 0;
+    end = 0;
+    escaped = false;
+  }
+
+  /**
+   * Moves the cursor to the next token.
+   *
+   * @return the next token or <code>null</code> if the end of the input was reached
+   * @throws JsonTokenizerException if the input is not valid
+   */
+  public JsonToken.Token nextToken() throws JsonTokenizerException {
+    if (index >= count) {
+      count = advance();
+      index = 0;
+      if (count <= 0) {
+        current = null;
+        return null;
+      }
+    }
+    current = JsonTableTokenizer.TOKENS[table.type(index)];
+    offset = table.start(index);
+    end = table.end(index);
+    escaped = table.escaped(index);
+    index++;
+    return current;
+  }
+
+  /**
+   * Sets the current token (for cursors which do not use the table).
+   */
+  JsonToken.Token current(final JsonToken.Token token, final int start, final int end, final boolean escaped) {
+    this.current = token;
+    this.offset = start;
+    this.end = end;
+    this.escaped = escaped;
+    return token;
+  }
+
+  /**
+   * @return current token or <code>null</code> if the cursor is before the first or after the last token
+   */
+  public JsonToken.Token currentToken() {
+    return current;
+  }
+
+  /**
+   * @return start offset of the current token within the input
+   */
+  public int getOffset() {
+    return offset;
+  }
+
+  /**
+   * @return length of the current token within the input
+   */
+  public int getLength() {
+    return end - offset;
+  }
+
+  /**
+   * @return <code>true</code> if the current token is a string which contains escaped characters
+   */
+  public boolean isEscaped() {
+    return escaped;
+  }
+
+  /**
+   * Literal of the current token (same as {@link JsonToken#getLiteral()} for tokens created by
+   * {@link JsonTokenizer}).
+   *
+   * @return literal of the current token
+   */
+  public String getLiteral() {
+    if (current == null) {
+      return null;
+    }
+    switch (current) {
+      case STRING:
+      case NUMBER:
+      case TRUE:
+      case FALSE:
+      case NULL:
+        return literal(offset, end, escaped);
+      default:
+        return current.toString();
+    }
+  }
+
+  /**
+   * Content of the current string token without the surrounding quotation marks.
+   *
+   * @return string content of the current token
+   */
+  public String getStringValue() {
+    return literal(offset + 1, end - 1, escaped);
+  }
+
+  /**
+   * Content of the current string token without the surrounding quotation marks, canonicalized via
+   * the given cache (strings with escaped characters are not cached).
+   *
+   * @param cache key cache (or <code>null</code> for no caching)
+   * @return string content of the current token
+   */
+  public String getStringValue(final JsonKeyCache cache) {
+    return string(offset + 1, end - 1, escaped, cache);
+  }
+
+  /**
+   * Compares the content of the current string token with the given value. Strings without escape
+   * sequences are compared on the units of the input (for UTF-8 input only if the value is ASCII),
+   * so no string is created for a mismatch.
+   *
+   * @param value expected content
+   * @return <code>true</code> if the content of the current string token equals the value
+   */
+  boolean stringEquals(final String value) {
+    final int start = offset + 1;
+    final int length = end - 1 - start;
+    if (!escaped && (!isUtf8() || isAscii(value))) {
+      if (length != value.length()) {
+        return false;
+      }
+      for (int i = 0; i < length; i++) {
+        if (unit(start + i) != value.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return value.equals(getStringValue());
+  }
+
+  /**
+   * Hash code ({@link String#hashCode()}) of the content of the current string token, computed on
+   * the units of the input like {@link #stringEquals(String)}.
+   *
+   * @return hash code of the content of the current string token
+   */
+  int stringHash() {
+    if (!escaped) {
+      final boolean utf8 = isUtf8();
+      int h = 0;
+      for (int i = offset + 1; i < end - 1; i++) {
+        final int unit = unit(i);
+        if (utf8 && unit >= 0x80) {
+          return getStringValue().hashCode();
+        }
+        h = 31 * h + unit;
+      }
+      return h;
+    }
+    return getStringValue().hashCode();
+  }
+
+  private static boolean isAscii(final String value) {
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) >= 0x80) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Value of the current number token, decoded directly from the input.
+   *
+   * @return number value of the current token
+   * @throws NumberFormatException if the exponent of the number is out of range
+   */
+  public JsonNumber getNumberValue() {
+    return number(offset, end);
+  }
+
+  JsonNumber number(final int start, final int end) {
+    final JsonNumber number = decoder(start, end).result();
+    return number == null ? new JsonNumber(new BigDecimal(literal(start, end, false))) : number;
+  }
+
+  /**
+   * Feeds the current number token into the (reused) decoder of this cursor.
+   */
+  JsonNumber.Decoder decoder() {
+    return decoder(offset, end);
+  }
+
+  JsonNumber.Decoder decoder(final int start, final int end) {
+    final JsonNumber.Decoder decoder = this.decoder;
+    decoder.reset();
+    decode(decoder, start, end);
+    return decoder;
+  }
+
+  String string(final int start, final int end, final boolean escaped, final JsonKeyCache cache) {
+    if (cache == null || escaped) {
+      return literal(start, end, escaped);
+    }
+    return canonical(start, end, cache);
+  }
+
+  @Override
+  public String toString() {
+    return current + "=>{" + getLiteral() + "}";
+  }
+
+  /**
+   * Feeds the characters of the input into the table until at least one token is completed.
+   *
+   * @return number of completed tokens, <code>0</code> or less if no further token is available
+   */
+  abstract int advance() throws JsonTokenizerException;
+
+  abstract String literal(int start, int end, boolean escaped);
+
+  abstract void decode(JsonNumber.Decoder decoder, int start, int end);
+
+  abstract String canonical(int start, int end, JsonKeyCache cache);
+
+  /**
+   * @return character (or unsigned byte for UTF-8 input) at the given position of the input
+   */
+  abstract int unit(int index);
+
+  /**
+   * @return <code>true</code> if the units of the input are UTF-8 encoded bytes
+   */
+  abstract boolean isUtf8();
+
+  /**
+   * Writes the input between the given positions UTF-8 encoded (as it is, escape sequences are kept).
+   */
+  abstract void write(OutputStream out, int start, int end) throws IOException;
+
+  private static void write(final ByteBuffer buffer, final OutputStream out, final int start, final int end)
+      throws IOException {
+    final byte[] chunk = new byte[Math.min(end - start, 8192)];
+    for (int pos = start; pos < end; pos += chunk.length) {
+      final int length = Math.min(chunk.length, end - pos);
+      for (int i = 0; i < length; i++) {
+        chunk[i] = buffer.get(pos + i);
+      }
+      out.write(chunk, 0, length);
+    }
+  }
+
+  static final class CharArrayCursor extends JsonCursor {
+    private char[] chars;
+    private int pos;
+    private int limit;
+    private boolean finished;
+
+    CharArrayCursor(final char[] chars, final int offset, final int length) {
+      reset(chars, offset, length);
+    }
+
+    CharArrayCursor reset(final char[] chars, final int offset, final int length) {
+      this.chars = chars;
+      int start = offset;
+      int limit = offset + length;
+      while (start < limit && chars[start] <= ' ') {
+        start++;
+      }
+      while (start < limit && chars[limit - 1] <= ' ') {
+        limit--;
+      }
+      this.pos = start;
+      this.limit = limit;
+      this.finished = false;
+      resetState();
+      return this;
+    }
+
+    @Override
+    int advance() throws JsonTokenizerException {
+      final JsonTableTokenizer table = this.table;
+      final char[] chars = this.chars;
+      while (pos < limit) {
+        final char c = chars[pos];
+        final int count = table.feed(c, pos);
+        pos++;
+        if (table.state() == JsonTableTokenizer.STRING) {
+          pos = JsonScanner.skipString(chars, pos, limit);
+        } else if (c <= ' ' && table.ignoresWhitespace()) {
+          pos = JsonScanner.skipWhitespace(chars, pos, limit);
+        }
+        if (count > 0) {
+          return count;
+        }
+      }
+      if (finished) {
+        return 0;
+      }
+      finished = true;
+      return table.finish(limit);
+    }
+
+    @Override
+    String literal(final int start, final int end, final boolean escaped) {
+      return JsonTableTokenizer.literal(chars, start, end, escaped);
+    }
+
+    @Override
+    void decode(final JsonNumber.Decoder decoder, final int start, final int end) {
+      for (int i = start; i < end; i++) {
+        decoder.accept(chars[i]);
+      }
+    }
+
+    @Override
+    String canonical(final int start, final int end, final JsonKeyCache cache) {
+      return cache.get(chars, start, end - start);
+    }
+
+    @Override
+    int unit(final int index) {
+      return chars[index];
+    }
+
+    @Override
+    boolean isUtf8() {
+      return false;
+    }
+
+    @Override
+    void write(final OutputStream out, final int start, final int end) throws IOException {
+      out.write(new String(chars, start, end - start).getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  static final class ByteArrayCursor extends JsonCursor {
+    private byte[] bytes;
+    /** little endian view of the bytes for the scanner */
+    private ByteBuffer words;
+    private int pos;
+    private int limit;
+    private boolean finished;
+
+    ByteArrayCursor(final byte[] bytes, final int offset, final int length) {
+      reset(bytes, offset, length);
+    }
+
+    ByteArrayCursor reset(final byte[] bytes, final int offset, final int length) {
+      this.bytes = bytes;
+      this.words = JsonScanner.words(words, bytes);
+      int start = offset;
+      int limit = offset + length;
+      while (start < limit && (bytes[start] & 0xFF) <= ' ') {
+        start++;
+      }
+      while (start < limit && (bytes[limit - 1] & 0xFF) <= ' ') {
+        limit--;
+      }
+      this.pos = start;
+      this.limit = limit;
+      this.finished = false;
+      resetState();
+      return this;
+    }
+
+    @Override
+    int advance() throws JsonTokenizerException {
+      final JsonTableTokenizer table = this.table;
+      final byte[] bytes = this.bytes;
+      while (pos < limit) {
+        final int b = bytes[pos];
+        final int count;
+        if (b >= 0) {
+          count = table.feed(b, pos);
+          pos++;
+        } else {
+          final int continuations = JsonTableTokenizer.utf8Continuations(b & 0xFF);
+          if (continuations < 0 || pos + continuations >= limit) {
+            JsonTableTokenizer.invalidUtf8(pos);
+          }
+          int cp = b & (0x3F >> continuations);
+          for (int i = 1; i <= continuations; i++) {
+            final int next = bytes[pos + i];
+            if ((next & 0xC0) != 0x80) {
+              JsonTableTokenizer.invalidUtf8(pos + i);
+            }
+            cp = (cp << 6) | (next & 0x3F);
+          }
+          count = table.feed(cp, pos);
+          pos += continuations + 1;
+        }
+        if (table.state() == JsonTableTokenizer.STRING) {
+          pos = JsonScanner.skipString(words, pos, limit);
+        } else if (b >= 0 && b <= ' ' && table.ignoresWhitespace()) {
+          pos = JsonScanner.skipWhitespace(words, pos, limit);
+        }
+        if (count > 0) {
+          return count;
+        }
+      }
+      if (finished) {
+        return 0;
+      }
+      finished = true;
+      return table.finish(limit);
+    }
+
+    @Override
+    String literal(final int start, final int end, final boolean escaped) {
+      return JsonTableTokenizer.literal(bytes, start, end, escaped);
+    }
+
+    @Override
+    void decode(final JsonNumber.Decoder decoder, final int start, final int end) {
+      for (int i = start; i < end; i++) {
+        decoder.accept(bytes[i]);
+      }
+    }
+
+    @Override
+    String canonical(final int start, final int end, final JsonKeyCache cache) {
+      return cache.get(bytes, start, end - start);
+    }
+
+    @Override
+    int unit(final int index) {
+      return bytes[index] & 0xFF;
+    }
+
+    @Override
+    boolean isUtf8() {
+      return true;
+    }
+
+    @Override
+    void write(final OutputStream out, final int start, final int end) throws IOException {
+      out.write(bytes, start, end - start);
+    }
+  }
+
+  static class ByteBufferCursor extends JsonCursor {
+    ByteBuffer buffer;
+    /** little endian view of the buffer for the scanner */
+    private ByteBuffer words;
+    int pos;
+    int limit;
+    private boolean finished;
+
+    ByteBufferCursor(final ByteBuffer buffer, final int offset, final int length) {
+      reset(buffer, offset, length);
+    }
+
+    ByteBufferCursor reset(final ByteBuffer buffer, final int offset, final int length) {
+      if (buffer != this.buffer || words == null) {
+        this.words = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+      }
+      this.buffer = buffer;
+      int start = offset;
+      int limit = offset + length;
+      while (start < limit && (buffer.get(start) & 0xFF) <= ' ') {
+        start++;
+      }
+      while (start < limit && (buffer.get(limit - 1) & 0xFF) <= ' ') {
+        limit--;
+      }
+      this.pos = start;
+      this.limit = limit;
+      this.finished = false;
+      resetState();
+      return this;
+    }
+
+    /**
+     * Replaces the input by the given buffer without changing the token state.
+     */
+    void window(final ByteBuffer buffer, final int pos, final int limit) {
+      this.buffer = buffer;
+      this.words = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+      this.pos = pos;
+      this.limit = limit;
+    }
+
+    /**
+     * Called if the input is consumed up to the limit of the buffer (or a multi-byte character
+     * exceeds the limit). Cursors over larger inputs provide the following input via
+     * {@link #window(ByteBuffer, int, int)}.
+     *
+     * @return <code>true</code> if further input is available
+     */
+    boolean refill() throws JsonTokenizerException {
+      return false;
+    }
+
+    @Override
+    int advance() throws JsonTokenizerException {
+      final JsonTableTokenizer table = this.table;
+      while (pos < limit || refill()) {
+        final ByteBuffer buffer = this.buffer;
+        final int b = buffer.get(pos);
+        final int count;
+        if (b >= 0) {
+          count = table.feed(b, pos);
+          pos++;
+        } else {
+          final int continuations = JsonTableTokenizer.utf8Continuations(b & 0xFF);
+          if (continuations < 0 || pos + continuations >= limit) {
+            if (continuations >= 0 && refill()) {
+              continue;
+            }
+            JsonTableTokenizer.invalidUtf8(pos);
+          }
+          int cp = b & (0x3F >> continuations);
+          for (int i = 1; i <= continuations; i++) {
+            final int next = buffer.get(pos + i);
+            if ((next & 0xC0) != 0x80) {
+              JsonTableTokenizer.invalidUtf8(pos + i);
+            }
+            cp = (cp << 6) | (next & 0x3F);
+          }
+          count = table.feed(cp, pos);
+          pos += continuations + 1;
+        }
+        if (table.state() == JsonTableTokenizer.STRING) {
+          pos = JsonScanner.skipString(words, pos, limit);
+        } else if (b >= 0 && b <= ' ' && table.ignoresWhitespace()) {
+          pos = JsonScanner.skipWhitespace(words, pos, limit);
+        }
+        if (count > 0) {
+          return count;
+        }
+      }
+      if (finished) {
+        return 0;
+      }
+      finished = true;
+      return table.finish(limit);
+    }
+
+    @Override
+    String literal(final int start, final int end, final boolean escaped) {
+      return JsonTableTokenizer.literal(buffer, start, end, escaped);
+    }
+
+    @Override
+    void decode(final JsonNumber.Decoder decoder, final int start, final int end) {
+      for (int i = start; i < end; i++) {
+        decoder.accept(buffer.get(i));
+      }
+    }
+
+    @Override
+    String canonical(final int start, final int end, final JsonKeyCache cache) {
+      return cache.get(buffer, start, end - start);
+    }
+
+    @Override
+    int unit(final int index) {
+      return buffer.get(index) & 0xFF;
+    }
+
+    @Override
+    boolean isUtf8() {
+      return true;
+    }
+
+    @Override
+    void write(final OutputStream out, final int start, final int end) throws IOException {
+      JsonCursor.write(buffer, out, start, end);
+    }
+  }
+
+  /**
+   * Cursor over a (read-only) memory mapped file of any size: the file is mapped in windows of
+   * the given size and the next window is mapped when the cursor reaches the end of the current
+   * one. A new window starts at the token which is currently open, so tokens never span two windows
+   * (a window grows for tokens which are larger than the window size). Offsets of tokens are
+   * relative to the current window.
+   */
+  static final class MappedCursor extends ByteBufferCursor {
+    /** largest window which can be mapped into one buffer */
+    private static final int MAX_WINDOW = Integer.MAX_VALUE - 8;
+
+    private final FileChannel channel;
+    private final int windowSize;
+    private final long end;
+    /** position of the current window within the file */
+    private long base;
+
+    /**
+     * @param channel channel of the file
+     * @param offset position of the first byte of the document within the file
+     * @param end position after the last byte of the document within the file
+     * @param windowSize size of the mapped windows
+     */
+    MappedCursor(final FileChannel channel, final long offset, final long end, final int windowSize)
+        throws IOException {
+      super(EMPTY, 0, 0);
+      this.channel = channel;
+      this.windowSize = windowSize;
+      this.end = trim(channel, offset, end);
+      this.base = offset;
+      final int size = (int) Math.min(windowSize, this.end - offset);
+      window(map(offset, size), 0, size);
+    }
+
+    /**
+     * @return end of the document without trailing whitespace
+     */
+    private static long trim(final FileChannel channel, final long offset, long end) throws IOException {
+      while (end > offset) {
+        final int length = (int) Math.min(64, end - offset);
+        final ByteBuffer tail = ByteBuffer.allocate(length);
+        while (tail.hasRemaining() && channel.read(tail, end - length + tail.position()) >= 0) {
+          // read until the tail is complete
+        }
+        for (int i = length - 1; i >= 0; i--) {
+          if ((tail.get(i) & 0xFF) > ' ') {
+            return end - length + i + 1;
+          }
+        }
+        end -= length;
+      }
+      return end;
+    }
+
+    private ByteBuffer map(final long position, final long size) {
+      try {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    boolean refill() throws JsonTokenizerException {
+      if (base + limit >= end) {
+        return false;
+      }
+      final int open = table.openStart();
+      final int keep = open >= 0 ? Math.min(open, pos) : pos;
+      final int retained = limit - keep;
+      final long size = Math.min(end - base - keep, Math.min(MAX_WINDOW, Math.max(windowSize, 2L * retained)));
+      if (size <= retained) {
+        throw new JsonTokenizerException("Token exceeds the maximum window size.",
+            JsonTokenizerException.MessageKeys.INVALID_TOKEN_STATE);
+      }
+      base += keep;
+      table.shift(-keep);
+      window(map(base, size), pos - keep, (int) size);
+      return true;
+    }
+  }
+
+  /**
+   * Stage 2 of the indexed parse mode: walks the positions of a {@link JsonStructuralIndex} instead
+   * of feeding every character into the table. String bodies are validated with the scanner of
+   * {@link JsonScanner} (so plain content is skipped eight bytes at a time), numbers and literals
+   * are validated on their own.
+   */
+  static final class IndexedCursor extends JsonCursor {
+    private static final byte[] TRUE = { 't', 'r', 'u', 'e' };
+    private static final byte[] FALSE = { 'f', 'a', 'l', 's', 'e' };
+    private static final byte[] NULL = { 'n', 'u', 'l', 'l' };
+
+    private final ByteBuffer words;
+    private final JsonStructuralIndex index;
+    private final int limit;
+    private int next;
+
+    IndexedCursor(final ByteBuffer words, final JsonStructuralIndex index) {
+      this.words = words;
+      this.index = index;
+      this.limit = index.limit();
+    }
+
+    @Override
+    public JsonToken.Token nextToken() throws JsonTokenizerException {
+      if (next >= index.size()) {
+        return current(null, 0, 0, false);
+      }
+      final int pos = index.position(next++);
+      switch (words.get(pos)) {
+        case '{':
+          return current(JsonToken.Token.OPEN_CB, pos, pos + 1, false);
+        case '}':
+          return current(JsonToken.Token.CLOSE_CB, pos, pos + 1, false);
+        case '[':
+          return current(JsonToken.Token.OPEN_BR, pos, pos + 1, false);
+        case ']':
+          return current(JsonToken.Token.CLOSE_BR, pos, pos + 1, false);
+        case ':':
+          return current(JsonToken.Token.COLON, pos, pos + 1, false);
+        case ',':
+          return current(JsonToken.Token.COMMA, pos, pos + 1, false);
+        case '"':
+          // the entry after an opening quotation mark is always the closing one
+          final int close = index.position(next++);
+          if (close == pos + 1) {
+            throw new JsonTokenizerException("Token STRING is in invalid state.",
+                JsonTokenizerException.MessageKeys.INVALID_TOKEN_STATE);
+          }
+          return current(JsonToken.Token.STRING, pos, close + 1, validateString(pos + 1, close));
+        default:
+          if (next == 1) {
+            // like the table, a document can not start with a number or literal
+            forbidden(words.get(pos));
+          }
+          return scalar(pos);
+      }
+    }
+
+    /**
+     * @return <code>true</code> if the string contains escaped characters
+     */
+    private boolean validateString(int pos, final int end) throws JsonTokenizerException {
+      boolean escaped = false;
+      while ((pos = JsonScanner.skipString(words, pos, end)) < end) {
+        final int b = words.get(pos);
+        if (b == '\\') {
+          escaped = true;
+          if (!JsonTableTokenizer.isAllowedEscapedChar(words.get(pos + 1))) {
+            forbidden(words.get(pos + 1));
+          }
+          pos += 2;
+        } else if (b >= 0) {
+          if (b != '\t') {
+            forbidden(b);
+          }
+          pos++;
+        } else {
+          final int continuations = JsonTableTokenizer.utf8Continuations(b & 0xFF);
+          if (continuations < 0 || pos + continuations >= end) {
+            JsonTableTokenizer.invalidUtf8(pos);
+          }
+          for (int i = 1; i <= continuations; i++) {
+            if ((words.get(pos + i) & 0xC0) != 0x80) {
+              JsonTableTokenizer.invalidUtf8(pos + i);
+            }
+          }
+          pos += continuations + 1;
+        }
+      }
+      return escaped;
+    }
+
+    private JsonToken.Token scalar(final int start) throws JsonTokenizerException {
+      int end = start;
+      while (end < limit && isScalar(words.get(end))) {
+        end++;
+      }
+      final int first = words.get(start);
+      if (first == '-' || first >= '0' && first <= '9') {
+        validateNumber(start, end);
+        return current(JsonToken.Token.NUMBER, start, end, false);
+      } else if (isWord(TRUE, start, end)) {
+        return current(JsonToken.Token.TRUE, start, end, false);
+      } else if (isWord(FALSE, start, end)) {
+        return current(JsonToken.Token.FALSE, start, end, false);
+      } else if (isWord(NULL, start, end)) {
+        return current(JsonToken.Token.NULL, start, end, false);
+      }
+      return forbidden(first);
+    }
+
+    private static boolean isScalar(final int b) {
+      switch (b) {
+        case '{':
+        case '}':
+        case '[':
+        case ']':
+        case ':':
+        case ',':
+        case '"':
+          return false;
+        default:
+          return !JsonTableTokenizer.isWhitespace(b);
+      }
+    }
+
+    /**
+     * Literals are case insensitive (like in the table).
+     */
+    private boolean isWord(final byte[] word, final int start, final int end) {
+      if (end - start != word.length) {
+        return false;
+      }
+      for (int i = 0; i < word.length; i++) {
+        if ((words.get(start + i) | 0x20) != word[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Validates <code>-?digits(.digits)?([eE][+-]?digits)?</code>.
+     */
+    private void validateNumber(final int start, final int end) throws JsonTokenizerException {
+      int pos = start;
+      if (words.get(pos) == '-') {
+        pos++;
+      }
+      pos = digits(pos, end);
+      if (pos < end && words.get(pos) == '.') {
+        pos = digits(pos + 1, end);
+      }
+      if (pos < end && (words.get(pos) | 0x20) == 'e') {
+        pos++;
+        if (pos < end && (words.get(pos) == '+' || words.get(pos) == '-')) {
+          pos++;
+        }
+        pos = digits(pos, end);
+      }
+      if (pos < end) {
+        forbidden(words.get(pos));
+      }
+    }
+
+    /**
+     * @return position after at least one digit
+     */
+    private int digits(int pos, final int end) throws JsonTokenizerException {
+      final int first = pos;
+      while (pos < end && words.get(pos) >= '0' && words.get(pos) <= '9') {
+        pos++;
+      }
+      if (pos == first) {
+        if (pos < end) {
+          forbidden(words.get(pos));
+        }
+        throw new JsonTokenizerException("Last parsed state 'NUMBER' is not finished.",
+            JsonTokenizerException.MessageKeys.NOT_FINISHED_QUERY, "NUMBER");
+      }
+      return pos;
+    }
+
+    private static JsonToken.Token forbidden(final int c) throws JsonTokenizerException {
+      throw new JsonTokenizerException("Forbidden character in state INDEXED->" + (char) (c & 0xFF),
+          JsonTokenizerException.MessageKeys.FORBIDDEN_CHARACTER, String.valueOf((char) (c & 0xFF)));
+    }
+
+    @Override
+    int advance() {
+      // tokens are not created via the table
+      return 0;
+    }
+
+    @Override
+    String literal(final int start, final int end, final boolean escaped) {
+      return JsonTableTokenizer.literal(words, start, end, escaped);
+    }
+
+    @Override
+    void decode(final JsonNumber.Decoder decoder, final int start, final int end) {
+      for (int i = start; i < end; i++) {
+        decoder.accept(words.get(i));
+      }
+    }
+
+    @Override
+    String canonical(final int start, final int end, final JsonKeyCache cache) {
+      return cache.get(words, start, end - start);
+    }
+
+    @Override
+    int unit(final int index) {
+      return words.get(index) & 0xFF;
+    }
+
+    @Override
+    boolean isUtf8() {
+      return true;
+    }
+
+    @Override
+    void write(final OutputStream out, final int start, final int end) throws IOException {
+      JsonCursor.write(words, out, start, end);
+    }
+  }
+}
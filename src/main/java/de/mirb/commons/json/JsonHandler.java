@@ -0,0 +1,56 @@
+package de.mirb.pg.pojo;
+
+/**
+ * Callbacks for the event based parse mode of {@link JsonParser} (no value tree is built).
+ * <p>
+ * All methods have empty default implementations so a handler only needs to implement the events
+ * it is interested in. The methods which start a structure or announce a key can return
+ * <code>false</code> to skip the corresponding subtree: the parser then fast-forwards over it
+ * without creating any literal and without further callbacks (also no <code>endObject</code>
+ * or <code>endArray</code> for a skipped object or array).
+ */
+public interface JsonHandler {
+
+  /**
+   * @return <code>false</code> to skip the object
+   */
+  default boolean startObject() {
+    return true;
+  }
+
+  default void endObject() {
+  }
+
+  /**
+   * @return <code>false</code> to skip the array
+   */
+  default boolean startArray() {
+    return true;
+  }
+
+  default void endArray() {
+  }
+
+  /**
+   * @param name name of the pair
+   * @return <code>false</code> to skip the value of the pair
+   */
+  default boolean key(String name) {
+    return true;
+  }
+
+  default void stringValue(String value) {
+  }
+
+  /**
+   * @param value number decoded from the JSON document
+   */
+  default void numberValue(JsonNumber value) {
+  }
+
+  default void booleanValue(boolean value) {
+  }
+
+  default void nullValue() {
+  }
+}
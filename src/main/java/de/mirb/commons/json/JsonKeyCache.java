@@ -0,0 +1,140 @@
+package de.mirb.pg.pojo;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bounded symbol table which canonicalizes the names of JSON pairs, so repeated keys share one
+ * <code>String</code> instance.
+ * <p>
+ * Lookups are done on the raw characters (or UTF-8 bytes) of a key; a hit returns the cached
+ * instance without allocating anything (for UTF-8 input this is the case for ASCII keys).
+ * The table is direct mapped with a fixed number of slots, a colliding key replaces the cached one.
+ * <p>
+ * Instances are thread-safe and can be shared between parsers: the slots are written without
+ * synchronization, which is safe because <code>String</code> instances are immutable, a lost
+ * update only results in an additional miss.
+ */
+public class JsonKeyCache {
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  private final String[] entries;
+  private final int mask;
+
+  public JsonKeyCache() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param capacity number of slots (rounded up to the next power of two)
+   */
+  public JsonKeyCache(int capacity) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    entries = new String[size];
+    mask = size - 1;
+  }
+
+  public String get(char[] chars, int offset, int length) {
+    int h = 0;
+    for (int i = offset; i < offset + length; i++) {
+      h = 31 * h + chars[i];
+    }
+    int slot = spread(h) & mask;
+    String cached = entries[slot];
+    if (cached != null && cached.hashCode() == h && cached.length() == length) {
+      int i = 0;
+      while (i < length && cached.charAt(i) == chars[offset + i]) {
+        i++;
+      }
+      if (i == length) {
+        return cached;
+      }
+    }
+    String key = new String(chars, offset, length);
+    entries[slot] = key;
+    return key;
+  }
+
+  /**
+   * @param bytes UTF-8 encoded key
+   */
+  public String get(byte[] bytes, int offset, int length) {
+    int h = 0;
+    for (int i = offset; i < offset + length; i++) {
+      int b = bytes[i];
+      if (b < 0) {
+        return get(new String(bytes, offset, length, StandardCharsets.UTF_8));
+      }
+      h = 31 * h + b;
+    }
+    int slot = spread(h) & mask;
+    String cached = entries[slot];
+    if (cached != null && cached.hashCode() == h && cached.length() == length) {
+      int i = 0;
+      while (i < length && cached.charAt(i) == bytes[offset + i]) {
+        i++;
+      }
+      if (i == length) {
+        return cached;
+      }
+    }
+    String key = new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+    entries[slot] = key;
+    return key;
+  }
+
+  /**
+   * @param buffer UTF-8 encoded key at the absolute buffer index <code>offset</code>
+   */
+  public String get(ByteBuffer buffer, int offset, int length) {
+    int h = 0;
+    for (int i = offset; i < offset + length; i++) {
+      int b = buffer.get(i);
+      if (b < 0) {
+        return get(JsonTableTokenizer.literal(buffer, offset, offset + length, false));
+      }
+      h = 31 * h + b;
+    }
+    int slot = spread(h) & mask;
+    String cached = entries[slot];
+    if (cached != null && cached.hashCode() == h && cached.length() == length) {
+      int i = 0;
+      while (i < length && cached.charAt(i) == buffer.get(offset + i)) {
+        i++;
+      }
+      if (i == length) {
+        return cached;
+      }
+    }
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = buffer.get(offset + i);
+    }
+    String key = new String(bytes, StandardCharsets.ISO_8859_1);
+    entries[slot] = key;
+    return key;
+  }
+
+  /**
+   * Canonicalizes an already decoded key.
+   */
+  public String get(String key) {
+    int slot = spread(key.hashCode()) & mask;
+    String cached = entries[slot];
+    if (key.equals(cached)) {
+      return cached;
+    }
+    entries[slot] = key;
+    return key;
+  }
+
+  private static int spread(int h) {
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,198 @@
+package de.mirb.pg.pojo;
+
+import java.util.Arrays;
+
+/**
+ * Structural index of a JSON document for the lazy parse mode of {@link JsonParser}.
+ * <p>
+ * The index is a flat <code>int</code> tape which contains one node per value
+ * (in document order) and references the source via offsets:
+ * <pre>
+ * string = STRING start end escaped
+ * number = NUMBER start end 0
+ * object = OBJECT memberCount next *( keyStart keyEnd keyEscaped value )
+ * array  = ARRAY elementCount next *( value )
+ * </pre>
+ * Values are decoded from the source on first access of {@link JsonPair#getValue()}, so an
+ * unaccessed subtree only costs its entries in the tape. String values stay views into the source
+ * (see {@link JsonString}) until their value is requested.
+ */
+final class JsonLazyIndex {
+  static final int STRING = 1;
+  static final int OBJECT = 2;
+  static final int NUMBER = 3;
+  static final int ARRAY = 4;
+
+  private final JsonCursor source;
+  private final JsonKeyCache keyCache;
+  private int[] tape = new int[64];
+  private int size;
+
+  JsonLazyIndex(JsonCursor source, JsonKeyCache keyCache) {
+    this.source = source;
+    this.keyCache = keyCache;
+  }
+
+  int startObject() {
+    final int header = size;
+    append(OBJECT, 0, 0);
+    return header;
+  }
+
+  void member(int header, int keyStart, int keyEnd, boolean escaped) {
+    tape[header + 1]++;
+    append(keyStart, keyEnd, escaped ? 1 : 0);
+  }
+
+  void endObject(int header) {
+    tape[header + 2] = size;
+  }
+
+  int startArray() {
+    final int header = size;
+    append(ARRAY, 0, 0);
+    return header;
+  }
+
+  void element(int header) {
+    tape[header + 1]++;
+  }
+
+  void endArray(int header) {
+    tape[header + 2] = size;
+  }
+
+  void string(int start, int end, boolean escaped) {
+    append(STRING, start, end);
+    append(escaped ? 1 : 0);
+  }
+
+  void number(int start, int end) {
+    append(NUMBER, start, end);
+    append(0);
+  }
+
+  /**
+   * Trims the tape after the structural pass.
+   */
+  JsonLazyIndex complete() {
+    tape = Arrays.copyOf(tape, size);
+    return this;
+  }
+
+  JsonObject object(int node) {
+    final JsonObject.JsonObjectBuilder builder = JsonObject.start();
+    final int count = tape[node + 1];
+    int member = node + 3;
+    for (int i = 0; i < count; i++) {
+      final int value = member + 3;
+      builder.add(new LazyPair(this, member, value));
+      member = next(value);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Creates the array with all its elements (numbers are decoded into the primitive
+   * representation of {@link JsonArray}, nested objects stay lazy).
+   */
+  JsonArray array(int node) {
+    final JsonArray.JsonArrayBuilder builder = JsonArray.start();
+    final int count = tape[node + 1];
+    int element = node + 3;
+    for (int i = 0; i < count; i++) {
+      if (tape[element] == NUMBER) {
+        final JsonNumber.Decoder decoder = source.decoder(tape[element + 1], tape[element + 2]);
+        switch (decoder.decode()) {
+          case JsonNumber.LONG:
+            builder.add(decoder.longValue());
+            break;
+          case JsonNumber.DOUBLE:
+            builder.add(decoder.doubleValue());
+            break;
+          default:
+            builder.add(value(element));
+        }
+      } else {
+        builder.add(value(element));
+      }
+      element = next(element);
+    }
+    return builder.build();
+  }
+
+  private int next(int node) {
+    return tape[node] == OBJECT || tape[node] == ARRAY ? tape[node + 2] : node + 4;
+  }
+
+  private JsonValue value(int node) {
+    if (tape[node] == OBJECT) {
+      return object(node);
+    } else if (tape[node] == ARRAY) {
+      return array(node);
+    } else if (tape[node] == NUMBER) {
+      return source.number(tape[node + 1], tape[node + 2]);
+    }
+    return JsonString.view(source, tape[node + 1], tape[node + 2], tape[node + 3] != 0);
+  }
+
+  private String name(int member) {
+    return source.string(tape[member], tape[member + 1], tape[member + 2] != 0, keyCache);
+  }
+
+  private void append(int a, int b, int c) {
+    ensure(3);
+    tape[size++] = a;
+    tape[size++] = b;
+    tape[size++] = c;
+  }
+
+  private void append(int a) {
+    ensure(1);
+    tape[size++] = a;
+  }
+
+  private void ensure(int additional) {
+    if (size + additional > tape.length) {
+      tape = Arrays.copyOf(tape, Math.max(tape.length * 2, size + additional));
+    }
+  }
+
+  /**
+   * Pair which decodes its name and value on first access.
+   */
+  private static final class LazyPair extends JsonPair {
+    private final JsonLazyIndex index;
+    private final int member;
+    private final int node;
+    private String name;
+    private JsonValue value;
+
+    LazyPair(JsonLazyIndex index, int member, int node) {
+      super(null, null);
+      this.index = index;
+      this.member = member;
+      this.node = node;
+    }
+
+    @Override
+    public String getName() {
+      String n = name;
+      if (n == null) {
+        n = index.name(member);
+        name = n;
+      }
+      return n;
+    }
+
+    @Override
+    public JsonValue getValue() {
+      JsonValue v = value;
+      if (v == null) {
+        v = index.value(node);
+        value = v;
+      }
+      return v;
+    }
+  }
+}
@@ -0,0 +1,242 @@
+package de.mirb.pg.pojo;
+
+import java.math.BigDecimal;
+
+/**
+ * JSON number which keeps its value as primitive <code>long</code> (integral numbers) or
+ * <code>double</code> and only falls back to {@link BigDecimal} if the number does not fit
+ * into 19 significant digits or can not be converted exactly to a <code>double</code>.
+ */
+public class JsonNumber extends JsonValue<Number> {
+  static final int LONG = 0;
+  static final int DOUBLE = 1;
+  static final int DECIMAL = 2;
+
+  private final int kind;
+  private final long longValue;
+  private final double doubleValue;
+  private final BigDecimal decimal;
+
+  public JsonNumber(long value) {
+    super(null);
+    this.kind = LONG;
+    this.longValue = value;
+    this.doubleValue = value;
+    this.decimal = null;
+  }
+
+  public JsonNumber(double value) {
+    super(null);
+    this.kind = DOUBLE;
+    this.longValue = (long) value;
+    this.doubleValue = value;
+    this.decimal = null;
+  }
+
+  public JsonNumber(BigDecimal value) {
+    super(null);
+    this.kind = DECIMAL;
+    this.longValue = value.longValue();
+    this.doubleValue = value.doubleValue();
+    this.decimal = value;
+  }
+
+  /**
+   * Creates a number from its JSON literal.
+   *
+   * @param literal JSON number literal
+   * @return the number
+   * @throws NumberFormatException if the literal is no valid number
+   */
+  public static JsonNumber valueOf(String literal) {
+    final Decoder decoder = new Decoder();
+    for (int i = 0; i < literal.length(); i++) {
+      decoder.accept(literal.charAt(i));
+    }
+    final JsonNumber number = decoder.result();
+    return number == null ? new JsonNumber(new BigDecimal(literal)) : number;
+  }
+
+  int kind() {
+    return kind;
+  }
+
+  /**
+   * @return <code>true</code> if the number is integral and fits into a <code>long</code>
+   * (so {@link #asLong()} is exact)
+   */
+  public boolean isIntegral() {
+    return kind == LONG;
+  }
+
+  /**
+   * @return value as <code>long</code> (fractional digits are truncated)
+   */
+  public long asLong() {
+    return longValue;
+  }
+
+  public double asDouble() {
+    return doubleValue;
+  }
+
+  public BigDecimal asBigDecimal() {
+    switch (kind) {
+      case LONG:
+        return BigDecimal.valueOf(longValue);
+      case DOUBLE:
+        return BigDecimal.valueOf(doubleValue);
+      default:
+        return decimal;
+    }
+  }
+
+  /**
+   * @return value as boxed {@link Long}, {@link Double} or {@link BigDecimal}
+   */
+  @Override
+  public Number value() {
+    switch (kind) {
+      case LONG:
+        return longValue;
+      case DOUBLE:
+        return doubleValue;
+      default:
+        return decimal;
+    }
+  }
+
+  @Override
+  public String valueAsString() {
+    switch (kind) {
+      case LONG:
+        return Long.toString(longValue);
+      case DOUBLE:
+        return Double.toString(doubleValue);
+      default:
+        return decimal.toString();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return valueAsString();
+  }
+
+  /**
+   * Decodes the characters of a (valid) number literal into a <code>long</code> or
+   * <code>double</code> without creating an intermediate string.
+   * <p>
+   * Doubles are only created if the conversion is exact (the mantissa has at most 53 bits and
+   * the power of ten is exactly representable), otherwise {@link #result()} returns
+   * <code>null</code> and the caller falls back to {@link BigDecimal}.
+   */
+  static final class Decoder {
+    private static final long LIMIT = Long.MIN_VALUE / 10;
+    private static final long MAX_EXACT = 1L << 53;
+    private static final int MAX_EXPONENT = 100000;
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static final int INTEGER = 0;
+    private static final int FRACTION = 1;
+    private static final int EXPONENT = 2;
+
+    private int part;
+    private boolean negative;
+    private boolean overflow;
+    private long mantissa;
+    private int scale;
+    private boolean negativeExponent;
+    private int exponent;
+    private long longValue;
+    private double doubleValue;
+
+    void reset() {
+      part = INTEGER;
+      negative = false;
+      overflow = false;
+      mantissa = 0;
+      scale = 0;
+      negativeExponent = false;
+      exponent = 0;
+    }
+
+    void accept(int c) {
+      if (c >= '0' && c <= '9') {
+        if (part == EXPONENT) {
+          if (exponent < MAX_EXPONENT) {
+            exponent = exponent * 10 + (c - '0');
+          }
+        } else if (mantissa < LIMIT || mantissa == LIMIT && c > '8') {
+          overflow = true;
+        } else {
+          // accumulated negative, so Long.MIN_VALUE is still decoded as long
+          mantissa = mantissa * 10 - (c - '0');
+          if (part == FRACTION) {
+            scale++;
+          }
+        }
+      } else if (c == '-') {
+        if (part == EXPONENT) {
+          negativeExponent = true;
+        } else {
+          negative = true;
+        }
+      } else if (c == '.') {
+        part = FRACTION;
+      } else if (c == 'e' || c == 'E') {
+        part = EXPONENT;
+      }
+    }
+
+    /**
+     * Completes the decoding of the accepted characters.
+     *
+     * @return {@link #LONG} or {@link #DOUBLE} if the number was decoded into {@link #longValue()}
+     * or {@link #doubleValue()}, {@link #DECIMAL} if it can not be decoded exactly
+     */
+    int decode() {
+      if (overflow || !negative && mantissa == Long.MIN_VALUE) {
+        return DECIMAL;
+      } else if (part == INTEGER) {
+        longValue = negative ? mantissa : -mantissa;
+        return LONG;
+      } else if (mantissa == 0) {
+        doubleValue = negative ? -0.0d : 0.0d;
+        return DOUBLE;
+      }
+      final int power = (negativeExponent ? -exponent : exponent) - scale;
+      if (mantissa < -MAX_EXACT || power < -22 || power > 22) {
+        return DECIMAL;
+      }
+      final double value = power < 0 ? -mantissa / POW10[-power] : -mantissa * POW10[power];
+      doubleValue = negative ? -value : value;
+      return DOUBLE;
+    }
+
+    long longValue() {
+      return longValue;
+    }
+
+    double doubleValue() {
+      return doubleValue;
+    }
+
+    /**
+     * @return decoded number or <code>null</code> if the number can not be decoded exactly
+     */
+    JsonNumber result() {
+      switch (decode()) {
+        case LONG:
+          return new JsonNumber(longValue);
+        case DOUBLE:
+          return new JsonNumber(doubleValue);
+        default:
+          return null;
+      }
+    }
+  }
+}
@@ -8,11 +8,18 @@ import java.util.List;
  * Created by michael on 04.12.16.
  */
 public class JsonObject extends JsonValue<List<JsonPair>> {
-  private List<JsonPair> values;
+  /** objects with more pairs get a hash index for {@link #get(String)} */
+  static final int INDEX_THRESHOLD = 8;
+
+  private final List<JsonPair> values;
+  private final List<JsonPair> view;
+  /** open addressing table with (index + 1) of the first pair for a name, created on first lookup */
+  private volatile int[] index;
 
   private JsonObject(List<JsonPair> jsonPairs) {
     super(jsonPairs);
     values = jsonPairs;
+    view = Collections.unmodifiableList(jsonPairs);
   }
 
   public static JsonObjectBuilder with(JsonPair ... jp) {
@@ -29,19 +36,97 @@ public class JsonObject extends JsonValue<List<JsonPair>> {
 
   @Override
   public List<JsonPair> value() {
-    return Collections.unmodifiableList(values);
+    return view;
+  }
+
+  /**
+   * Value of the first pair with the given name.
+   *
+   * @param name name of the pair
+   * @return value of the pair or <code>null</code> if there is no pair with this name
+   */
+  public JsonValue get(String name) {
+    JsonPair pair = getPair(name);
+    return pair == null ? null : pair.getValue();
+  }
+
+  public boolean has(String name) {
+    return getPair(name) != null;
+  }
+
+  /**
+   * First pair with the given name (for objects with more than {@value #INDEX_THRESHOLD} pairs the
+   * lookup is done via a hash index, smaller objects are scanned).
+   *
+   * @param name name of the pair
+   * @return the pair or <code>null</code> if there is no pair with this name
+   */
+  public JsonPair getPair(String name) {
+    if (values.size() <= INDEX_THRESHOLD) {
+      for (JsonPair pair : values) {
+        if (name.equals(pair.getName())) {
+          return pair;
+        }
+      }
+      return null;
+    }
+
+    int[] table = index;
+    if (table == null) {
+      table = createIndex(values);
+      index = table;
+    }
+    int mask = table.length - 1;
+    for (int slot = hash(name) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+      JsonPair pair = values.get(table[slot] - 1);
+      if (name.equals(pair.getName())) {
+        return pair;
+      }
+    }
+    return null;
+  }
+
+  private static int[] createIndex(List<JsonPair> pairs) {
+    int capacity = Integer.highestOneBit(pairs.size() * 2 - 1) << 1;
+    int[] table = new int[capacity];
+    int mask = capacity - 1;
+    for (int i = 0; i < pairs.size(); i++) {
+      String name = pairs.get(i).getName();
+      int slot = hash(name) & mask;
+      while (table[slot] != 0 && !name.equals(pairs.get(table[slot] - 1).getName())) {
+        slot = (slot + 1) & mask;
+      }
+      if (table[slot] == 0) {
+        table[slot] = i + 1;
+      }
+    }
+    return table;
+  }
+
+  private static int hash(String name) {
+    int h = name.hashCode();
+    return h ^ (h >>> 16);
   }
 
   public static class JsonObjectBuilder {
     private List<JsonPair> jsonPairs = new ArrayList<>();
 
     public JsonObjectBuilder add(JsonPair jp) {
+      if (jsonPairs == null) {
+        jsonPairs = new ArrayList<>();
+      }
       jsonPairs.add(jp);
       return this;
     }
 
+    /**
+     * Hands the added pairs over to the object without copying them, so the builder is empty
+     * afterwards and the object can not be changed via the builder.
+     */
     public JsonObject build() {
-      return new JsonObject(jsonPairs);
+      JsonObject object = new JsonObject(jsonPairs == null ? new ArrayList<JsonPair>(0) : jsonPairs);
+      jsonPairs = null;
+      return object;
     }
   }
 }
@@ -2,12 +2,18 @@ package de.mirb.pg.pojo;
 
 /**
  * Created by mibo.
+ * <p>
+ * Pairs built by the eager parse modes of {@link JsonParser} and by the builders are immutable
+ * (and so are their values), so they can be shared between threads without synchronization. The
+ * exceptions are the pairs of the lazy parse mode ({@link JsonParser#parseLazy(String)}) and of
+ * {@link JsonBinary}, which decode their value on first access: lazy trees must only be used by one
+ * thread, binary trees can be shared as described in {@link JsonBinary}.
  */
 public class JsonPair {
-  private String name;
-  private JsonValue value;
+  private final String name;
+  private final JsonValue value;
 
-  private JsonPair(String name, JsonValue value) {
+  JsonPair(String name, JsonValue value) {
     this.name = name;
     this.value = value;
   }
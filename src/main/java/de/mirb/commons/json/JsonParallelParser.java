@@ -0,0 +1,436 @@
+package de.mirb.pg.pojo;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Parses large inputs which consist of many independent records on several threads: the lines of
+ * newline delimited JSON (NDJSON) or the elements of a top-level array.
+ * <p>
+ * The input is split into chunks of about {@link #DEFAULT_CHUNK_SIZE} bytes at record boundaries
+ * (newlines respectively the commas between the top-level elements, which are found by a quick
+ * scan that only tracks strings and nesting). The chunks are parsed by the parsers of a
+ * {@link JsonParserPool} on the executor and the records are returned in input order. Only a
+ * limited number of chunks is parsed ahead of the consumer, so the records of a large input
+ * are not all kept in memory at once.
+ * <p>
+ * The input is UTF-8 encoded. An instance is thread safe.
+ */
+public class JsonParallelParser {
+  public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+  private final Executor executor;
+  private final JsonParserPool parsers;
+  private final int chunkSize;
+  private final int maxPending;
+
+  /**
+   * Parser which uses the common {@link ForkJoinPool}.
+   */
+  public JsonParallelParser() {
+    this(ForkJoinPool.commonPool(), new JsonParserPool(), DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * @param executor executor which parses the chunks
+   * @param parsers pool of the parsers which are used by the executor threads
+   * @param chunkSize minimal number of bytes of a chunk (a chunk always ends at a record boundary)
+   */
+  public JsonParallelParser(Executor executor, JsonParserPool parsers, int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+    }
+    this.executor = executor;
+    this.parsers = parsers;
+    this.chunkSize = chunkSize;
+    int threads = executor instanceof ForkJoinPool ?
+        ((ForkJoinPool) executor).getParallelism() : Runtime.getRuntime().availableProcessors();
+    this.maxPending = 2 * Math.max(1, threads);
+  }
+
+  /**
+   * Parses the lines of newline delimited JSON (blank lines are ignored).
+   *
+   * @return the parsed lines in input order; the stream throws an {@link UncheckedParserException}
+   * for the first invalid line
+   */
+  public Stream<JsonValue> streamLines(ByteBuffer json) {
+    return stream(new LineChunks(json));
+  }
+
+  public Stream<JsonValue> streamLines(byte[] json, int offset, int length) {
+    return streamLines(ByteBuffer.wrap(json, offset, length));
+  }
+
+  /**
+   * Parses the elements of a top-level array.
+   *
+   * @return the parsed elements in input order; the stream throws an {@link UncheckedParserException}
+   * for the first invalid element (or if the input is no array)
+   */
+  public Stream<JsonValue> streamArray(ByteBuffer json) {
+    return stream(new ElementChunks(json));
+  }
+
+  public Stream<JsonValue> streamArray(byte[] json, int offset, int length) {
+    return streamArray(ByteBuffer.wrap(json, offset, length));
+  }
+
+  /**
+   * Passes the parsed lines of newline delimited JSON in input order to the consumer.
+   */
+  public void parseLines(ByteBuffer json, Consumer<? super JsonValue> consumer) throws JsonParserException {
+    forEach(streamLines(json), consumer);
+  }
+
+  public void parseLines(byte[] json, int offset, int length, Consumer<? super JsonValue> consumer)
+      throws JsonParserException {
+    forEach(streamLines(json, offset, length), consumer);
+  }
+
+  /**
+   * Passes the parsed elements of a top-level array in input order to the consumer.
+   */
+  public void parseArray(ByteBuffer json, Consumer<? super JsonValue> consumer) throws JsonParserException {
+    forEach(streamArray(json), consumer);
+  }
+
+  public void parseArray(byte[] json, int offset, int length, Consumer<? super JsonValue> consumer)
+      throws JsonParserException {
+    forEach(streamArray(json, offset, length), consumer);
+  }
+
+  private static void forEach(Stream<JsonValue> records, Consumer<? super JsonValue> consumer)
+      throws JsonParserException {
+    try {
+      records.forEachOrdered(consumer);
+    } catch (UncheckedParserException e) {
+      throw e.getCause();
+    }
+  }
+
+  private Stream<JsonValue> stream(Chunks chunks) {
+    return StreamSupport.stream(new Records(chunks), false);
+  }
+
+  /**
+   * Thrown by the streams of a {@link JsonParallelParser} for invalid input.
+   */
+  public static class UncheckedParserException extends RuntimeException {
+    private static final long serialVersionUID = 3581604218857203615L;
+
+    public UncheckedParserException(JsonParserException cause) {
+      super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public JsonParserException getCause() {
+      return (JsonParserException) super.getCause();
+    }
+  }
+
+  /**
+   * Splits the input into chunks; the chunks are requested in input order by the consuming thread.
+   */
+  private abstract class Chunks {
+    final ByteBuffer json;
+    final int limit;
+    int position;
+
+    Chunks(ByteBuffer json) {
+      this.json = json;
+      this.position = json.position();
+      this.limit = json.limit();
+    }
+
+    /**
+     * @return the parse task of the next chunk or <code>null</code> at the end of the input
+     */
+    abstract Supplier<Chunk> next() throws JsonParserException;
+  }
+
+  /**
+   * Records of a parsed chunk; the records before the first invalid record if the chunk is invalid.
+   */
+  private static class Chunk {
+    final List<JsonValue> records;
+    JsonParserException failure;
+
+    Chunk(List<JsonValue> records) {
+      this.records = records;
+    }
+  }
+
+  /**
+   * NDJSON chunks end after a newline (which can not occur within a valid JSON string).
+   */
+  private class LineChunks extends Chunks {
+    LineChunks(ByteBuffer json) {
+      super(json);
+    }
+
+    @Override
+    Supplier<Chunk> next() {
+      if (position >= limit) {
+        return null;
+      }
+      final int start = position;
+      int end = Math.min(limit, start + chunkSize);
+      while (end < limit && json.get(end - 1) != '\n') {
+        end++;
+      }
+      position = end;
+      final int chunkEnd = end;
+      return new Supplier<Chunk>() {
+        @Override
+        public Chunk get() {
+          return parseLines(json, start, chunkEnd);
+        }
+      };
+    }
+  }
+
+  private Chunk parseLines(ByteBuffer json, int start, int end) {
+    Chunk result = new Chunk(new ArrayList<JsonValue>());
+    JsonParser parser = parsers.acquire();
+    try {
+      int lineStart = start;
+      while (lineStart < end) {
+        int lineEnd = lineStart;
+        boolean blank = true;
+        while (lineEnd < end && json.get(lineEnd) != '\n') {
+          blank &= JsonTableTokenizer.isWhitespace(json.get(lineEnd));
+          lineEnd++;
+        }
+        if (!blank) {
+          try {
+            result.records.add(parser.parse(json, lineStart, lineEnd - lineStart));
+          } catch (JsonParserException e) {
+            result.failure = new JsonParserException("Invalid line at offset " + lineStart + ": " + e.getMessage());
+            break;
+          }
+        }
+        lineStart = lineEnd + 1;
+      }
+    } finally {
+      parsers.release(parser);
+    }
+    return result;
+  }
+
+  /**
+   * Array chunks end before a comma between two top-level elements. The boundaries are found by a
+   * sequential scan which skips the content of strings and counts the nesting depth.
+   */
+  private class ElementChunks extends Chunks {
+    private final ByteBuffer words;
+    private boolean started;
+    /** <code>true</code> if the last chunk ended before a comma, so another element has to follow */
+    private boolean separated;
+
+    ElementChunks(ByteBuffer json) {
+      super(json);
+      this.words = json.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    Supplier<Chunk> next() throws JsonParserException {
+      if (!started) {
+        position = skipWhitespace(position);
+        if (position >= limit || json.get(position) != '[') {
+          throw new JsonParserException("Top-level array expected at offset " + position);
+        }
+        position++;
+        started = true;
+      }
+      if (position >= limit) {
+        return null;
+      }
+      final int start = position;
+      int depth = 0;
+      int pos = start;
+      while (true) {
+        if (pos >= limit) {
+          throw new JsonParserException("Unexpected end of the top-level array at offset " + pos);
+        }
+        final byte b = json.get(pos);
+        if (b == '"') {
+          pos = skipString(pos + 1);
+        } else if (b == '{' || b == '[') {
+          depth++;
+        } else if (b == '}' || b == ']') {
+          if (--depth < 0) {
+            break;
+          }
+        } else if (b == ',' && depth == 0 && pos - start >= chunkSize) {
+          break;
+        }
+        pos++;
+      }
+      final int end = pos;
+      if (json.get(pos) == ']') {
+        position = skipWhitespace(pos + 1);
+        if (position < limit) {
+          throw new JsonParserException("Unexpected content after the top-level array at offset " + position);
+        }
+        if (skipWhitespace(start) == end) {
+          if (separated) {
+            throw new JsonParserException("Unexpected token CLOSE_BR at offset " + end);
+          }
+          return null;
+        }
+        separated = false;
+      } else {
+        position = pos + 1;
+        separated = true;
+      }
+      return new Supplier<Chunk>() {
+        @Override
+        public Chunk get() {
+          return parseElements(json, start, end);
+        }
+      };
+    }
+
+    /**
+     * @return position of the closing quotation mark of the string which starts at the given position
+     */
+    private int skipString(int pos) throws JsonParserException {
+      while (true) {
+        pos = JsonScanner.skipString(words, pos, limit);
+        if (pos >= limit) {
+          throw new JsonParserException("Unexpected end of the top-level array at offset " + pos);
+        }
+        final byte b = json.get(pos);
+        if (b == '"') {
+          return pos;
+        }
+        pos += b == '\\' ? 2 : 1;
+      }
+    }
+
+    private int skipWhitespace(int pos) {
+      while (pos < limit && JsonTableTokenizer.isWhitespace(json.get(pos))) {
+        pos++;
+      }
+      return pos;
+    }
+  }
+
+  /**
+   * Parses the elements between the given positions (without the enclosing brackets) as array.
+   */
+  private Chunk parseElements(ByteBuffer json, int start, int end) {
+    byte[] elements = new byte[end - start + 2];
+    elements[0] = '[';
+    if (json.hasArray()) {
+      System.arraycopy(json.array(), json.arrayOffset() + start, elements, 1, end - start);
+    } else {
+      ByteBuffer view = json.duplicate();
+      // Buffer method, so the class files also run on Java 8
+      ((Buffer) view).position(start);
+      view.get(elements, 1, end - start);
+    }
+    elements[elements.length - 1] = ']';
+    JsonParser parser = parsers.acquire();
+    try {
+      return new Chunk(parser.parse(elements, 0, elements.length).asArray().value());
+    } catch (JsonParserException e) {
+      Chunk failed = new Chunk(Collections.<JsonValue>emptyList());
+      failed.failure = new JsonParserException(
+          "Invalid array elements between offset " + start + " and " + end + ": " + e.getMessage());
+      return failed;
+    } finally {
+      parsers.release(parser);
+    }
+  }
+
+  /**
+   * Submits the chunks to the executor (at most {@link #maxPending} ahead of the consumer) and
+   * returns their records in input order.
+   */
+  private class Records extends Spliterators.AbstractSpliterator<JsonValue> {
+    private final Chunks chunks;
+    private final ArrayDeque<CompletableFuture<Chunk>> pending = new ArrayDeque<>();
+    private Iterator<JsonValue> current = Collections.<JsonValue>emptyList().iterator();
+    /** error of the current chunk, thrown after its records */
+    private JsonParserException chunkFailure;
+    private boolean exhausted;
+    /** error of the split, thrown after the records of all chunks before it */
+    private JsonParserException failure;
+
+    Records(Chunks chunks) {
+      super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+      this.chunks = chunks;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super JsonValue> action) {
+      while (!current.hasNext()) {
+        if (chunkFailure != null) {
+          throw new UncheckedParserException(chunkFailure);
+        }
+        submit();
+        CompletableFuture<Chunk> next = pending.poll();
+        if (next == null) {
+          if (failure != null) {
+            throw new UncheckedParserException(failure);
+          }
+          return false;
+        }
+        Chunk chunk = join(next);
+        current = chunk.records.iterator();
+        chunkFailure = chunk.failure;
+        if (chunkFailure != null) {
+          // no further chunks are parsed after an error
+          exhausted = true;
+        }
+      }
+      action.accept(current.next());
+      return true;
+    }
+
+    private void submit() {
+      try {
+        while (!exhausted && pending.size() < maxPending) {
+          Supplier<Chunk> task = chunks.next();
+          if (task == null) {
+            exhausted = true;
+          } else {
+            pending.add(CompletableFuture.supplyAsync(task, executor));
+          }
+        }
+      } catch (JsonParserException e) {
+        exhausted = true;
+        failure = e;
+      }
+    }
+
+    private Chunk join(CompletableFuture<Chunk> chunk) {
+      try {
+        return chunk.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw e;
+      }
+    }
+  }
+}
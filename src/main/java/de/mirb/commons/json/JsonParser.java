@@ -1,116 +1,1375 @@
 package de.mirb.pg.pojo;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Created by mibo
+ * <p>
+ * A parser reuses its input buffers and tokenizer state for all documents which are parsed via
+ * {@link #parse(String)}, the event based and the array methods, so steady-state parsing only
+ * allocates the result. Unlike a {@link JsonTokenizer} an instance can still be used by several
+ * threads and reentrantly (e.g. from a {@link JsonHandler}): a call which finds the buffers in use
+ * by another call parses its document with new buffers. To keep parsing allocation free use one parser per thread
+ * ({@link #forCurrentThread()}), a {@link JsonParserPool} or a {@link JsonSharedParser}.
+ * The lazy parse mode always uses new buffers because the result references them.
+ * <p>
+ * The value trees are immutable and can be shared between threads, except the trees of the lazy
+ * parse mode, which decode their values from the source on first access.
  */
 public class JsonParser {
+  /** documents with more characters are copied into a temporary buffer which is not kept */
+  static final int MAX_RETAINED_CHARS = 1 << 20;
+  /** size of the windows in which files are memory mapped */
+  static final int MAPPED_WINDOW = 1 << 27;
+  private static final byte[] NO_BYTES = new byte[0];
+  private static final ByteBuffer NO_BUFFER = ByteBuffer.allocateDirect(0);
+  private static final ThreadLocal<JsonParser> THREAD_PARSER = new ThreadLocal<JsonParser>() {
+    @Override
+    protected JsonParser initialValue() {
+      return new JsonParser();
+    }
+  };
+
   private class TokenList {
-    final Iterator<JsonToken> tokens;
+    final JsonCursor cursor;
+    /** kinds of the containers which are open in {@link #skip}: one bit per depth, set for arrays */
+    private long[] arrays = new long[1];
+    /** <code>true</code> if the list uses the buffers of the parser, which are released after the document */
+    final boolean reused;
 
-    TokenList(String json) throws JsonTokenizerException {
-      JsonTokenizer jt = new JsonTokenizer();
-      tokens = jt.tokenize(json).iterator();
+    TokenList(JsonCursor cursor) {
+      this(cursor, false);
     }
 
-    boolean hasNext() {
-      return tokens.hasNext();
+    TokenList(JsonCursor cursor, boolean reused) {
+      this.cursor = cursor;
+      this.reused = reused;
     }
 
-    JsonToken next() {
-      return tokens.next();
+    JsonToken.Token next() throws JsonParserException {
+      try {
+        return cursor.nextToken();
+      } catch (JsonTokenizerException e) {
+        throw new JsonParserException(e.getMessage());
+      }
     }
 
+    /**
+     * Requires the end of the input after the root value of a document.
+     */
+    void end() throws JsonParserException {
+      if (next() != null) {
+        throw new JsonParserException("Unexpected token: " + found());
+      }
+    }
 
-    JsonToken grant(JsonToken.Token token) throws JsonParserException {
-      JsonToken t = next();
-      if(t.getToken() == token) {
+    JsonToken.Token grant(JsonToken.Token token) throws JsonParserException {
+      JsonToken.Token t = next();
+      if(t == token) {
         return t;
       }
-      throw new JsonParserException("Required token was not found (req: " + token + "; found: " + t + ")");
+      throw new JsonParserException("Required token was not found (req: " + token + "; found: " + found() + ")");
     }
 
-    JsonToken some(JsonToken.Token... token) throws JsonParserException {
-      JsonToken t = next();
+    JsonToken.Token some(JsonToken.Token... token) throws JsonParserException {
+      JsonToken.Token t = next();
       for (JsonToken.Token tok : token) {
-        if(t.getToken() == tok) {
+        if(t == tok) {
           return t;
         }
       }
       throw new JsonParserException("Required token was not found (req: " +
-          Arrays.toString(token) + "; found: " + t + ")");
+          Arrays.toString(token) + "; found: " + found() + ")");
+    }
+
+    /**
+     * Skips the value which starts with the given (already consumed) token; brackets and braces
+     * must match.
+     */
+    void skip(JsonToken.Token first) throws JsonParserException {
+      if (first != JsonToken.Token.OPEN_CB && first != JsonToken.Token.OPEN_BR) {
+        return;
+      }
+      open(0, first == JsonToken.Token.OPEN_BR);
+      int depth = 1;
+      while (depth > 0) {
+        JsonToken.Token t = next();
+        if (t == null) {
+          throw new JsonParserException("Unexpected token list end.");
+        } else if (t == JsonToken.Token.OPEN_CB || t == JsonToken.Token.OPEN_BR) {
+          open(depth++, t == JsonToken.Token.OPEN_BR);
+        } else if (t == JsonToken.Token.CLOSE_CB || t == JsonToken.Token.CLOSE_BR) {
+          depth--;
+          if ((t == JsonToken.Token.CLOSE_BR) != ((arrays[depth >>> 6] & 1L << depth) != 0)) {
+            throw new JsonParserException("Unexpected token: " + found());
+          }
+        }
+      }
+    }
+
+    private void open(int depth, boolean array) {
+      if (depth >>> 6 == arrays.length) {
+        arrays = Arrays.copyOf(arrays, arrays.length * 2);
+      }
+      if (array) {
+        arrays[depth >>> 6] |= 1L << depth;
+      } else {
+        arrays[depth >>> 6] &= ~(1L << depth);
+      }
+    }
+
+    JsonNumber number() throws JsonParserException {
+      try {
+        return cursor.getNumberValue();
+      } catch (NumberFormatException e) {
+        throw new JsonParserException("Invalid number: " + found());
+      }
+    }
+
+    String found() {
+      return cursor.currentToken() == null ? "end of token list" : cursor.toString();
+    }
+  }
+
+
+  private final JsonKeyCache keyCache;
+  private char[] chars = new char[256];
+  private final JsonCursor.CharArrayCursor charCursor = new JsonCursor.CharArrayCursor(chars, 0, 0);
+  private final JsonCursor.ByteArrayCursor byteCursor = new JsonCursor.ByteArrayCursor(NO_BYTES, 0, 0);
+  private final JsonCursor.ByteBufferCursor bufferCursor = new JsonCursor.ByteBufferCursor(NO_BUFFER, 0, 0);
+  private final TokenList charTokens = new TokenList(charCursor, true);
+  private final TokenList byteTokens = new TokenList(byteCursor, true);
+  private final TokenList bufferTokens = new TokenList(bufferCursor, true);
+  private final JsonStructuralIndex structuralIndex = new JsonStructuralIndex();
+  /** <code>true</code> while a document is parsed with the buffers of the parser */
+  private final AtomicBoolean busy = new AtomicBoolean();
+
+  public JsonParser() {
+    this(null);
+  }
+
+  /**
+   * @param keyCache cache which canonicalizes the names of all parsed pairs
+   *                 (<code>null</code> to create a new String for each name)
+   */
+  public JsonParser(JsonKeyCache keyCache) {
+    this.keyCache = keyCache;
+  }
+
+  public JsonKeyCache getKeyCache() {
+    return keyCache;
+  }
+
+  /**
+   * Parser of the current thread (without key cache), which keeps its buffers between the calls.
+   * For virtual threads (or many short living threads) a {@link JsonParserPool} is the better choice.
+   */
+  public static JsonParser forCurrentThread() {
+    return THREAD_PARSER.get();
+  }
+
+  private TokenList reuse(String json) {
+    if (!busy.compareAndSet(false, true)) {
+      return new TokenList(JsonCursor.create(json));
     }
+    final int length = json.length();
+    char[] buffer = chars;
+    if (buffer.length < length) {
+      buffer = new char[length];
+      if (length <= MAX_RETAINED_CHARS) {
+        chars = buffer;
+      }
+    }
+    json.getChars(0, length, buffer, 0);
+    charCursor.reset(buffer, 0, length);
+    return charTokens;
   }
 
+  private TokenList reuse(byte[] json, int offset, int length) {
+    if (!busy.compareAndSet(false, true)) {
+      return new TokenList(JsonCursor.create(json, offset, length));
+    }
+    byteCursor.reset(json, offset, length);
+    return byteTokens;
+  }
+
+  private TokenList reuse(ByteBuffer json) {
+    return reuse(json, json.position(), json.remaining());
+  }
 
-//  public JsonParser() {
-//  }
+  private TokenList reuse(ByteBuffer json, int offset, int length) {
+    if (json.hasArray()) {
+      return reuse(json.array(), json.arrayOffset() + offset, length);
+    } else if (!busy.compareAndSet(false, true)) {
+      return new TokenList(new JsonCursor.ByteBufferCursor(json, offset, length));
+    }
+    bufferCursor.reset(json, offset, length);
+    return bufferTokens;
+  }
+
+  /**
+   * Drops the references to the last input (a temporary buffer for large documents and the
+   * arrays or buffers of the caller) and frees the buffers for the next document.
+   */
+  private void release(TokenList tokens) {
+    if (tokens.reused) {
+      charCursor.reset(chars, 0, 0);
+      byteCursor.reset(NO_BYTES, 0, 0);
+      bufferCursor.reset(NO_BUFFER, 0, 0);
+      busy.set(false);
+    }
+  }
 
   public JsonValue parse(String json) throws JsonParserException {
+    return parse(reuse(json));
+  }
+
+  /**
+   * Parses UTF-8 encoded JSON directly from the given bytes (without creating an intermediate String).
+   */
+  public JsonValue parse(byte[] json, int offset, int length) throws JsonParserException {
+    return parse(reuse(json, offset, length));
+  }
+
+  /**
+   * Parses the remaining UTF-8 encoded bytes of the given (heap or direct) buffer
+   * without changing its position.
+   */
+  public JsonValue parse(ByteBuffer json) throws JsonParserException {
+    return parse(reuse(json));
+  }
+
+  /**
+   * Parses the UTF-8 encoded bytes between the given (absolute) positions of the buffer.
+   */
+  JsonValue parse(ByteBuffer json, int offset, int length) throws JsonParserException {
+    return parse(reuse(json, offset, length));
+  }
+
+  /**
+   * Parses a UTF-8 encoded file. The file is memory mapped in windows and tokenized directly over
+   * the mapped bytes, so it is never copied into the heap (only the result is created there) and
+   * files larger than 2 GB can be parsed.
+   */
+  public JsonValue parse(Path json) throws IOException, JsonParserException {
+    try (FileChannel channel = FileChannel.open(json, StandardOpenOption.READ)) {
+      return parse(channel);
+    }
+  }
+
+  /**
+   * Parses the UTF-8 encoded bytes of the channel from its current position to its end
+   * (without changing the position) like {@link #parse(Path)}.
+   */
+  public JsonValue parse(FileChannel json) throws IOException, JsonParserException {
+    return parse(json, MAPPED_WINDOW);
+  }
+
+  JsonValue parse(FileChannel json, int windowSize) throws IOException, JsonParserException {
     try {
-      TokenList tokens = new TokenList(json);
-      JsonToken t = tokens.next();
-      switch (t.getToken()) {
-        case OPEN_CB:
-          return handleObject(tokens);
-//        case STRING:
-//          return handleValue(tokens);
-        default:
-          return null;
+      return parse(mapped(json, windowSize));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private TokenList mapped(FileChannel json, int windowSize) throws IOException {
+    return new TokenList(new JsonCursor.MappedCursor(json, json.position(), json.size(), windowSize));
+  }
+
+  /**
+   * Parses the given JSON in lazy mode: a structural pass validates the document and records the
+   * offsets of all keys and values, names and values of the returned object are decoded on first access.
+   * The returned object keeps a reference to the source of the document and must not be accessed
+   * by several threads at the same time.
+   */
+  public JsonValue parseLazy(String json) throws JsonParserException {
+    return parseLazy(new TokenList(JsonCursor.create(json)));
+  }
+
+  public JsonValue parseLazy(byte[] json, int offset, int length) throws JsonParserException {
+    return parseLazy(new TokenList(JsonCursor.create(json, offset, length)));
+  }
+
+  public JsonValue parseLazy(ByteBuffer json) throws JsonParserException {
+    return parseLazy(new TokenList(JsonCursor.create(json)));
+  }
+
+  private JsonValue parseLazy(TokenList tokens) throws JsonParserException {
+    JsonToken.Token t = tokens.next();
+    if (t == null) {
+      throw new JsonParserException("Unexpected token list end.");
+    }
+    JsonLazyIndex index = new JsonLazyIndex(tokens.cursor, keyCache);
+    switch (t) {
+      case OPEN_CB:
+        indexObject(tokens, index);
+        tokens.end();
+        return index.complete().object(0);
+      case OPEN_BR:
+        indexArray(tokens, index);
+        tokens.end();
+        return index.complete().array(0);
+      default:
+        tokens.end();
+        return null;
+    }
+  }
+
+  private void indexObject(TokenList tokens, JsonLazyIndex index) throws JsonParserException {
+    int header = index.startObject();
+    JsonCursor cursor = tokens.cursor;
+    JsonToken.Token token = tokens.some(JsonToken.Token.STRING, JsonToken.Token.CLOSE_CB);
+    while (token == JsonToken.Token.STRING) {
+      index.member(header, cursor.getOffset() + 1, cursor.getOffset() + cursor.getLength() - 1, cursor.isEscaped());
+      tokens.grant(JsonToken.Token.COLON);
+      indexValue(tokens, index);
+      if (tokens.some(JsonToken.Token.COMMA, JsonToken.Token.CLOSE_CB) == JsonToken.Token.COMMA) {
+        token = tokens.grant(JsonToken.Token.STRING);
+      } else {
+        token = JsonToken.Token.CLOSE_CB;
+      }
+    }
+    index.endObject(header);
+  }
+
+  private void indexArray(TokenList tokens, JsonLazyIndex index) throws JsonParserException {
+    int header = index.startArray();
+    JsonToken.Token token = tokens.next();
+    if (token != JsonToken.Token.CLOSE_BR) {
+      while (true) {
+        index.element(header);
+        indexValue(tokens, token, index);
+        if (tokens.some(JsonToken.Token.COMMA, JsonToken.Token.CLOSE_BR) == JsonToken.Token.CLOSE_BR) {
+          break;
+        }
+        token = tokens.next();
       }
+    }
+    index.endArray(header);
+  }
+
+  private void indexValue(TokenList tokens, JsonLazyIndex index) throws JsonParserException {
+    indexValue(tokens, tokens.next(), index);
+  }
 
+  private void indexValue(TokenList tokens, JsonToken.Token t, JsonLazyIndex index) throws JsonParserException {
+    if (t == null) {
+      throw new JsonParserException("Unexpected token list end.");
+    }
+    JsonCursor cursor = tokens.cursor;
+    switch (t) {
+      case STRING:
+        index.string(cursor.getOffset() + 1, cursor.getOffset() + cursor.getLength() - 1, cursor.isEscaped());
+        break;
+      case NUMBER:
+        index.number(cursor.getOffset(), cursor.getOffset() + cursor.getLength());
+        break;
+      case FALSE:
+        throw new JsonParserException("Not yet implemented token: " + tokens.found());
+      case OPEN_CB:
+        indexObject(tokens, index);
+        break;
+      case OPEN_BR:
+        indexArray(tokens, index);
+        break;
+      default:
+        throw new JsonParserException("Unexpected token: " + tokens.found());
+    }
+  }
+
+  /**
+   * Parses UTF-8 encoded JSON in two stages, which is faster for large documents: stage 1 builds an
+   * index of the positions of all structural characters, strings and values eight bytes at a time
+   * ({@link JsonStructuralIndex}), stage 2 walks the index instead of tokenizing every character
+   * (so string bodies are validated but not tokenized).
+   * The result is the same as for {@link #parse(byte[], int, int)}.
+   */
+  public JsonValue parseIndexed(byte[] json, int offset, int length) throws JsonParserException {
+    return parse(indexed(ByteBuffer.wrap(json).order(ByteOrder.LITTLE_ENDIAN), offset, length));
+  }
+
+  public JsonValue parseIndexed(ByteBuffer json) throws JsonParserException {
+    if (json.hasArray()) {
+      return parseIndexed(json.array(), json.arrayOffset() + json.position(), json.remaining());
+    }
+    return parse(indexed(json.duplicate().order(ByteOrder.LITTLE_ENDIAN), json.position(), json.remaining()));
+  }
+
+  public void parseIndexed(byte[] json, int offset, int length, JsonHandler handler) throws JsonParserException {
+    parse(indexed(ByteBuffer.wrap(json).order(ByteOrder.LITTLE_ENDIAN), offset, length), handler);
+  }
+
+  private TokenList indexed(ByteBuffer words, int offset, int length) throws JsonParserException {
+    final boolean reused = busy.compareAndSet(false, true);
+    final JsonStructuralIndex index = reused ? structuralIndex : new JsonStructuralIndex();
+    boolean built = false;
+    try {
+      final TokenList tokens = new TokenList(new JsonCursor.IndexedCursor(words, index.build(words, offset, length)), reused);
+      built = true;
+      return tokens;
     } catch (JsonTokenizerException e) {
       throw new JsonParserException(e.getMessage());
+    } finally {
+      if (reused && !built) {
+        busy.set(false);
+      }
+    }
+  }
+
+  /**
+   * Decodes a JSON array of numbers directly into the given array (no value tree and no boxed
+   * numbers are created).
+   *
+   * @param json JSON array which only contains numbers
+   * @param target array which is filled from index 0
+   * @return number of elements of the JSON array
+   * @throws JsonParserException if the JSON is no array of numbers or has more elements than the target
+   */
+  public int parseDoubleArray(String json, double[] target) throws JsonParserException {
+    return parseDoubleArray(reuse(json), target);
+  }
+
+  public int parseDoubleArray(byte[] json, int offset, int length, double[] target) throws JsonParserException {
+    return parseDoubleArray(reuse(json, offset, length), target);
+  }
+
+  public int parseDoubleArray(ByteBuffer json, double[] target) throws JsonParserException {
+    return parseDoubleArray(reuse(json), target);
+  }
+
+  /**
+   * Decodes a JSON array of integral numbers directly into the given array.
+   *
+   * @param json JSON array which only contains integral numbers in the range of <code>long</code>
+   * @param target array which is filled from index 0
+   * @return number of elements of the JSON array
+   * @throws JsonParserException if the JSON is no array of integral numbers or has more elements than the target
+   */
+  public int parseLongArray(String json, long[] target) throws JsonParserException {
+    return parseLongArray(reuse(json), target);
+  }
+
+  public int parseLongArray(byte[] json, int offset, int length, long[] target) throws JsonParserException {
+    return parseLongArray(reuse(json, offset, length), target);
+  }
+
+  public int parseLongArray(ByteBuffer json, long[] target) throws JsonParserException {
+    return parseLongArray(reuse(json), target);
+  }
+
+  private int parseDoubleArray(TokenList tokens, double[] target) throws JsonParserException {
+    try {
+      return fillDoubleArray(tokens, target);
+    } finally {
+      release(tokens);
+    }
+  }
+
+  private int fillDoubleArray(TokenList tokens, double[] target) throws JsonParserException {
+    tokens.grant(JsonToken.Token.OPEN_BR);
+    if (tokens.some(JsonToken.Token.NUMBER, JsonToken.Token.CLOSE_BR) == JsonToken.Token.CLOSE_BR) {
+      tokens.end();
+      return 0;
+    }
+    int count = 0;
+    while (true) {
+      if (count == target.length) {
+        throw new JsonParserException("Array has more than " + target.length + " elements.");
+      }
+      JsonNumber.Decoder decoder = tokens.cursor.decoder();
+      switch (decoder.decode()) {
+        case JsonNumber.LONG:
+          target[count++] = decoder.longValue();
+          break;
+        case JsonNumber.DOUBLE:
+          target[count++] = decoder.doubleValue();
+          break;
+        default:
+          target[count++] = tokens.number().asDouble();
+      }
+      if (tokens.some(JsonToken.Token.COMMA, JsonToken.Token.CLOSE_BR) == JsonToken.Token.CLOSE_BR) {
+        tokens.end();
+        return count;
+      }
+      tokens.grant(JsonToken.Token.NUMBER);
+    }
+  }
+
+  private int parseLongArray(TokenList tokens, long[] target) throws JsonParserException {
+    try {
+      return fillLongArray(tokens, target);
+    } finally {
+      release(tokens);
+    }
+  }
+
+  private int fillLongArray(TokenList tokens, long[] target) throws JsonParserException {
+    tokens.grant(JsonToken.Token.OPEN_BR);
+    if (tokens.some(JsonToken.Token.NUMBER, JsonToken.Token.CLOSE_BR) == JsonToken.Token.CLOSE_BR) {
+      tokens.end();
+      return 0;
+    }
+    int count = 0;
+    while (true) {
+      if (count == target.length) {
+        throw new JsonParserException("Array has more than " + target.length + " elements.");
+      }
+      JsonNumber.Decoder decoder = tokens.cursor.decoder();
+      if (decoder.decode() != JsonNumber.LONG) {
+        throw new JsonParserException("Not an integral number: " + tokens.found());
+      }
+      target[count++] = decoder.longValue();
+      if (tokens.some(JsonToken.Token.COMMA, JsonToken.Token.CLOSE_BR) == JsonToken.Token.CLOSE_BR) {
+        tokens.end();
+        return count;
+      }
+      tokens.grant(JsonToken.Token.NUMBER);
+    }
+  }
+
+  /**
+   * Binds the given JSON directly onto an instance of the given type without building a value tree:
+   * beans are created and filled from the tokens, pairs without a matching property are skipped.
+   * The properties of a class are looked up once and cached, so no reflection is used per call.
+   * Supported are beans (no-argument constructor with setters or fields, or a constructor whose
+   * parameter names are available via <code>-parameters</code>), strings, primitives and their
+   * wrappers, big numbers, enums, {@link JsonValue}s, arrays, lists, sets, maps with string keys
+   * and {@link Object} (strings, numbers, booleans, lists and maps).
+   *
+   * @param json JSON document
+   * @param type type of the result
+   * @return the bound instance
+   * @throws JsonParserException if the JSON is invalid or does not match the type
+   * @throws IllegalArgumentException if the type (or the type of a property) can not be bound
+   */
+  public <T> T parse(String json, Class<T> type) throws JsonParserException {
+    return parse(reuse(json), type);
+  }
+
+  public <T> T parse(byte[] json, int offset, int length, Class<T> type) throws JsonParserException {
+    return parse(reuse(json, offset, length), type);
+  }
+
+  public <T> T parse(ByteBuffer json, Class<T> type) throws JsonParserException {
+    return parse(reuse(json), type);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T parse(TokenList tokens, Class<T> type) throws JsonParserException {
+    JsonBinding binding = JsonBinding.of(type);
+    try {
+      T result = (T) bind(tokens, tokens.next(), binding);
+      tokens.end();
+      return result;
+    } finally {
+      release(tokens);
+    }
+  }
+
+  private Object bind(TokenList tokens, JsonToken.Token t, JsonBinding binding) throws JsonParserException {
+    if (t == null) {
+      throw new JsonParserException("Unexpected token list end.");
+    } else if (t == JsonToken.Token.NULL && !binding.isPrimitive()) {
+      return null;
+    }
+    switch (binding.kind) {
+      case JsonBinding.STRING:
+        return stringValue(tokens, t, binding.type);
+      case JsonBinding.INT:
+        return intValue(tokens, t, binding.type);
+      case JsonBinding.LONG:
+        return longValue(tokens, t, binding.type);
+      case JsonBinding.DOUBLE:
+        return doubleValue(tokens, t, binding.type);
+      case JsonBinding.BOOLEAN:
+        return booleanValue(tokens, t, binding.type);
+      case JsonBinding.FLOAT:
+        return (float) doubleValue(tokens, t, binding.type);
+      case JsonBinding.SHORT: {
+        long value = longValue(tokens, t, binding.type);
+        if ((short) value != value) {
+          throw new JsonParserException("Number out of range for short: " + tokens.found());
+        }
+        return (short) value;
+      }
+      case JsonBinding.BYTE: {
+        long value = longValue(tokens, t, binding.type);
+        if ((byte) value != value) {
+          throw new JsonParserException("Number out of range for byte: " + tokens.found());
+        }
+        return (byte) value;
+      }
+      case JsonBinding.BIG_DECIMAL:
+        return numberValue(tokens, t, binding.type).asBigDecimal();
+      case JsonBinding.BIG_INTEGER:
+        try {
+          return numberValue(tokens, t, binding.type).asBigDecimal().toBigIntegerExact();
+        } catch (ArithmeticException e) {
+          throw new JsonParserException("Not an integral number: " + tokens.found());
+        }
+      case JsonBinding.NUMBER:
+        return numberValue(tokens, t, binding.type).value();
+      case JsonBinding.ENUM: {
+        Object constant = binding.constant(stringValue(tokens, t, binding.type));
+        if (constant == null) {
+          throw new JsonParserException("Unknown constant of " + binding.type.getName() + ": " + tokens.found());
+        }
+        return constant;
+      }
+      case JsonBinding.JSON_VALUE: {
+        JsonValue value = handleValue(tokens, t);
+        if (!binding.type.isInstance(value)) {
+          throw mismatch(tokens, binding.type);
+        }
+        return value;
+      }
+      case JsonBinding.OBJECT:
+        return bindObject(tokens, t, binding);
+      case JsonBinding.LIST:
+      case JsonBinding.SET:
+        return bindCollection(tokens, t, binding);
+      case JsonBinding.MAP:
+        return bindMap(tokens, t, binding);
+      case JsonBinding.ARRAY:
+        return bindArray(tokens, t, binding);
+      default:
+        return bindBean(tokens, t, binding.bean());
+    }
+  }
+
+  private Object bindBean(TokenList tokens, JsonToken.Token t, JsonBinding.Bean bean) throws JsonParserException {
+    if (t != JsonToken.Token.OPEN_CB) {
+      throw mismatch(tokens, bean.type);
+    }
+    Object instance = null;
+    Object[] arguments = null;
+    if (bean.creator) {
+      arguments = bean.arguments();
+    } else {
+      try {
+        instance = bean.newInstance();
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new JsonParserException("Unable to create " + bean.type.getName() + ": " + e);
+      }
+    }
+    JsonToken.Token token = tokens.some(JsonToken.Token.STRING, JsonToken.Token.CLOSE_CB);
+    while (token == JsonToken.Token.STRING) {
+      JsonBinding.Property property = bean.property(tokens.cursor);
+      tokens.grant(JsonToken.Token.COLON);
+      JsonToken.Token value = tokens.next();
+      if (value == null) {
+        throw new JsonParserException("Unexpected token list end.");
+      } else if (property == null) {
+        tokens.skip(value);
+      } else if (arguments != null) {
+        arguments[property.argument] = bind(tokens, value, property.binding());
+      } else {
+        set(tokens, value, instance, property);
+      }
+      if (tokens.some(JsonToken.Token.COMMA, JsonToken.Token.CLOSE_CB) == JsonToken.Token.COMMA) {
+        token = tokens.grant(JsonToken.Token.STRING);
+      } else {
+        token = JsonToken.Token.CLOSE_CB;
+      }
+    }
+    if (arguments == null) {
+      return instance;
+    }
+    try {
+      return bean.newInstance(arguments);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new JsonParserException("Unable to create " + bean.type.getName() + ": " + e);
+    }
+  }
+
+  private void set(TokenList tokens, JsonToken.Token t, Object instance, JsonBinding.Property property)
+      throws JsonParserException {
+    JsonBinding binding = property.binding();
+    try {
+      if (!property.unboxed) {
+        property.setter.invokeExact(instance, bind(tokens, t, binding));
+      } else if (binding.kind == JsonBinding.INT) {
+        property.setter.invokeExact(instance, intValue(tokens, t, binding.type));
+      } else if (binding.kind == JsonBinding.LONG) {
+        property.setter.invokeExact(instance, longValue(tokens, t, binding.type));
+      } else if (binding.kind == JsonBinding.DOUBLE) {
+        property.setter.invokeExact(instance, doubleValue(tokens, t, binding.type));
+      } else {
+        property.setter.invokeExact(instance, booleanValue(tokens, t, binding.type));
+      }
+    } catch (JsonParserException | RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new JsonParserException("Unable to set " + property.name + ": " + e);
     }
   }
 
+  private Collection<Object> bindCollection(TokenList tokens, JsonToken.Token t, JsonBinding binding)
+      throws JsonParserException {
+    if (t != JsonToken.Token.OPEN_BR) {
+      throw mismatch(tokens, binding.type);
+    }
+    Collection<Object> collection = binding.collection();
+    JsonToken.Token token = tokens.next();
+    if (token == JsonToken.Token.CLOSE_BR) {
+      return collection;
+    }
+    while (true) {
+      collection.add(bind(tokens, token, binding.element));
+      if (tokens.some(JsonToken.Token.COMMA, JsonToken.Token.CLOSE_BR) == JsonToken.Token.CLOSE_BR) {
+        return collection;
+      }
+      token = tokens.next();
+    }
+  }
+
+  private Map<String, Object> bindMap(TokenList tokens, JsonToken.Token t, JsonBinding binding)
+      throws JsonParserException {
+    if (t != JsonToken.Token.OPEN_CB) {
+      throw mismatch(tokens, binding.type);
+    }
+    Map<String, Object> map = new LinkedHashMap<>();
+    JsonToken.Token token = tokens.some(JsonToken.Token.STRING, JsonToken.Token.CLOSE_CB);
+    while (token == JsonToken.Token.STRING) {
+      String name = tokens.cursor.getStringValue(keyCache);
+      tokens.grant(JsonToken.Token.COLON);
+      map.put(name, bind(tokens, tokens.next(), binding.element));
+      if (tokens.some(JsonToken.Token.COMMA, JsonToken.Token.CLOSE_CB) == JsonToken.Token.COMMA) {
+        token = tokens.grant(JsonToken.Token.STRING);
+      } else {
+        token = JsonToken.Token.CLOSE_CB;
+      }
+    }
+    return map;
+  }
+
+  /**
+   * Binds arrays of any component type; <code>long</code>, <code>int</code> and <code>double</code>
+   * elements are stored without boxing.
+   */
+  private Object bindArray(TokenList tokens, JsonToken.Token t, JsonBinding binding) throws JsonParserException {
+    if (t != JsonToken.Token.OPEN_BR) {
+      throw mismatch(tokens, binding.type);
+    }
+    Class<?> component = binding.element.type;
+    Object array = Array.newInstance(component, 8);
+    int size = 0;
+    JsonToken.Token token = tokens.next();
+    while (token != JsonToken.Token.CLOSE_BR) {
+      if (size == Array.getLength(array)) {
+        array = resize(array, component, size * 2);
+      }
+      if (component == long.class) {
+        ((long[]) array)[size] = longValue(tokens, token, component);
+      } else if (component == int.class) {
+        ((int[]) array)[size] = intValue(tokens, token, component);
+      } else if (component == double.class) {
+        ((double[]) array)[size] = doubleValue(tokens, token, component);
+      } else {
+        Array.set(array, size, bind(tokens, token, binding.element));
+      }
+      size++;
+      if (tokens.some(JsonToken.Token.COMMA, JsonToken.Token.CLOSE_BR) == JsonToken.Token.CLOSE_BR) {
+        break;
+      }
+      token = tokens.next();
+    }
+    return size == Array.getLength(array) ? array : resize(array, component, size);
+  }
+
+  private static Object resize(Object array, Class<?> component, int length) {
+    Object resized = Array.newInstance(component, length);
+    System.arraycopy(array, 0, resized, 0, Math.min(length, Array.getLength(array)));
+    return resized;
+  }
+
+  /**
+   * Binds any value onto the natural Java type (string, number, boolean, list or map).
+   */
+  private Object bindObject(TokenList tokens, JsonToken.Token t, JsonBinding binding) throws JsonParserException {
+    switch (t) {
+      case STRING:
+        return tokens.cursor.getStringValue();
+      case NUMBER:
+        return tokens.number().value();
+      case TRUE:
+        return Boolean.TRUE;
+      case FALSE:
+        return Boolean.FALSE;
+      case OPEN_CB:
+        return bindMap(tokens, t, JsonBinding.of(Map.class));
+      case OPEN_BR:
+        return bindCollection(tokens, t, JsonBinding.of(List.class));
+      default:
+        throw mismatch(tokens, binding.type);
+    }
+  }
+
+  private String stringValue(TokenList tokens, JsonToken.Token t, Class<?> type) throws JsonParserException {
+    if (t != JsonToken.Token.STRING) {
+      throw mismatch(tokens, type);
+    }
+    return tokens.cursor.getStringValue();
+  }
+
+  private JsonNumber numberValue(TokenList tokens, JsonToken.Token t, Class<?> type) throws JsonParserException {
+    if (t != JsonToken.Token.NUMBER) {
+      throw mismatch(tokens, type);
+    }
+    return tokens.number();
+  }
+
+  private long longValue(TokenList tokens, JsonToken.Token t, Class<?> type) throws JsonParserException {
+    if (t != JsonToken.Token.NUMBER) {
+      throw mismatch(tokens, type);
+    }
+    JsonNumber.Decoder decoder = tokens.cursor.decoder();
+    if (decoder.decode() != JsonNumber.LONG) {
+      throw new JsonParserException("Not an integral number: " + tokens.found());
+    }
+    return decoder.longValue();
+  }
+
+  private int intValue(TokenList tokens, JsonToken.Token t, Class<?> type) throws JsonParserException {
+    long value = longValue(tokens, t, type);
+    if ((int) value != value) {
+      throw new JsonParserException("Number out of range for int: " + tokens.found());
+    }
+    return (int) value;
+  }
+
+  private double doubleValue(TokenList tokens, JsonToken.Token t, Class<?> type) throws JsonParserException {
+    if (t != JsonToken.Token.NUMBER) {
+      throw mismatch(tokens, type);
+    }
+    JsonNumber.Decoder decoder = tokens.cursor.decoder();
+    switch (decoder.decode()) {
+      case JsonNumber.LONG:
+        return decoder.longValue();
+      case JsonNumber.DOUBLE:
+        return decoder.doubleValue();
+      default:
+        return tokens.number().asDouble();
+    }
+  }
+
+  private boolean booleanValue(TokenList tokens, JsonToken.Token t, Class<?> type) throws JsonParserException {
+    if (t == JsonToken.Token.TRUE || t == JsonToken.Token.FALSE) {
+      return t == JsonToken.Token.TRUE;
+    }
+    throw mismatch(tokens, type);
+  }
+
+  private static JsonParserException mismatch(TokenList tokens, Class<?> type) {
+    return new JsonParserException("Unexpected token for " + type.getName() + ": " + tokens.found());
+  }
+
+  /**
+   * Parses the given JSON into a value tree which only contains the fields of the projection: the
+   * values of all other pairs (also nested objects and arrays) are skipped on the tokens without
+   * decoding strings or numbers and without creating their names and pairs.
+   *
+   * @param json JSON document
+   * @param projection fields to keep
+   * @return the projected value tree
+   */
+  public JsonValue parse(String json, JsonProjection projection) throws JsonParserException {
+    return parse(reuse(json), projection);
+  }
+
+  public JsonValue parse(byte[] json, int offset, int length, JsonProjection projection) throws JsonParserException {
+    return parse(reuse(json, offset, length), projection);
+  }
+
+  public JsonValue parse(ByteBuffer json, JsonProjection projection) throws JsonParserException {
+    return parse(reuse(json), projection);
+  }
+
+  private JsonValue parse(TokenList tokens, JsonProjection projection) throws JsonParserException {
+    try {
+      JsonToken.Token t = tokens.next();
+      if (t == null) {
+        throw new JsonParserException("Unexpected token list end.");
+      }
+      JsonValue result = null;
+      if (t == JsonToken.Token.OPEN_CB) {
+        result = projectObject(tokens, projection);
+      } else if (t == JsonToken.Token.OPEN_BR) {
+        result = projectArray(tokens, projection);
+      }
+      tokens.end();
+      return result;
+    } finally {
+      release(tokens);
+    }
+  }
+
+  private JsonObject projectObject(TokenList tokens, JsonProjection projection) throws JsonParserException {
+    JsonObject.JsonObjectBuilder jo = JsonObject.start();
+    JsonToken.Token token = tokens.some(JsonToken.Token.STRING, JsonToken.Token.CLOSE_CB);
+    while (token == JsonToken.Token.STRING) {
+      int field = projection.field(tokens.cursor);
+      tokens.grant(JsonToken.Token.COLON);
+      JsonToken.Token t = tokens.next();
+      if (t == null) {
+        throw new JsonParserException("Unexpected token list end.");
+      }
+      JsonValue value = null;
+      if (field < 0) {
+        tokens.skip(t);
+      } else if (projection.fields[field] == null) {
+        value = handleValue(tokens, t);
+      } else if (t == JsonToken.Token.OPEN_CB) {
+        value = projectObject(tokens, projection.fields[field]);
+      } else if (t == JsonToken.Token.OPEN_BR) {
+        value = projectArray(tokens, projection.fields[field]);
+      } else {
+        tokens.skip(t);
+      }
+      if (value != null) {
+        // the name instance of the projection is shared by all pairs
+        jo.add(JsonPair.with(projection.names[field]).value(value).build());
+      }
+      if (tokens.some(JsonToken.Token.COMMA, JsonToken.Token.CLOSE_CB) == JsonToken.Token.COMMA) {
+        token = tokens.grant(JsonToken.Token.STRING);
+      } else {
+        token = JsonToken.Token.CLOSE_CB;
+      }
+    }
+    return jo.build();
+  }
+
+  /**
+   * Projects the objects of the array (and of nested arrays), other elements are dropped.
+   */
+  private JsonArray projectArray(TokenList tokens, JsonProjection projection) throws JsonParserException {
+    JsonArray.JsonArrayBuilder ja = JsonArray.start();
+    JsonToken.Token token = tokens.next();
+    if (token == JsonToken.Token.CLOSE_BR) {
+      return ja.build();
+    }
+    while (true) {
+      if (token == null) {
+        throw new JsonParserException("Unexpected token list end.");
+      } else if (token == JsonToken.Token.OPEN_CB) {
+        ja.add(projectObject(tokens, projection));
+      } else if (token == JsonToken.Token.OPEN_BR) {
+        ja.add(projectArray(tokens, projection));
+      } else {
+        tokens.skip(token);
+      }
+      if (tokens.some(JsonToken.Token.COMMA, JsonToken.Token.CLOSE_BR) == JsonToken.Token.CLOSE_BR) {
+        return ja.build();
+      }
+      token = tokens.next();
+    }
+  }
+
+  /**
+   * Evaluates the paths directly on the tokens of the given JSON instead of building the value tree
+   * of the document: subtrees which are not on one of the paths are skipped (no pairs, names or
+   * values are created for them) and tokenizing stops as soon as all paths are resolved, so the rest
+   * of the document is not read (and not validated). Only the values at the paths are created.
+   * <p>
+   * As for {@link JsonObject#get(String)} only the first pair of a name is selected. The value
+   * trees have no values for <code>true</code>, <code>false</code> and <code>null</code>, so paths
+   * which end at one of these literals select <code>null</code>; like for
+   * {@link #parse(String)} a selected object or array must not contain them.
+   *
+   * @param json JSON document
+   * @param paths compiled paths
+   * @return values at the paths (in the order of the paths), <code>null</code> for paths which do
+   * not exist in the document or end at a literal
+   */
+  public JsonValue[] select(String json, JsonPath... paths) throws JsonParserException {
+    return select(reuse(json), paths);
+  }
+
+  public JsonValue[] select(byte[] json, int offset, int length, JsonPath... paths) throws JsonParserException {
+    return select(reuse(json, offset, length), paths);
+  }
+
+  public JsonValue[] select(ByteBuffer json, JsonPath... paths) throws JsonParserException {
+    return select(reuse(json), paths);
+  }
+
+  private JsonValue[] select(TokenList tokens, JsonPath[] paths) throws JsonParserException {
+    try {
+      JsonToken.Token t = tokens.next();
+      if (t == null) {
+        throw new JsonParserException("Unexpected token list end.");
+      }
+      Selection selection = new Selection(paths);
+      selectValue(tokens, t, selection.root, selection);
+      return selection.results;
+    } finally {
+      release(tokens);
+    }
+  }
+
+  private void selectValue(TokenList tokens, JsonToken.Token t, JsonPath.Node node, Selection selection)
+      throws JsonParserException {
+    if (node.ends.length > 0) {
+      // the value is selected, longer paths through it are evaluated on its tree; the trees have
+      // no values for the literals, so they select null
+      JsonValue value = t == JsonToken.Token.TRUE || t == JsonToken.Token.FALSE || t == JsonToken.Token.NULL
+          ? null : handleValue(tokens, t);
+      for (int id : node.paths) {
+        if (!selection.resolved[id]) {
+          selection.results[id] = selection.paths[id].get(value, node.depth);
+        }
+      }
+    } else if (t == JsonToken.Token.OPEN_CB && node.names.length > 0) {
+      selectObject(tokens, node, selection);
+    } else if (t == JsonToken.Token.OPEN_BR && node.indexes.length > 0) {
+      selectArray(tokens, node, selection);
+    } else {
+      tokens.skip(t);
+    }
+    node.resolve(selection.resolved);
+  }
+
+  private void selectObject(TokenList tokens, JsonPath.Node node, Selection selection) throws JsonParserException {
+    JsonToken.Token token = tokens.some(JsonToken.Token.STRING, JsonToken.Token.CLOSE_CB);
+    while (token == JsonToken.Token.STRING) {
+      JsonPath.Node child = null;
+      for (int i = 0; i < node.names.length; i++) {
+        if (tokens.cursor.stringEquals(node.names[i])) {
+          child = node.named[i];
+          break;
+        }
+      }
+      tokens.grant(JsonToken.Token.COLON);
+      JsonToken.Token value = tokens.next();
+      if (value == null) {
+        throw new JsonParserException("Unexpected token list end.");
+      } else if (child != null && child.isPending(selection.resolved)) {
+        selectValue(tokens, value, child, selection);
+        if (selection.isComplete()) {
+          return;
+        } else if (!node.isPending(selection.resolved)) {
+          tokens.skip(JsonToken.Token.OPEN_CB);
+          return;
+        }
+      } else {
+        tokens.skip(value);
+      }
+      if (tokens.some(JsonToken.Token.COMMA, JsonToken.Token.CLOSE_CB) == JsonToken.Token.COMMA) {
+        token = tokens.grant(JsonToken.Token.STRING);
+      } else {
+        token = JsonToken.Token.CLOSE_CB;
+      }
+    }
+  }
+
+  private void selectArray(TokenList tokens, JsonPath.Node node, Selection selection) throws JsonParserException {
+    JsonToken.Token token = tokens.next();
+    if (token == JsonToken.Token.CLOSE_BR) {
+      return;
+    }
+    for (int index = 0; ; index++) {
+      if (token == null) {
+        throw new JsonParserException("Unexpected token list end.");
+      }
+      JsonPath.Node child = node.element(index);
+      if (child != null && child.isPending(selection.resolved)) {
+        selectValue(tokens, token, child, selection);
+        if (selection.isComplete()) {
+          return;
+        } else if (!node.isPending(selection.resolved)) {
+          tokens.skip(JsonToken.Token.OPEN_BR);
+          return;
+        }
+      } else {
+        tokens.skip(token);
+      }
+      if (tokens.some(JsonToken.Token.COMMA, JsonToken.Token.CLOSE_BR) == JsonToken.Token.CLOSE_BR) {
+        return;
+      }
+      token = tokens.next();
+    }
+  }
+
+  /**
+   * State of a selection: the values which were found and the paths which are resolved (found or
+   * known to be missing).
+   */
+  private static final class Selection {
+    final JsonPath[] paths;
+    final JsonPath.Node root;
+    final JsonValue[] results;
+    final boolean[] resolved;
+
+    Selection(JsonPath[] paths) {
+      this.paths = paths;
+      this.root = JsonPath.tree(paths);
+      this.results = new JsonValue[paths.length];
+      this.resolved = new boolean[paths.length];
+    }
+
+    boolean isComplete() {
+      return !root.isPending(resolved);
+    }
+  }
+
+  /**
+   * Parses the given JSON and reports its content to the handler instead of building a value tree.
+   */
+  public void parse(String json, JsonHandler handler) throws JsonParserException {
+    parse(reuse(json), handler);
+  }
+
+  public void parse(byte[] json, int offset, int length, JsonHandler handler) throws JsonParserException {
+    parse(reuse(json, offset, length), handler);
+  }
+
+  public void parse(ByteBuffer json, JsonHandler handler) throws JsonParserException {
+    parse(reuse(json), handler);
+  }
+
+  /**
+   * Reports the content of a UTF-8 encoded file to the handler; the file is memory mapped like
+   * for {@link #parse(Path)}, so the heap stays flat also for very large files.
+   */
+  public void parse(Path json, JsonHandler handler) throws IOException, JsonParserException {
+    try (FileChannel channel = FileChannel.open(json, StandardOpenOption.READ)) {
+      parse(channel, handler);
+    }
+  }
+
+  public void parse(FileChannel json, JsonHandler handler) throws IOException, JsonParserException {
+    try {
+      parse(mapped(json, MAPPED_WINDOW), handler);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private void parse(TokenList tokens, JsonHandler handler) throws JsonParserException {
+    try {
+      handleDocument(tokens, handler);
+    } finally {
+      release(tokens);
+    }
+  }
+
+  private void handleDocument(TokenList tokens, JsonHandler handler) throws JsonParserException {
+    JsonToken.Token t = tokens.next();
+    if (t == null) {
+      throw new JsonParserException("Unexpected token list end.");
+    }
+    handleEvents(tokens, t, handler);
+    tokens.end();
+  }
+
+  private void handleEvents(TokenList tokens, JsonToken.Token t, JsonHandler handler) throws JsonParserException {
+    switch (t) {
+      case OPEN_CB:
+        if (handler.startObject()) {
+          handleObjectEvents(tokens, handler);
+        } else {
+          tokens.skip(t);
+        }
+        break;
+      case OPEN_BR:
+        if (handler.startArray()) {
+          handleArrayEvents(tokens, handler);
+        } else {
+          tokens.skip(t);
+        }
+        break;
+      case STRING:
+        handler.stringValue(tokens.cursor.getStringValue());
+        break;
+      case NUMBER:
+        handler.numberValue(tokens.number());
+        break;
+      case TRUE:
+        handler.booleanValue(true);
+        break;
+      case FALSE:
+        handler.booleanValue(false);
+        break;
+      case NULL:
+        handler.nullValue();
+        break;
+      default:
+        throw new JsonParserException("Unexpected token: " + tokens.found());
+    }
+  }
+
+  private void handleObjectEvents(TokenList tokens, JsonHandler handler) throws JsonParserException {
+    JsonToken.Token token = tokens.some(JsonToken.Token.STRING, JsonToken.Token.CLOSE_CB);
+    while (token == JsonToken.Token.STRING) {
+      boolean wanted = handler.key(tokens.cursor.getStringValue(keyCache));
+      tokens.grant(JsonToken.Token.COLON);
+      JsonToken.Token value = tokens.next();
+      if (value == null) {
+        throw new JsonParserException("Unexpected token list end.");
+      } else if (wanted) {
+        handleEvents(tokens, value, handler);
+      } else {
+        tokens.skip(value);
+      }
+      if (tokens.some(JsonToken.Token.COMMA, JsonToken.Token.CLOSE_CB) == JsonToken.Token.COMMA) {
+        token = tokens.grant(JsonToken.Token.STRING);
+      } else {
+        token = JsonToken.Token.CLOSE_CB;
+      }
+    }
+    handler.endObject();
+  }
+
+  private void handleArrayEvents(TokenList tokens, JsonHandler handler) throws JsonParserException {
+    JsonToken.Token token = tokens.next();
+    if (token == JsonToken.Token.CLOSE_BR) {
+      handler.endArray();
+      return;
+    }
+    while (true) {
+      if (token == null) {
+        throw new JsonParserException("Unexpected token list end.");
+      }
+      handleEvents(tokens, token, handler);
+      if (tokens.some(JsonToken.Token.COMMA, JsonToken.Token.CLOSE_BR) == JsonToken.Token.CLOSE_BR) {
+        handler.endArray();
+        return;
+      }
+      token = tokens.next();
+    }
+  }
+
+  private JsonValue parse(TokenList tokens) throws JsonParserException {
+    try {
+      return handleDocument(tokens);
+    } finally {
+      release(tokens);
+    }
+  }
+
+  private JsonValue handleDocument(TokenList tokens) throws JsonParserException {
+    JsonToken.Token t = tokens.next();
+    if (t == null) {
+      throw new JsonParserException("Unexpected token list end.");
+    }
+    JsonValue result;
+    switch (t) {
+      case OPEN_CB:
+        result = handleObject(tokens);
+        break;
+      case OPEN_BR:
+        result = handleArray(tokens);
+        break;
+//        case STRING:
+//          return handleValue(tokens);
+      default:
+        result = null;
+    }
+    tokens.end();
+    return result;
+  }
+
   private JsonObject handleObject(TokenList tokens) throws JsonParserException {
     JsonObject.JsonObjectBuilder jo = JsonObject.start();
 
-    JsonToken token = tokens.grant(JsonToken.Token.STRING);
-    jo.add(handlePair(tokens, token));
+    if (tokens.some(JsonToken.Token.STRING, JsonToken.Token.CLOSE_CB) == JsonToken.Token.CLOSE_CB) {
+      return jo.build();
+    }
+    jo.add(handlePair(tokens));
 
-    while (tokens.hasNext()) {
-      token = tokens.some(JsonToken.Token.COMMA, JsonToken.Token.CLOSE_CB);
-      switch (token.getToken()) {
+    while (true) {
+      JsonToken.Token token = tokens.some(JsonToken.Token.COMMA, JsonToken.Token.CLOSE_CB);
+      switch (token) {
         case COMMA:
-          token = tokens.grant(JsonToken.Token.STRING);
-          jo.add(handlePair(tokens, token));
+          tokens.grant(JsonToken.Token.STRING);
+          jo.add(handlePair(tokens));
           break;
         case CLOSE_CB:
           return jo.build();
         default:
-          throw new JsonParserException("Unexpected token: " + token.toString());
+          throw new JsonParserException("Unexpected token: " + tokens.found());
       }
     }
-    throw new JsonParserException("Unexpected token list end.");
   }
 
-  private JsonPair handlePair(TokenList tokens, JsonToken t) throws JsonParserException {
-    String literal = t.getLiteral();
+  private JsonPair handlePair(TokenList tokens) throws JsonParserException {
     JsonPair.JsonPairBuilder pair = JsonPair.create();
-    pair.name(literal.substring(1, literal.length()-1));
+    pair.name(tokens.cursor.getStringValue(keyCache));
     tokens.grant(JsonToken.Token.COLON);
     JsonValue v = handleValue(tokens);
     return pair.value(v).build();
   }
 
+  private JsonArray handleArray(TokenList tokens) throws JsonParserException {
+    JsonArray.JsonArrayBuilder ja = JsonArray.start();
+    JsonToken.Token token = tokens.next();
+    if (token == JsonToken.Token.CLOSE_BR) {
+      return ja.build();
+    }
+    while (true) {
+      if (token == JsonToken.Token.NUMBER) {
+        // numbers go straight into the primitive representation of the array
+        JsonNumber.Decoder decoder = tokens.cursor.decoder();
+        switch (decoder.decode()) {
+          case JsonNumber.LONG:
+            ja.add(decoder.longValue());
+            break;
+          case JsonNumber.DOUBLE:
+            ja.add(decoder.doubleValue());
+            break;
+          default:
+            ja.add(tokens.number());
+        }
+      } else {
+        ja.add(handleValue(tokens, token));
+      }
+      if (tokens.some(JsonToken.Token.COMMA, JsonToken.Token.CLOSE_BR) == JsonToken.Token.CLOSE_BR) {
+        return ja.build();
+      }
+      token = tokens.next();
+    }
+  }
+
   private JsonValue handleValue(TokenList tokens) throws JsonParserException {
-    JsonToken t = tokens.next();
+    return handleValue(tokens, tokens.next());
+  }
+
+  private JsonValue handleValue(TokenList tokens, JsonToken.Token t) throws JsonParserException {
+    if (t == null) {
+      throw new JsonParserException("Unexpected token list end.");
+    }
 
-    switch (t.getToken()) {
+    switch (t) {
       case STRING:
-        String literal = t.getLiteral();
-        return new JsonString(literal.substring(1, literal.length()-1));
+        return new JsonString(tokens.cursor.getStringValue());
       case NUMBER:
+        return tokens.number();
       case FALSE:
-        throw new JsonParserException("Not yet implemented token: " + t.toString());
+        throw new JsonParserException("Not yet implemented token: " + tokens.found());
       case OPEN_CB:
         return handleObject(tokens);
+      case OPEN_BR:
+        return handleArray(tokens);
       default:
-        throw new JsonParserException("Unexpected token: " + t.toString());
+        throw new JsonParserException("Unexpected token: " + tokens.found());
     }
   }
 }
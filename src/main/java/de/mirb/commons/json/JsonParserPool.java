@@ -0,0 +1,94 @@
+package de.mirb.pg.pojo;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of {@link JsonParser}s (and so of their warmed-up buffers) which can be shared by all
+ * threads of an application. In contrast to {@link JsonParser#forCurrentThread()} the number of
+ * kept parsers depends on the concurrency and not on the number of threads, which makes the pool
+ * the better fit for virtual threads or thread-per-request models.
+ * <p>
+ * The parsers of a pool share the key cache of the pool.
+ */
+public class JsonParserPool {
+  public static final int DEFAULT_MAX_IDLE = 16;
+
+  private final ConcurrentLinkedQueue<JsonParser> idle = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger idleCount = new AtomicInteger();
+  private final int maxIdle;
+  private final JsonKeyCache keyCache;
+
+  public JsonParserPool() {
+    this(DEFAULT_MAX_IDLE, null);
+  }
+
+  /**
+   * @param maxIdle maximum number of parsers which are kept when they are released
+   * @param keyCache key cache of all parsers (<code>null</code> for no key cache)
+   */
+  public JsonParserPool(int maxIdle, JsonKeyCache keyCache) {
+    if (maxIdle < 0) {
+      throw new IllegalArgumentException("Negative maximum number of idle parsers: " + maxIdle);
+    }
+    this.maxIdle = maxIdle;
+    this.keyCache = keyCache;
+  }
+
+  /**
+   * @return an idle parser of the pool or a new parser if none is idle
+   */
+  public JsonParser acquire() {
+    JsonParser parser = idle.poll();
+    if (parser == null) {
+      return new JsonParser(keyCache);
+    }
+    idleCount.decrementAndGet();
+    return parser;
+  }
+
+  /**
+   * Returns the parser to the pool; it must not be used by the caller afterwards.
+   */
+  public void release(JsonParser parser) {
+    if (idleCount.incrementAndGet() <= maxIdle) {
+      idle.offer(parser);
+    } else {
+      idleCount.decrementAndGet();
+    }
+  }
+
+  public JsonValue parse(String json) throws JsonParserException {
+    JsonParser parser = acquire();
+    try {
+      return parser.parse(json);
+    } finally {
+      release(parser);
+    }
+  }
+
+  public JsonValue parse(byte[] json, int offset, int length) throws JsonParserException {
+    JsonParser parser = acquire();
+    try {
+      return parser.parse(json, offset, length);
+    } finally {
+      release(parser);
+    }
+  }
+
+  public void parse(String json, JsonHandler handler) throws JsonParserException {
+    JsonParser parser = acquire();
+    try {
+      parser.parse(json, handler);
+    } finally {
+      release(parser);
+    }
+  }
+
+  /**
+   * @return number of parsers which are currently idle in the pool
+   */
+  public int getIdleCount() {
+    return idleCount.get();
+  }
+}
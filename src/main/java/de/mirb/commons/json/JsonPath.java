@@ -0,0 +1,327 @@
+package de.mirb.pg.pojo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiled path to a value of a JSON document, either a JSON pointer (RFC 6901, e.g.
+ * <code>/orders/0/customer/id</code>) or the dot and bracket notation of JSONPath without
+ * wildcards, filters and slices (e.g. <code>$.orders[0].customer.id</code> or
+ * <code>$['orders'][0]</code>).
+ * <p>
+ * A path is evaluated on a value tree via {@link #get(JsonValue)} or directly on the tokens of a
+ * document via {@link JsonParser#select(String, JsonPath...)}, which skips all subtrees that are
+ * not on one of the paths and stops as soon as all paths are found. As the value trees have no
+ * values for <code>true</code>, <code>false</code> and <code>null</code>, a path which ends at one
+ * of these literals selects <code>null</code>.
+ * <p>
+ * A segment of a JSON pointer which is an array index (like <code>0</code>) selects the element of
+ * an array or the pair with this name of an object; in JSONPath <code>[0]</code> only selects
+ * array elements and <code>.name</code> or <code>['name']</code> only pairs.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class JsonPath {
+  private final String expression;
+  /** name of each segment (<code>null</code> if the segment only selects array elements) */
+  private final String[] names;
+  /** array index of each segment (<code>-1</code> if the segment only selects pairs) */
+  private final int[] indexes;
+
+  private JsonPath(String expression, String[] names, int[] indexes) {
+    this.expression = expression;
+    this.names = names;
+    this.indexes = indexes;
+  }
+
+  /**
+   * @param expression JSON pointer (empty or starting with <code>/</code>) or JSONPath (starting
+   *                   with <code>$</code>)
+   * @return the compiled path
+   * @throws IllegalArgumentException if the expression is no valid path
+   */
+  public static JsonPath compile(String expression) {
+    final List<String> names = new ArrayList<>();
+    final List<Integer> indexes = new ArrayList<>();
+    if (expression.startsWith("$")) {
+      compilePath(expression, names, indexes);
+    } else {
+      compilePointer(expression, names, indexes);
+    }
+    final int[] index = new int[indexes.size()];
+    for (int i = 0; i < index.length; i++) {
+      index[i] = indexes.get(i);
+    }
+    return new JsonPath(expression, names.toArray(new String[names.size()]), index);
+  }
+
+  private static void compilePointer(String pointer, List<String> names, List<Integer> indexes) {
+    if (pointer.isEmpty()) {
+      return;
+    }
+    if (pointer.charAt(0) != '/') {
+      throw new IllegalArgumentException("Invalid path: " + pointer);
+    }
+    int start = 1;
+    while (start <= pointer.length()) {
+      int end = pointer.indexOf('/', start);
+      if (end < 0) {
+        end = pointer.length();
+      }
+      final StringBuilder name = new StringBuilder(end - start);
+      for (int i = start; i < end; i++) {
+        final char c = pointer.charAt(i);
+        if (c != '~') {
+          name.append(c);
+        } else if (i + 1 < end && (pointer.charAt(i + 1) == '0' || pointer.charAt(i + 1) == '1')) {
+          name.append(pointer.charAt(++i) == '0' ? '~' : '/');
+        } else {
+          throw new IllegalArgumentException("Invalid path: " + pointer);
+        }
+      }
+      names.add(name.toString());
+      indexes.add(index(name, 0, name.length()));
+      start = end + 1;
+    }
+  }
+
+  private static void compilePath(String path, List<String> names, List<Integer> indexes) {
+    int pos = 1;
+    while (pos < path.length()) {
+      final char c = path.charAt(pos);
+      if (c == '.') {
+        int end = pos + 1;
+        while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+          end++;
+        }
+        if (end == pos + 1) {
+          throw new IllegalArgumentException("Invalid path: " + path);
+        }
+        names.add(path.substring(pos + 1, end));
+        indexes.add(-1);
+        pos = end;
+      } else if (c == '[' && pos + 1 < path.length()
+          && (path.charAt(pos + 1) == '\'' || path.charAt(pos + 1) == '"')) {
+        final char quote = path.charAt(pos + 1);
+        final int end = path.indexOf(quote, pos + 2);
+        if (end < 0 || end + 1 >= path.length() || path.charAt(end + 1) != ']') {
+          throw new IllegalArgumentException("Invalid path: " + path);
+        }
+        names.add(path.substring(pos + 2, end));
+        indexes.add(-1);
+        pos = end + 2;
+      } else if (c == '[') {
+        final int end = path.indexOf(']', pos);
+        final int index = end < 0 ? -1 : index(path, pos + 1, end);
+        if (index < 0) {
+          throw new IllegalArgumentException("Invalid path: " + path);
+        }
+        names.add(null);
+        indexes.add(index);
+        pos = end + 1;
+      } else {
+        throw new IllegalArgumentException("Invalid path: " + path);
+      }
+    }
+  }
+
+  /**
+   * @return the array index (digits without leading zero) or <code>-1</code>
+   */
+  private static int index(CharSequence s, int start, int end) {
+    if (start == end || end - start > 9 || end - start > 1 && s.charAt(start) == '0') {
+      return -1;
+    }
+    int index = 0;
+    for (int i = start; i < end; i++) {
+      final char c = s.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      index = index * 10 + (c - '0');
+    }
+    return index;
+  }
+
+  /**
+   * @return number of segments of the path
+   */
+  public int depth() {
+    return names.length;
+  }
+
+  /**
+   * @return name of the segment at the given depth (<code>null</code> if the segment only selects
+   * array elements)
+   */
+  String name(int depth) {
+    return names[depth];
+  }
+
+  /**
+   * Evaluates the path on the given value tree.
+   *
+   * @param root root of the tree
+   * @return the value at the path or <code>null</code> if the tree has no value at the path
+   */
+  public JsonValue get(JsonValue root) {
+    return get(root, 0);
+  }
+
+  /**
+   * Evaluates the segments of the path from the given depth on.
+   */
+  JsonValue get(JsonValue value, int depth) {
+    for (int i = depth; i < names.length && value != null; i++) {
+      if (value instanceof JsonObject) {
+        value = names[i] == null ? null : ((JsonObject) value).get(names[i]);
+      } else if (value instanceof JsonArray) {
+        final JsonArray array = (JsonArray) value;
+        value = indexes[i] < 0 || indexes[i] >= array.size() ? null : array.get(indexes[i]);
+      } else {
+        value = null;
+      }
+    }
+    return value;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return this == o || o instanceof JsonPath
+        && Arrays.equals(names, ((JsonPath) o).names) && Arrays.equals(indexes, ((JsonPath) o).indexes);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(names) + Arrays.hashCode(indexes);
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
+
+  /**
+   * Merges the paths into a tree of their segments, which is walked along the tokens of a document.
+   */
+  static Node tree(JsonPath... paths) {
+    final Node root = new Node(0);
+    for (int id = 0; id < paths.length; id++) {
+      final JsonPath path = paths[id];
+      final List<Node> level = new ArrayList<>();
+      level.add(root);
+      root.add(id);
+      for (int i = 0; i < path.names.length; i++) {
+        final List<Node> next = new ArrayList<>(2);
+        for (Node node : level) {
+          if (path.names[i] != null) {
+            next.add(node.named(path.names[i]).add(id));
+          }
+          if (path.indexes[i] >= 0) {
+            next.add(node.indexed(path.indexes[i]).add(id));
+          }
+        }
+        level.clear();
+        level.addAll(next);
+      }
+      for (Node node : level) {
+        node.ends = append(node.ends, id);
+      }
+    }
+    return root;
+  }
+
+  private static int[] append(int[] ids, int id) {
+    final int[] result = Arrays.copyOf(ids, ids.length + 1);
+    result[ids.length] = id;
+    return result;
+  }
+
+  /**
+   * Node of the segment tree of several paths: a pair name or an array index which is on at
+   * least one of the paths.
+   */
+  static final class Node {
+    private static final String[] NO_NAMES = new String[0];
+    private static final int[] NO_INDEXES = new int[0];
+    private static final Node[] NO_NODES = new Node[0];
+
+    /** number of segments from the root to this node */
+    final int depth;
+    /** ids of the paths which end at this node */
+    int[] ends = NO_INDEXES;
+    /** ids of the paths which pass or end at this node */
+    int[] paths = NO_INDEXES;
+    String[] names = NO_NAMES;
+    Node[] named = NO_NODES;
+    int[] indexes = NO_INDEXES;
+    Node[] indexed = NO_NODES;
+
+    Node(int depth) {
+      this.depth = depth;
+    }
+
+    private Node add(int id) {
+      paths = append(paths, id);
+      return this;
+    }
+
+    private Node named(String name) {
+      for (int i = 0; i < names.length; i++) {
+        if (names[i].equals(name)) {
+          return named[i];
+        }
+      }
+      names = Arrays.copyOf(names, names.length + 1);
+      named = Arrays.copyOf(named, named.length + 1);
+      names[names.length - 1] = name;
+      return named[named.length - 1] = new Node(depth + 1);
+    }
+
+    private Node indexed(int index) {
+      for (int i = 0; i < indexes.length; i++) {
+        if (indexes[i] == index) {
+          return indexed[i];
+        }
+      }
+      indexes = Arrays.copyOf(indexes, indexes.length + 1);
+      indexed = Arrays.copyOf(indexed, indexed.length + 1);
+      indexes[indexes.length - 1] = index;
+      return indexed[indexed.length - 1] = new Node(depth + 1);
+    }
+
+    /**
+     * @return the child for the array element with the given index or <code>null</code>
+     */
+    Node element(int index) {
+      for (int i = 0; i < indexes.length; i++) {
+        if (indexes[i] == index) {
+          return indexed[i];
+        }
+      }
+      return null;
+    }
+
+    /**
+     * @return <code>true</code> if one of the paths which pass this node is not yet resolved
+     */
+    boolean isPending(boolean[] resolved) {
+      for (int id : paths) {
+        if (!resolved[id]) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Marks the paths which pass this node as resolved (after the value at this node was walked,
+     * they are either found or do not exist, because only the first pair of a name counts).
+     */
+    void resolve(boolean[] resolved) {
+      for (int id : paths) {
+        resolved[id] = true;
+      }
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package de.mirb.pg.pojo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Set of fields which are kept when a document is parsed via
+ * {@link JsonParser#parse(String, JsonProjection)}; the pairs of all other names are skipped
+ * without decoding their values and without creating names, pairs or values for them.
+ * <p>
+ * Fields are given as paths of names (JSON pointer like <code>/user/name</code> or JSONPath like
+ * <code>$.user.name</code>, see {@link JsonPath}) and are merged into a tree of names. The value
+ * at the end of a path is kept completely; arrays on the way are transparent, so
+ * <code>/items/price</code> keeps the <code>price</code> of every object in the
+ * <code>items</code> array. Objects on the way are kept with their projected pairs (also if none
+ * of them is present), other values on the way are dropped.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class JsonProjection {
+  /** names of the projected pairs of an object at this level */
+  final String[] names;
+  /** projection of the values of the pairs (<code>null</code> if the value is kept completely) */
+  final JsonProjection[] fields;
+
+  private JsonProjection(String[] names, JsonProjection[] fields) {
+    this.names = names;
+    this.fields = fields;
+  }
+
+  /**
+   * @param paths paths of the kept fields
+   * @return the projection
+   * @throws IllegalArgumentException if a path is invalid, empty or contains an array index
+   */
+  public static JsonProjection of(String... paths) {
+    JsonPath[] compiled = new JsonPath[paths.length];
+    for (int i = 0; i < paths.length; i++) {
+      compiled[i] = JsonPath.compile(paths[i]);
+    }
+    return of(compiled);
+  }
+
+  public static JsonProjection of(JsonPath... paths) {
+    Level root = new Level();
+    for (JsonPath path : paths) {
+      if (path.depth() == 0) {
+        throw new IllegalArgumentException("Empty projection path: " + path);
+      }
+      Level level = root;
+      for (int i = 0; i < path.depth() && level != null; i++) {
+        if (path.name(i) == null) {
+          throw new IllegalArgumentException("Projection paths can only contain names: " + path);
+        }
+        level = level.add(path.name(i), i == path.depth() - 1);
+      }
+    }
+    return root.build();
+  }
+
+  /**
+   * @return index of the given name or <code>-1</code> if the pairs with this name are skipped
+   */
+  int field(JsonCursor cursor) {
+    for (int i = 0; i < names.length; i++) {
+      if (cursor.stringEquals(names[i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static final class Level {
+    private final List<String> names = new ArrayList<>();
+    /** <code>null</code> for values which are kept completely */
+    private final List<Level> fields = new ArrayList<>();
+
+    /**
+     * @return level of the value of the named pair (<code>null</code> if the value is kept completely)
+     */
+    Level add(String name, boolean last) {
+      int i = names.indexOf(name);
+      if (i < 0) {
+        names.add(name);
+        fields.add(last ? null : new Level());
+        return fields.get(fields.size() - 1);
+      }
+      if (last) {
+        fields.set(i, null);
+      }
+      return fields.get(i);
+    }
+
+    JsonProjection build() {
+      JsonProjection[] projections = new JsonProjection[fields.size()];
+      for (int i = 0; i < projections.length; i++) {
+        projections[i] = fields.get(i) == null ? null : fields.get(i).build();
+      }
+      return new JsonProjection(names.toArray(new String[names.size()]), projections);
+    }
+  }
+}
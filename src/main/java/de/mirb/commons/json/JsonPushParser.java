@@ -0,0 +1,353 @@
+package de.mirb.pg.pojo;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Resumable (push mode) parser for JSON which arrives in chunks.
+ * <p>
+ * Chunks are passed via {@link #feed(char[], int, int)} or {@link #feed(byte[], int, int)} (UTF-8) and
+ * may end anywhere, also within a token or a multi-byte character. The tokenizer state is kept
+ * between the calls and the object tree is built while the chunks arrive; only the literal of the
+ * token which is currently open is buffered. {@link #endOfInput()} completes the document and
+ * returns the same result as {@link JsonParser#parse(String)} for the concatenated chunks.
+ * Afterwards the parser can be used for the next document.
+ */
+public class JsonPushParser {
+  private static final int EXPECT_ROOT = 0;
+  private static final int EXPECT_FIRST_KEY = 1;
+  private static final int EXPECT_KEY = 2;
+  private static final int EXPECT_COLON = 3;
+  private static final int EXPECT_VALUE = 4;
+  private static final int EXPECT_COMMA_OR_CLOSE = 5;
+  private static final int EXPECT_NOTHING = 6;
+  private static final int EXPECT_FIRST_ELEMENT = 7;
+
+  private static class Frame {
+    final JsonObject.JsonObjectBuilder object;
+    final JsonArray.JsonArrayBuilder array;
+    String name;
+
+    Frame(boolean isArray) {
+      object = isArray ? null : JsonObject.start();
+      array = isArray ? JsonArray.start() : null;
+    }
+  }
+
+  private final JsonTableTokenizer table = new JsonTableTokenizer();
+  private final StringBuilder text = new StringBuilder();
+  private final JsonNumber.Decoder decoder = new JsonNumber.Decoder();
+  private final Deque<Frame> frames = new ArrayDeque<>();
+  private int expect = EXPECT_ROOT;
+  private JsonValue root;
+
+  private int position;
+  private boolean started;
+  private int pendingWhitespace = -1;
+
+  private int utf8Remaining;
+  private int utf8CodePoint;
+  private int utf8Start;
+
+  public void feed(char[] chunk) throws JsonParserException {
+    feed(chunk, 0, chunk.length);
+  }
+
+  public void feed(char[] chunk, int offset, int length) throws JsonParserException {
+    try {
+      for (int i = offset; i < offset + length; i++) {
+        push(chunk[i], position++);
+      }
+    } catch (JsonTokenizerException e) {
+      throw failed(e);
+    } catch (JsonParserException e) {
+      reset();
+      throw e;
+    }
+  }
+
+  public void feed(byte[] chunk) throws JsonParserException {
+    feed(chunk, 0, chunk.length);
+  }
+
+  /**
+   * Feeds UTF-8 encoded bytes (multi-byte characters may be split across chunks).
+   */
+  public void feed(byte[] chunk, int offset, int length) throws JsonParserException {
+    try {
+      for (int i = offset; i < offset + length; i++) {
+        final int b = chunk[i];
+        final int pos = position++;
+        if (utf8Remaining > 0) {
+          if ((b & 0xC0) != 0x80) {
+            JsonTableTokenizer.invalidUtf8(pos);
+          }
+          utf8CodePoint = (utf8CodePoint << 6) | (b & 0x3F);
+          if (--utf8Remaining == 0) {
+            push(utf8CodePoint, utf8Start);
+          }
+        } else if (b >= 0) {
+          push(b, pos);
+        } else {
+          utf8Remaining = JsonTableTokenizer.utf8Continuations(b & 0xFF);
+          if (utf8Remaining < 0) {
+            JsonTableTokenizer.invalidUtf8(pos);
+          }
+          utf8CodePoint = b & (0x3F >> utf8Remaining);
+          utf8Start = pos;
+        }
+      }
+    } catch (JsonTokenizerException e) {
+      throw failed(e);
+    } catch (JsonParserException e) {
+      reset();
+      throw e;
+    }
+  }
+
+  /**
+   * Completes the current document.
+   *
+   * @return the parsed value (<code>null</code> if the document is no JSON object or array)
+   * @throws JsonParserException if the fed input is no complete and valid document
+   */
+  public JsonValue endOfInput() throws JsonParserException {
+    try {
+      if (utf8Remaining > 0) {
+        JsonTableTokenizer.invalidUtf8(utf8Start);
+      }
+      final int count = table.finish(position);
+      for (int i = 0; i < count; i++) {
+        handle(JsonTableTokenizer.TOKENS[table.type(i)]);
+      }
+      if (expect != EXPECT_NOTHING) {
+        throw new JsonParserException("Unexpected token list end.");
+      }
+      return root;
+    } catch (JsonTokenizerException e) {
+      throw failed(e);
+    } finally {
+      reset();
+    }
+  }
+
+  private void reset() {
+    table.reset();
+    text.setLength(0);
+    frames.clear();
+    expect = EXPECT_ROOT;
+    root = null;
+    position = 0;
+    started = false;
+    pendingWhitespace = -1;
+    utf8Remaining = 0;
+  }
+
+  private JsonParserException failed(JsonTokenizerException e) {
+    reset();
+    return new JsonParserException(e.getMessage());
+  }
+
+  private void push(final int c, final int pos) throws JsonTokenizerException, JsonParserException {
+    final int before = table.state();
+    if (c <= ' ' && before != JsonTableTokenizer.STRING && before != JsonTableTokenizer.STRING_ESCAPE) {
+      // whitespace between tokens is deferred until the next token starts, trailing whitespace
+      // is ignored (like leading whitespace)
+      if (started && (pendingWhitespace < 0 || JsonTableTokenizer.isWhitespace(pendingWhitespace))) {
+        pendingWhitespace = c;
+      }
+      return;
+    }
+    started = true;
+    if (pendingWhitespace >= 0) {
+      final int whitespace = pendingWhitespace;
+      pendingWhitespace = -1;
+      handle(table.feed(whitespace, pos));
+    }
+
+    final int count = table.feed(c, pos);
+    final int after = table.state();
+    if (isLiteral(after) || before == JsonTableTokenizer.STRING && after == JsonTableTokenizer.STRING_END) {
+      if (!isLiteral(before)) {
+        text.setLength(0);
+      }
+      if (before == JsonTableTokenizer.STRING_ESCAPE) {
+        text.append(JsonTableTokenizer.unescape(c));
+      } else if (after != JsonTableTokenizer.STRING_ESCAPE) {
+        text.appendCodePoint(c);
+      }
+    }
+    handle(count);
+  }
+
+  private static boolean isLiteral(final int state) {
+    switch (state) {
+      case JsonTableTokenizer.STRING:
+      case JsonTableTokenizer.STRING_ESCAPE:
+      case JsonTableTokenizer.NUMBER_SIGN:
+      case JsonTableTokenizer.NUMBER:
+      case JsonTableTokenizer.NUMBER_FRAC_START:
+      case JsonTableTokenizer.NUMBER_FRAC:
+      case JsonTableTokenizer.NUMBER_EXP:
+      case JsonTableTokenizer.NUMBER_EXP_SIGN:
+      case JsonTableTokenizer.NUMBER_EXP_DIGITS:
+      case JsonTableTokenizer.WORD:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private void handle(final int count) throws JsonParserException {
+    for (int i = 0; i < count; i++) {
+      handle(JsonTableTokenizer.TOKENS[table.type(i)]);
+    }
+  }
+
+  private void handle(final JsonToken.Token token) throws JsonParserException {
+    switch (expect) {
+      case EXPECT_ROOT:
+        if (token == JsonToken.Token.OPEN_CB || token == JsonToken.Token.OPEN_BR) {
+          value(token);
+        } else {
+          expect = EXPECT_NOTHING;
+        }
+        break;
+      case EXPECT_FIRST_KEY:
+        if (token == JsonToken.Token.CLOSE_CB) {
+          close();
+        } else {
+          key(token);
+        }
+        break;
+      case EXPECT_KEY:
+        key(token);
+        break;
+      case EXPECT_COLON:
+        require(JsonToken.Token.COLON, token);
+        expect = EXPECT_VALUE;
+        break;
+      case EXPECT_VALUE:
+        value(token);
+        break;
+      case EXPECT_FIRST_ELEMENT:
+        if (token == JsonToken.Token.CLOSE_BR) {
+          close();
+        } else {
+          value(token);
+        }
+        break;
+      case EXPECT_COMMA_OR_CLOSE:
+        final boolean isArray = frames.peek().array != null;
+        final JsonToken.Token closing = isArray ? JsonToken.Token.CLOSE_BR : JsonToken.Token.CLOSE_CB;
+        if (token == JsonToken.Token.COMMA) {
+          expect = isArray ? EXPECT_VALUE : EXPECT_KEY;
+        } else if (token == closing) {
+          close();
+        } else {
+          throw new JsonParserException("Required token was not found (req: [COMMA, " + closing + "]; found: " + token + ")");
+        }
+        break;
+      default:
+        // like JsonParser nothing but whitespace may follow the root value
+        throw new JsonParserException("Unexpected token: " + token);
+    }
+  }
+
+  private void key(final JsonToken.Token token) throws JsonParserException {
+    require(JsonToken.Token.STRING, token);
+    frames.peek().name = stringValue();
+    expect = EXPECT_COLON;
+  }
+
+  private void value(final JsonToken.Token token) throws JsonParserException {
+    switch (token) {
+      case STRING:
+        add(new JsonString(stringValue()));
+        break;
+      case NUMBER:
+        number();
+        break;
+      case FALSE:
+        throw new JsonParserException("Not yet implemented token: " + token + "=>{" + text + "}");
+      case OPEN_CB:
+        frames.push(new Frame(false));
+        expect = EXPECT_FIRST_KEY;
+        break;
+      case OPEN_BR:
+        frames.push(new Frame(true));
+        expect = EXPECT_FIRST_ELEMENT;
+        break;
+      default:
+        throw new JsonParserException("Unexpected token: " + token);
+    }
+  }
+
+  private void close() {
+    final Frame frame = frames.pop();
+    final JsonValue value = frame.array != null ? frame.array.build() : frame.object.build();
+    if (frames.isEmpty()) {
+      root = value;
+      expect = EXPECT_NOTHING;
+    } else {
+      add(value);
+    }
+  }
+
+  private void add(JsonValue value) {
+    final Frame frame = frames.peek();
+    if (frame.array != null) {
+      frame.array.add(value);
+    } else {
+      frame.object.add(JsonPair.with(frame.name).value(value).build());
+    }
+    expect = EXPECT_COMMA_OR_CLOSE;
+  }
+
+  private void number() throws JsonParserException {
+    decoder.reset();
+    for (int i = 0; i < text.length(); i++) {
+      decoder.accept(text.charAt(i));
+    }
+    final JsonArray.JsonArrayBuilder array = frames.peek().array;
+    switch (decoder.decode()) {
+      case JsonNumber.LONG:
+        if (array != null) {
+          array.add(decoder.longValue());
+          expect = EXPECT_COMMA_OR_CLOSE;
+        } else {
+          add(new JsonNumber(decoder.longValue()));
+        }
+        break;
+      case JsonNumber.DOUBLE:
+        if (array != null) {
+          array.add(decoder.doubleValue());
+          expect = EXPECT_COMMA_OR_CLOSE;
+        } else {
+          add(new JsonNumber(decoder.doubleValue()));
+        }
+        break;
+      default:
+        add(decimal());
+    }
+  }
+
+  private JsonNumber decimal() throws JsonParserException {
+    try {
+      return new JsonNumber(new BigDecimal(text.toString()));
+    } catch (NumberFormatException e) {
+      throw new JsonParserException("Invalid number: " + text);
+    }
+  }
+
+  private String stringValue() {
+    return text.substring(1, text.length() - 1);
+  }
+
+  private static void require(JsonToken.Token required, JsonToken.Token found) throws JsonParserException {
+    if (required != found) {
+      throw new JsonParserException("Required token was not found (req: " + required + "; found: " + found + ")");
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package de.mirb.pg.pojo;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fast paths of the cursors which skip string content and whitespace several bytes at a time
+ * (SWAR: eight bytes are read as one little endian <code>long</code> and tested in parallel).
+ * <p>
+ * String content is skipped up to the next byte which the tokenizer has to see: a quotation
+ * mark, a reverse solidus, a control character or the first byte of a multi-byte UTF-8 sequence
+ * (which is decoded and validated by the cursor). All methods return the position of the first
+ * byte which was not skipped.
+ */
+final class JsonScanner {
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGHS = 0x8080808080808080L;
+  private static final long QUOTES = ONES * '"';
+  private static final long ESCAPES = ONES * '\\';
+  /**
+   * Exclusive upper bound of the control characters in each byte: subtracting it borrows into the
+   * high bit of the bytes below it (same value as {@link #SPACES}, but a different use).
+   */
+  private static final long CONTROL_BOUND = ONES * ' ';
+  /** eight space characters, a word of indentation which is skipped as a whole */
+  private static final long SPACES = ONES * ' ';
+
+  private JsonScanner() {
+  }
+
+  /**
+   * Wraps the array for little endian <code>long</code> reads (the wrapper is reused as long as
+   * the array does not change).
+   */
+  static ByteBuffer words(final ByteBuffer current, final byte[] bytes) {
+    if (current != null && current.array() == bytes) {
+      return current;
+    }
+    return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * @return mask with the high bit set for (at least) the first byte of the word which stops the
+   * string scan; <code>0</code> if all eight bytes are plain string content
+   */
+  static long stops(final long word) {
+    return (zeros(word ^ QUOTES) | zeros(word ^ ESCAPES) | ((word - CONTROL_BOUND) & ~word) | word) & HIGHS;
+  }
+
+  private static long zeros(final long word) {
+    return (word - ONES) & ~word;
+  }
+
+  static boolean isPlain(final int b) {
+    return b >= ' ' && b != '"' && b != '\\';
+  }
+
+  static int skipString(final ByteBuffer words, int pos, final int limit) {
+    while (pos + 8 <= limit) {
+      final long stops = stops(words.getLong(pos));
+      if (stops != 0) {
+        return pos + (Long.numberOfTrailingZeros(stops) >>> 3);
+      }
+      pos += 8;
+    }
+    while (pos < limit && isPlain(words.get(pos))) {
+      pos++;
+    }
+    return pos;
+  }
+
+  static int skipString(final char[] chars, int pos, final int limit) {
+    while (pos < limit && isPlain(chars[pos])) {
+      pos++;
+    }
+    return pos;
+  }
+
+  static int skipWhitespace(final ByteBuffer words, int pos, final int limit) {
+    while (pos + 8 <= limit && words.getLong(pos) == SPACES) {
+      pos += 8;
+    }
+    while (pos < limit && JsonTableTokenizer.isWhitespace(words.get(pos))) {
+      pos++;
+    }
+    return pos;
+  }
+
+  static int skipWhitespace(final char[] chars, int pos, final int limit) {
+    while (pos < limit && JsonTableTokenizer.isWhitespace(chars[pos])) {
+      pos++;
+    }
+    return pos;
+  }
+}
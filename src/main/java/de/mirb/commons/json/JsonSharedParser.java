@@ -0,0 +1,159 @@
+package de.mirb.pg.pojo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Parser which can be shared by all threads of an application (e.g. as a singleton or a constant).
+ * <p>
+ * The configuration is fixed on creation and every call borrows a {@link JsonParser} (with its
+ * warmed-up buffers) from a lock-free {@link JsonParserPool}, so calls never block each other.
+ * The returned value trees are immutable and safely published, so they can be handed to other
+ * threads or put into caches without copying them. The lazy parse mode is not offered because its
+ * trees decode their values from the source on first access.
+ */
+public final class JsonSharedParser {
+  private final JsonParserPool pool;
+  private final JsonKeyCache keyCache;
+
+  /**
+   * Creates a shared parser with its own key cache.
+   */
+  public JsonSharedParser() {
+    this(new JsonKeyCache(), JsonParserPool.DEFAULT_MAX_IDLE);
+  }
+
+  /**
+   * @param keyCache key cache of all parsed documents (<code>null</code> for no key cache)
+   * @param maxIdle maximum number of idle parsers which are kept for the next calls
+   */
+  public JsonSharedParser(JsonKeyCache keyCache, int maxIdle) {
+    this.pool = new JsonParserPool(maxIdle, keyCache);
+    this.keyCache = keyCache;
+  }
+
+  public JsonKeyCache getKeyCache() {
+    return keyCache;
+  }
+
+  public JsonValue parse(String json) throws JsonParserException {
+    final JsonParser parser = pool.acquire();
+    try {
+      return parser.parse(json);
+    } finally {
+      pool.release(parser);
+    }
+  }
+
+  public JsonValue parse(byte[] json, int offset, int length) throws JsonParserException {
+    final JsonParser parser = pool.acquire();
+    try {
+      return parser.parse(json, offset, length);
+    } finally {
+      pool.release(parser);
+    }
+  }
+
+  public JsonValue parse(ByteBuffer json) throws JsonParserException {
+    final JsonParser parser = pool.acquire();
+    try {
+      return parser.parse(json);
+    } finally {
+      pool.release(parser);
+    }
+  }
+
+  public JsonValue parse(Path json) throws IOException, JsonParserException {
+    final JsonParser parser = pool.acquire();
+    try {
+      return parser.parse(json);
+    } finally {
+      pool.release(parser);
+    }
+  }
+
+  /**
+   * @see JsonParser#parse(String, JsonProjection)
+   */
+  public JsonValue parse(String json, JsonProjection projection) throws JsonParserException {
+    final JsonParser parser = pool.acquire();
+    try {
+      return parser.parse(json, projection);
+    } finally {
+      pool.release(parser);
+    }
+  }
+
+  public JsonValue parse(byte[] json, int offset, int length, JsonProjection projection) throws JsonParserException {
+    final JsonParser parser = pool.acquire();
+    try {
+      return parser.parse(json, offset, length, projection);
+    } finally {
+      pool.release(parser);
+    }
+  }
+
+  /**
+   * @see JsonParser#select(String, JsonPath...)
+   */
+  public JsonValue[] select(String json, JsonPath... paths) throws JsonParserException {
+    final JsonParser parser = pool.acquire();
+    try {
+      return parser.select(json, paths);
+    } finally {
+      pool.release(parser);
+    }
+  }
+
+  public JsonValue[] select(byte[] json, int offset, int length, JsonPath... paths) throws JsonParserException {
+    final JsonParser parser = pool.acquire();
+    try {
+      return parser.select(json, offset, length, paths);
+    } finally {
+      pool.release(parser);
+    }
+  }
+
+  /**
+   * @see JsonParser#parse(String, Class)
+   */
+  public <T> T parse(String json, Class<T> type) throws JsonParserException {
+    final JsonParser parser = pool.acquire();
+    try {
+      return parser.parse(json, type);
+    } finally {
+      pool.release(parser);
+    }
+  }
+
+  public <T> T parse(byte[] json, int offset, int length, Class<T> type) throws JsonParserException {
+    final JsonParser parser = pool.acquire();
+    try {
+      return parser.parse(json, offset, length, type);
+    } finally {
+      pool.release(parser);
+    }
+  }
+
+  /**
+   * Parses the JSON into events of the handler (which is called by the calling thread).
+   */
+  public void parse(String json, JsonHandler handler) throws JsonParserException {
+    final JsonParser parser = pool.acquire();
+    try {
+      parser.parse(json, handler);
+    } finally {
+      pool.release(parser);
+    }
+  }
+
+  public void parse(byte[] json, int offset, int length, JsonHandler handler) throws JsonParserException {
+    final JsonParser parser = pool.acquire();
+    try {
+      parser.parse(json, offset, length, handler);
+    } finally {
+      pool.release(parser);
+    }
+  }
+}
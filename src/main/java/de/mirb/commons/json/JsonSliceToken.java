@@ -0,0 +1,61 @@
+package de.mirb.pg.pojo;
+
+/**
+ * Token which only references its position within the tokenized source.
+ * The literal is created on each call of {@link #getLiteral()}, so tokens which are only
+ * inspected by type never copy any characters.
+ */
+public final class JsonSliceToken implements JsonToken {
+  private final Token token;
+  private final char[] source;
+  private final int offset;
+  private final int length;
+  private final boolean escaped;
+
+  JsonSliceToken(final Token token, final char[] source, final int offset, final int length,
+                 final boolean escaped) {
+    this.token = token;
+    this.source = source;
+    this.offset = offset;
+    this.length = length;
+    this.escaped = escaped;
+  }
+
+  @Override
+  public Token getToken() {
+    return token;
+  }
+
+  /**
+   * @return start offset of the token within the source
+   */
+  public int getOffset() {
+    return offset;
+  }
+
+  /**
+   * @return length of the token within the source
+   */
+  public int getLength() {
+    return length;
+  }
+
+  @Override
+  public String getLiteral() {
+    switch (token) {
+      case STRING:
+      case NUMBER:
+      case TRUE:
+      case FALSE:
+      case NULL:
+        return JsonTableTokenizer.literal(source, offset, offset + length, escaped);
+      default:
+        return token.toString();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return token + "=>{" + getLiteral() + "}";
+  }
+}
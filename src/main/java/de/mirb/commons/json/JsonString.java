@@ -1,15 +1,256 @@
 package de.mirb.pg.pojo;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * Created by mibo
+ * <p>
+ * A JSON string is a {@link CharSequence}; two strings are equal (and have the same hash code as
+ * their {@link #value()}) if their values are equal.
+ * <p>
+ * Strings of the lazy parse mode are views into the source of the document: they compare and
+ * hash themselves on the source units as long as the string contains no escape sequence (and, for
+ * UTF-8 input, only ASCII characters), write themselves ({@link #writeTo(OutputStream)}) as a
+ * copy of the source as long as it contains neither an escape sequence nor a control character,
+ * and decode their value only when it is requested.
  */
-public class JsonString extends JsonValue {
+public class JsonString extends JsonValue implements CharSequence {
   public JsonString(String value) {
     super(value);
   }
 
+  /**
+   * Creates a string which is backed by the content (without quotation marks) between the given
+   * positions of the source.
+   */
+  static JsonString view(JsonCursor source, int start, int end, boolean escaped) {
+    return new View(source, start, end, escaped);
+  }
+
   @Override
   public String value() {
     return (String) value;
   }
+
+  @Override
+  public String valueAsString() {
+    return value();
+  }
+
+  @Override
+  public int length() {
+    return value().length();
+  }
+
+  @Override
+  public char charAt(int index) {
+    return value().charAt(index);
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    return value().subSequence(start, end);
+  }
+
+  public boolean contentEquals(CharSequence sequence) {
+    return value().contentEquals(sequence);
+  }
+
+  /**
+   * Writes the string UTF-8 encoded as JSON string (with quotation marks and escape sequences).
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    JsonWriter.quoted(value(), out);
+  }
+
+  /**
+   * @return <code>true</code> if {@link #writeTo(OutputStream)} copies the UTF-8 source of the
+   * string, which is the same as writing the value via {@link JsonWriter#writeString(CharSequence)}
+   */
+  boolean isView() {
+    return false;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return this == o || o instanceof JsonString && value().equals(((JsonString) o).value());
+  }
+
+  @Override
+  public int hashCode() {
+    return value().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return value();
+  }
+
+  private static final class View extends JsonString {
+    private static final int UNKNOWN = 0;
+    private static final int PLAIN = 1;
+    private static final int DECODE = 2;
+
+    private final JsonCursor source;
+    private final int start;
+    private final int end;
+    private final boolean escaped;
+    /** {@link #PLAIN} if every unit of the source is one character of the value */
+    private int kind = UNKNOWN;
+    /** {@link #PLAIN} if the source has neither escape sequences nor control characters */
+    private int verbatim = UNKNOWN;
+    private String decoded;
+    private int hash;
+
+    View(JsonCursor source, int start, int end, boolean escaped) {
+      super(null);
+      this.source = source;
+      this.start = start;
+      this.end = end;
+      this.escaped = escaped;
+    }
+
+    private boolean isPlain() {
+      if (kind == UNKNOWN) {
+        kind = PLAIN;
+        if (escaped) {
+          kind = DECODE;
+        } else if (source.isUtf8()) {
+          for (int i = start; i < end; i++) {
+            if (source.unit(i) >= 0x80) {
+              kind = DECODE;
+              break;
+            }
+          }
+        }
+      }
+      return kind == PLAIN;
+    }
+
+    private boolean isVerbatim() {
+      if (verbatim == UNKNOWN) {
+        verbatim = PLAIN;
+        if (escaped) {
+          verbatim = DECODE;
+        } else {
+          for (int i = start; i < end; i++) {
+            if (source.unit(i) < ' ') {
+              verbatim = DECODE;
+              break;
+            }
+          }
+        }
+      }
+      return verbatim == PLAIN;
+    }
+
+    @Override
+    public String value() {
+      String d = decoded;
+      if (d == null) {
+        d = source.literal(start, end, escaped);
+        decoded = d;
+      }
+      return d;
+    }
+
+    @Override
+    public int length() {
+      return isPlain() ? end - start : value().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (!isPlain()) {
+        return value().charAt(index);
+      }
+      if (index < 0 || index >= end - start) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", length: " + (end - start));
+      }
+      return (char) source.unit(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+      if (!isPlain()) {
+        return value().subSequence(from, to);
+      }
+      if (from < 0 || to > end - start || from > to) {
+        throw new IndexOutOfBoundsException("Range: " + from + " - " + to + ", length: " + (end - start));
+      }
+      return new View(source, start + from, start + to, false);
+    }
+
+    @Override
+    public boolean contentEquals(CharSequence sequence) {
+      if (!isPlain()) {
+        return value().contentEquals(sequence);
+      }
+      if (sequence.length() != end - start) {
+        return false;
+      }
+      for (int i = start; i < end; i++) {
+        if (source.unit(i) != sequence.charAt(i - start)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    boolean isView() {
+      return source.isUtf8() && isVerbatim();
+    }
+
+    /**
+     * Writes the string as it is in the source if this is the same as writing the escaped value.
+     */
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+      if (isVerbatim()) {
+        out.write('"');
+        source.write(out, start, end);
+        out.write('"');
+      } else {
+        JsonWriter.quoted(value(), out);
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o instanceof View) {
+        final View other = (View) o;
+        if (!escaped && !other.escaped && source.isUtf8() == other.source.isUtf8()) {
+          // same encoding without escape sequences: equal units are equal values
+          if (end - start != other.end - other.start) {
+            return false;
+          }
+          for (int i = 0; i < end - start; i++) {
+            if (source.unit(start + i) != other.source.unit(other.start + i)) {
+              return false;
+            }
+          }
+          return true;
+        }
+      }
+      return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+      int h = hash;
+      if (h == 0) {
+        if (isPlain()) {
+          for (int i = start; i < end; i++) {
+            h = 31 * h + source.unit(i);
+          }
+        } else {
+          h = value().hashCode();
+        }
+        hash = h;
+      }
+      return h;
+    }
+  }
 }
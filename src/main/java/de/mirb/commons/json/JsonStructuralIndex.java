@@ -0,0 +1,182 @@
+package de.mirb.pg.pojo;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Stage 1 of the indexed parse mode of {@link JsonParser}: a compact index of the positions of all
+ * structural characters (<code>{ } [ ] : ,</code>), of both quotation marks of every string and
+ * of the first character of every other value (numbers and literals) of a UTF-8 document.
+ * <p>
+ * The input is processed eight bytes at a time: the bytes of a little endian <code>long</code>
+ * are classified in parallel into one bit per byte masks, strings are found via a prefix xor of
+ * the (unescaped) quotation marks, and the index entries are extracted from the resulting mask
+ * bit by bit. Words within a string which contain neither a quotation mark nor a reverse solidus
+ * are skipped after two comparisons; only words which contain a reverse solidus are looked at
+ * byte by byte (to find the escaped quotation marks).
+ * <p>
+ * The index does not validate the document besides unterminated strings; the content of strings
+ * and values is validated by stage 2 ({@link JsonCursor.IndexedCursor}).
+ * An instance can be reused for several documents.
+ */
+final class JsonStructuralIndex {
+  private static final long ONES = 0x0101010101010101L;
+  private static final long LOWS = 0x7F7F7F7F7F7F7F7FL;
+  private static final long QUOTES = ONES * '"';
+  private static final long ESCAPES = ONES * '\\';
+  /** <code>{</code> and <code>[</code> (with the 0x20 bit set) */
+  private static final long OPENS = ONES * '{';
+  /** <code>}</code> and <code>]</code> (with the 0x20 bit set) */
+  private static final long CLOSES = ONES * '}';
+  private static final long COLONS = ONES * ':';
+  private static final long COMMAS = ONES * ',';
+  private static final long SPACES = ONES * ' ';
+  private static final long TABS = ONES * '\t';
+  private static final long NEW_LINES = ONES * '\n';
+  private static final long RETURNS = ONES * '\r';
+  /** entries which are kept between two documents */
+  private static final int MAX_RETAINED = 1 << 20;
+
+  private int[] positions = new int[256];
+  private int size;
+  private int start;
+  private int limit;
+
+  /**
+   * Builds the index of the (UTF-8) bytes between <code>offset</code> and <code>offset + length</code>
+   * (leading and trailing whitespace is ignored like in {@link JsonCursor}).
+   *
+   * @param words little endian view of the input (indexes of the view are the positions of the index)
+   * @throws JsonTokenizerException if a string is not terminated
+   */
+  JsonStructuralIndex build(final ByteBuffer words, final int offset, final int length)
+      throws JsonTokenizerException {
+    int start = offset;
+    int limit = offset + length;
+    while (start < limit && (words.get(start) & 0xFF) <= ' ') {
+      start++;
+    }
+    while (start < limit && (words.get(limit - 1) & 0xFF) <= ' ') {
+      limit--;
+    }
+    if (positions.length > MAX_RETAINED) {
+      positions = new int[256];
+    }
+    this.start = start;
+    this.limit = limit;
+    this.size = 0;
+
+    boolean inString = false;
+    boolean escapeNext = false;
+    long previousScalar = 0;
+    for (int pos = start; pos < limit; pos += 8) {
+      final int available = Math.min(8, limit - pos);
+      final long word = available == 8 ? words.getLong(pos) : partial(words, pos, available);
+
+      final long quoteHighs = equal(word, QUOTES);
+      final long escapeHighs = equal(word, ESCAPES);
+      if (inString && !escapeNext && (quoteHighs | escapeHighs) == 0) {
+        // plain string content (validated by stage 2), no entries and no state change
+        continue;
+      }
+      long quotes = mask(quoteHighs);
+      final long escapes = mask(escapeHighs);
+      if (escapes != 0 || escapeNext) {
+        long escaped = 0;
+        for (int i = 0; i < 8; i++) {
+          if (escapeNext) {
+            escaped |= 1L << i;
+            escapeNext = false;
+          } else if ((escapes & (1L << i)) != 0) {
+            escapeNext = true;
+          }
+        }
+        quotes &= ~escaped;
+      }
+
+      long inside = quotes;
+      inside ^= inside << 1;
+      inside ^= inside << 2;
+      inside ^= inside << 4;
+      if (inString) {
+        inside = ~inside;
+      }
+      inside &= 0xFF;
+      inString = (inside & 0x80) != 0;
+
+      final long lower = word | SPACES;
+      final long structural = mask(equal(lower, OPENS) | equal(lower, CLOSES)
+          | equal(word, COLONS) | equal(word, COMMAS));
+      final long whitespace = mask(equal(word, SPACES) | equal(word, TABS)
+          | equal(word, NEW_LINES) | equal(word, RETURNS));
+      final long scalar = ~(inside | structural | whitespace | quotes) & 0xFF;
+      final long scalarStarts = scalar & ~((scalar << 1) | previousScalar);
+      previousScalar = scalar >>> 7;
+
+      long entries = ((structural & ~inside) | quotes | scalarStarts) & ((1L << available) - 1);
+      while (entries != 0) {
+        add(pos + Long.numberOfTrailingZeros(entries));
+        entries &= entries - 1;
+      }
+    }
+    if (inString) {
+      throw new JsonTokenizerException("Token STRING is in invalid state.",
+          JsonTokenizerException.MessageKeys.INVALID_TOKEN_STATE);
+    }
+    return this;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int position(final int index) {
+    return positions[index];
+  }
+
+  /**
+   * @return position after the last (not ignored) byte of the input
+   */
+  int limit() {
+    return limit;
+  }
+
+  int start() {
+    return start;
+  }
+
+  private void add(final int position) {
+    if (size == positions.length) {
+      positions = Arrays.copyOf(positions, size * 2);
+    }
+    positions[size++] = position;
+  }
+
+  /**
+   * Reads the last (incomplete) word, missing bytes are spaces.
+   */
+  private static long partial(final ByteBuffer words, final int pos, final int available) {
+    long word = SPACES;
+    for (int i = 0; i < available; i++) {
+      word &= ~(0xFFL << (i * 8));
+      word |= (words.get(pos + i) & 0xFFL) << (i * 8);
+    }
+    return word;
+  }
+
+  /**
+   * @return high bit of each byte set if the byte equals the byte of the pattern (exact, no carries
+   * between the bytes)
+   */
+  private static long equal(final long word, final long pattern) {
+    final long diff = word ^ pattern;
+    return ~(((diff & LOWS) + LOWS) | diff | LOWS);
+  }
+
+  /**
+   * Moves the high bits of the bytes into the lowest eight bits (bit i for byte i).
+   */
+  private static long mask(final long highs) {
+    return ((highs >>> 7) * 0x0102040810204080L) >>> 56;
+  }
+}
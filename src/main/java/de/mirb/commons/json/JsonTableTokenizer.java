@@ -0,0 +1,619 @@
+package de.mirb.pg.pojo;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Table driven tokenizer engine which accepts the same grammar as the state objects of
+ * {@link JsonTokenizer} but keeps its whole state in primitive fields.
+ * <p>
+ * Characters are pushed one at a time via {@link #feed(int, int)}; each call reports how many
+ * tokens have been completed by the given character (at most two, e.g. a number followed by a
+ * closing bracket). Completed tokens are described by type, start and end offset and can be
+ * read via {@link #type(int)}, {@link #start(int)}, {@link #end(int)} and {@link #escaped(int)}
+ * until the next call of <code>feed</code>. Nothing is allocated while feeding characters.
+ */
+final class JsonTableTokenizer {
+
+  static final JsonToken.Token[] TOKENS = JsonToken.Token.values();
+
+  // tokenizer states
+  static final int START = 0;
+  static final int OPEN_CB = 1;
+  static final int CLOSE_CB = 2;
+  static final int STRING = 3;
+  static final int STRING_ESCAPE = 4;
+  static final int STRING_END = 5;
+  static final int SOME_CLOSE = 6;
+  static final int OPEN_BR = 7;
+  static final int CLOSE_BR = 8;
+  static final int VALUE = 9;
+  static final int NUMBER = 10;
+  static final int NUMBER_FRAC = 11;
+  static final int NUMBER_EXP = 12;
+  static final int NUMBER_EXP_SIGN = 13;
+  static final int NUMBER_EXP_DIGITS = 14;
+  static final int WORD = 15;
+  static final int NUMBER_SIGN = 16;
+  static final int NUMBER_FRAC_START = 17;
+
+  private static final String[] STATE_NAMES = {
+      "START", "OPEN_CB", "CLOSE_CB", "STRING", "STRING", "STRING", "SOME_CLOSE", "OPEN_BR", "CLOSE_BR",
+      "VALUE", "NUMBER", "NUMBER", "NUMBER", "NUMBER", "NUMBER", "WORD", "NUMBER", "NUMBER"
+  };
+
+  // character classes (for ASCII characters, all others are C_OTHER)
+  static final byte C_OTHER = 0;
+  static final byte C_WS = 1;
+  static final byte C_QUOTE = 2;
+  static final byte C_ESCAPE = 3;
+  static final byte C_OPEN_CB = 4;
+  static final byte C_CLOSE_CB = 5;
+  static final byte C_OPEN_BR = 6;
+  static final byte C_CLOSE_BR = 7;
+  static final byte C_COLON = 8;
+  static final byte C_COMMA = 9;
+  static final byte C_DIGIT = 10;
+  static final byte C_MINUS = 11;
+  static final byte C_PLUS = 12;
+  static final byte C_DOT = 13;
+  static final byte C_EXP = 14;
+  static final byte C_LETTER = 15;
+
+  static final byte[] CLASSES = new byte[128];
+
+  static {
+    for (char c = 'a'; c <= 'z'; c++) {
+      CLASSES[c] = C_LETTER;
+      CLASSES[Character.toUpperCase(c)] = C_LETTER;
+    }
+    for (char c = '0'; c <= '9'; c++) {
+      CLASSES[c] = C_DIGIT;
+    }
+    CLASSES[' '] = C_WS;
+    CLASSES['\t'] = C_WS;
+    CLASSES['\n'] = C_WS;
+    CLASSES['\r'] = C_WS;
+    CLASSES['"'] = C_QUOTE;
+    CLASSES['\\'] = C_ESCAPE;
+    CLASSES['{'] = C_OPEN_CB;
+    CLASSES['}'] = C_CLOSE_CB;
+    CLASSES['['] = C_OPEN_BR;
+    CLASSES[']'] = C_CLOSE_BR;
+    CLASSES[':'] = C_COLON;
+    CLASSES[','] = C_COMMA;
+    CLASSES['-'] = C_MINUS;
+    CLASSES['+'] = C_PLUS;
+    CLASSES['.'] = C_DOT;
+    CLASSES['e'] = C_EXP;
+    CLASSES['E'] = C_EXP;
+  }
+
+  private static final char[] WORD_TRUE = "true".toCharArray();
+  private static final char[] WORD_FALSE = "false".toCharArray();
+  private static final char[] WORD_NULL = "null".toCharArray();
+
+  private int state = START;
+  private int start;
+  private boolean escaped;
+  private char[] word;
+  private int wordIndex;
+  private int wordToken;
+
+  private int count;
+  private final int[] types = new int[2];
+  private final int[] starts = new int[2];
+  private final int[] ends = new int[2];
+  private final boolean[] escapes = new boolean[2];
+
+  void reset() {
+    state = START;
+    escaped = false;
+    word = null;
+    count = 0;
+  }
+
+  int state() {
+    return state;
+  }
+
+  /**
+   * @return <code>true</code> if a whitespace character has no effect in the current state
+   * (so whitespace can be skipped without feeding it)
+   */
+  boolean ignoresWhitespace() {
+    switch (state) {
+      case START:
+      case OPEN_CB:
+      case STRING_END:
+      case SOME_CLOSE:
+      case OPEN_BR:
+      case VALUE:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @return start position of the token which is currently open (a string, number or literal
+   * which is not completed yet) or <code>-1</code> if no token is open
+   */
+  int openStart() {
+    switch (state) {
+      case STRING:
+      case STRING_ESCAPE:
+      case NUMBER:
+      case NUMBER_SIGN:
+      case NUMBER_FRAC_START:
+      case NUMBER_FRAC:
+      case NUMBER_EXP:
+      case NUMBER_EXP_SIGN:
+      case NUMBER_EXP_DIGITS:
+      case WORD:
+        return start;
+      default:
+        return -1;
+    }
+  }
+
+  /**
+   * Moves the start position of the open token (for cursors which move their input, e.g. to the
+   * next window of a memory mapped file).
+   */
+  void shift(final int delta) {
+    start += delta;
+  }
+
+  static boolean isWhitespace(final int c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+  }
+
+  int type(final int index) {
+    return types[index];
+  }
+
+  int start(final int index) {
+    return starts[index];
+  }
+
+  int end(final int index) {
+    return ends[index];
+  }
+
+  boolean escaped(final int index) {
+    return escapes[index];
+  }
+
+  /**
+   * Processes the character <code>c</code> found at position <code>pos</code>.
+   *
+   * @param c character (or code point) to process
+   * @param pos position of the character within the input
+   * @return number of tokens which were completed by this character
+   * @throws JsonTokenizerException if the character is not allowed in the current state
+   */
+  int feed(final int c, final int pos) throws JsonTokenizerException {
+    count = 0;
+    final int cls = c < 128 ? CLASSES[c] : C_OTHER;
+    switch (state) {
+      case START:
+        if (cls == C_OPEN_CB) {
+          emit(JsonToken.Token.OPEN_CB, pos, pos + 1, false);
+          state = OPEN_CB;
+        } else if (cls == C_QUOTE) {
+          beginString(pos);
+        } else if (cls == C_OPEN_BR) {
+          emit(JsonToken.Token.OPEN_BR, pos, pos + 1, false);
+          state = OPEN_BR;
+        } else if (cls != C_WS) {
+          forbidden(c);
+        }
+        break;
+      case OPEN_CB:
+        if (cls == C_CLOSE_CB) {
+          emit(JsonToken.Token.CLOSE_CB, pos, pos + 1, false);
+          state = CLOSE_CB;
+        } else if (cls == C_QUOTE) {
+          beginString(pos);
+        } else if (cls != C_WS) {
+          forbidden(c);
+        }
+        break;
+      case STRING:
+        switch (cls) {
+          case C_QUOTE:
+            if (pos == start + 1) {
+              invalid();
+            }
+            emit(JsonToken.Token.STRING, start, pos + 1, escaped);
+            state = STRING_END;
+            break;
+          case C_ESCAPE:
+            escaped = true;
+            state = STRING_ESCAPE;
+            break;
+          default:
+            // all other characters except control characters (besides tab)
+            if (c < ' ' && c != '\t') {
+              forbidden(c);
+            }
+        }
+        break;
+      case STRING_ESCAPE:
+        if (isAllowedEscapedChar(c)) {
+          state = STRING;
+        } else {
+          forbidden(c);
+        }
+        break;
+      case STRING_END:
+        if (cls == C_COLON) {
+          emit(JsonToken.Token.COLON, pos, pos + 1, false);
+          state = VALUE;
+        } else if (cls != C_WS) {
+          someClose(c, cls, pos);
+        }
+        break;
+      case CLOSE_CB:
+      case CLOSE_BR:
+      case SOME_CLOSE:
+        someClose(c, cls, pos);
+        break;
+      case OPEN_BR:
+        if (cls == C_CLOSE_BR) {
+          emit(JsonToken.Token.CLOSE_BR, pos, pos + 1, false);
+          state = CLOSE_BR;
+        } else if (cls != C_WS) {
+          value(c, cls, pos);
+        }
+        break;
+      case VALUE:
+        if (cls != C_WS) {
+          value(c, cls, pos);
+        }
+        break;
+      case NUMBER_SIGN:
+        if (cls == C_DIGIT) {
+          state = NUMBER;
+        } else {
+          forbidden(c);
+        }
+        break;
+      case NUMBER:
+        if (cls == C_DOT) {
+          state = NUMBER_FRAC_START;
+        } else if (cls == C_EXP) {
+          state = NUMBER_EXP;
+        } else if (cls != C_DIGIT) {
+          endLiteral(JsonToken.Token.NUMBER, c, cls, pos);
+        }
+        break;
+      case NUMBER_FRAC_START:
+        if (cls == C_DIGIT) {
+          state = NUMBER_FRAC;
+        } else {
+          forbidden(c);
+        }
+        break;
+      case NUMBER_FRAC:
+        if (cls == C_EXP) {
+          state = NUMBER_EXP;
+        } else if (cls != C_DIGIT) {
+          endLiteral(JsonToken.Token.NUMBER, c, cls, pos);
+        }
+        break;
+      case NUMBER_EXP:
+        if (cls == C_PLUS || cls == C_MINUS) {
+          state = NUMBER_EXP_SIGN;
+        } else if (cls == C_DIGIT) {
+          state = NUMBER_EXP_DIGITS;
+        } else {
+          forbidden(c);
+        }
+        break;
+      case NUMBER_EXP_SIGN:
+        if (cls == C_DIGIT) {
+          state = NUMBER_EXP_DIGITS;
+        } else {
+          forbidden(c);
+        }
+        break;
+      case NUMBER_EXP_DIGITS:
+        if (cls != C_DIGIT) {
+          endLiteral(JsonToken.Token.NUMBER, c, cls, pos);
+        }
+        break;
+      case WORD:
+        if (wordIndex < word.length) {
+          if ((c | 0x20) != word[wordIndex]) {
+            forbidden(c);
+          }
+          wordIndex++;
+        } else {
+          endLiteral(TOKENS[wordToken], c, cls, pos);
+        }
+        break;
+      default:
+        invalid();
+    }
+    return count;
+  }
+
+  /**
+   * Signals the end of the input at position <code>pos</code>.
+   *
+   * @param pos end position (exclusive) of the input
+   * @return number of tokens which were completed by the end of input
+   * @throws JsonTokenizerException if the input ends within an unfinished token
+   */
+  int finish(final int pos) throws JsonTokenizerException {
+    count = 0;
+    switch (state) {
+      case CLOSE_CB:
+      case CLOSE_BR:
+      case STRING_END:
+        break;
+      case NUMBER:
+      case NUMBER_FRAC:
+      case NUMBER_EXP_DIGITS:
+        emit(JsonToken.Token.NUMBER, start, pos, false);
+        state = SOME_CLOSE;
+        break;
+      case STRING:
+      case STRING_ESCAPE:
+        invalid();
+        break;
+      default:
+        throw new JsonTokenizerException("Last parsed state '" + STATE_NAMES[state] + "' is not finished.",
+            JsonTokenizerException.MessageKeys.NOT_FINISHED_QUERY, STATE_NAMES[state]);
+    }
+    return count;
+  }
+
+  private void value(final int c, final int cls, final int pos) throws JsonTokenizerException {
+    switch (cls) {
+      case C_QUOTE:
+        beginString(pos);
+        break;
+      case C_OPEN_CB:
+        emit(JsonToken.Token.OPEN_CB, pos, pos + 1, false);
+        state = OPEN_CB;
+        break;
+      case C_OPEN_BR:
+        emit(JsonToken.Token.OPEN_BR, pos, pos + 1, false);
+        state = OPEN_BR;
+        break;
+      case C_MINUS:
+        start = pos;
+        state = NUMBER_SIGN;
+        break;
+      case C_DIGIT:
+        start = pos;
+        state = NUMBER;
+        break;
+      default:
+        final int lower = c | 0x20;
+        if (lower == 't') {
+          beginWord(WORD_TRUE, JsonToken.Token.TRUE, pos);
+        } else if (lower == 'f') {
+          beginWord(WORD_FALSE, JsonToken.Token.FALSE, pos);
+        } else if (lower == 'n') {
+          beginWord(WORD_NULL, JsonToken.Token.NULL, pos);
+        } else {
+          forbidden(c);
+        }
+    }
+  }
+
+  private void someClose(final int c, final int cls, final int pos) throws JsonTokenizerException {
+    switch (cls) {
+      case C_COMMA:
+        emit(JsonToken.Token.COMMA, pos, pos + 1, false);
+        state = VALUE;
+        break;
+      case C_WS:
+        state = SOME_CLOSE;
+        break;
+      case C_CLOSE_BR:
+        emit(JsonToken.Token.CLOSE_BR, pos, pos + 1, false);
+        state = CLOSE_BR;
+        break;
+      case C_CLOSE_CB:
+        emit(JsonToken.Token.CLOSE_CB, pos, pos + 1, false);
+        state = CLOSE_CB;
+        break;
+      default:
+        forbidden(c);
+    }
+  }
+
+  private void endLiteral(final JsonToken.Token token, final int c, final int cls, final int pos)
+      throws JsonTokenizerException {
+    if (cls == C_COMMA || cls == C_WS || cls == C_CLOSE_BR || cls == C_CLOSE_CB) {
+      emit(token, start, pos, false);
+      someClose(c, cls, pos);
+    } else {
+      forbidden(c);
+    }
+  }
+
+  private void beginString(final int pos) {
+    start = pos;
+    escaped = false;
+    state = STRING;
+  }
+
+  private void beginWord(final char[] word, final JsonToken.Token token, final int pos) {
+    this.word = word;
+    wordIndex = 1;
+    wordToken = token.ordinal();
+    start = pos;
+    state = WORD;
+  }
+
+  private void emit(final JsonToken.Token token, final int start, final int end, final boolean escaped) {
+    types[count] = token.ordinal();
+    starts[count] = start;
+    ends[count] = end;
+    escapes[count] = escaped;
+    count++;
+  }
+
+  static boolean isAllowedEscapedChar(final int c) {
+    return c == '"' || c == '\\' || c == '/' || c == 'b' || c == 'f' || c == 'n' || c == 'r' || c == 't';
+  }
+
+  /**
+   * @param c character after a reverse solidus
+   * @return the character which is represented by the escape sequence (except for <code>u</code>)
+   */
+  static char unescape(final int c) {
+    switch (c) {
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 't':
+        return '\t';
+      default:
+        return (char) c;
+    }
+  }
+
+  private void forbidden(final int c) throws JsonTokenizerException {
+    throw new JsonTokenizerException("Forbidden character in state " + STATE_NAMES[state] + "->" + (char) c,
+        JsonTokenizerException.MessageKeys.FORBIDDEN_CHARACTER, String.valueOf((char) c));
+  }
+
+  private void invalid() throws JsonTokenizerException {
+    throw new JsonTokenizerException("Token " + STATE_NAMES[state] + " is in invalid state.",
+        JsonTokenizerException.MessageKeys.INVALID_TOKEN_STATE);
+  }
+
+  /**
+   * Creates the literal of a token the same way the state engine of {@link JsonTokenizer} does
+   * (escape sequences are decoded, <code>&#92;uXXXX</code> included).
+   */
+  static String literal(final char[] chars, final int start, final int end, final boolean escaped) {
+    if (!escaped) {
+      return new String(chars, start, end - start);
+    }
+    final StringBuilder sb = new StringBuilder(end - start);
+    for (int i = start; i < end; i++) {
+      final char c = chars[i];
+      if (c != '\\') {
+        sb.append(c);
+      } else if (chars[i + 1] == 'u') {
+        sb.append((char) (hex(chars[i + 2]) << 12 | hex(chars[i + 3]) << 8 | hex(chars[i + 4]) << 4 | hex(chars[i + 5])));
+        i += 5;
+      } else {
+        i++;
+        sb.append(unescape(chars[i]));
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * UTF-8 variant of {@link #literal(char[], int, int, boolean)}.
+   */
+  static String literal(final byte[] bytes, final int start, final int end, final boolean escaped) {
+    if (!escaped) {
+      return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+    // every escape sequence is at least as long as the UTF-8 encoding of its character
+    final byte[] unescaped = new byte[end - start];
+    int length = 0;
+    for (int i = start; i < end; i++) {
+      final byte b = bytes[i];
+      if (b != '\\') {
+        unescaped[length++] = b;
+      } else if (bytes[i + 1] == 'u') {
+        int c = hex(bytes, i + 2);
+        i += 5;
+        if (Character.isHighSurrogate((char) c) && i + 6 < end && bytes[i + 1] == '\\' && bytes[i + 2] == 'u'
+            && Character.isLowSurrogate((char) hex(bytes, i + 3))) {
+          c = Character.toCodePoint((char) c, (char) hex(bytes, i + 3));
+          i += 6;
+        }
+        length = utf8(c, unescaped, length);
+      } else {
+        i++;
+        unescaped[length++] = (byte) unescape(bytes[i]);
+      }
+    }
+    return new String(unescaped, 0, length, StandardCharsets.UTF_8);
+  }
+
+  private static int hex(final byte[] bytes, final int pos) {
+    return hex(bytes[pos]) << 12 | hex(bytes[pos + 1]) << 8 | hex(bytes[pos + 2]) << 4 | hex(bytes[pos + 3]);
+  }
+
+  private static int hex(final int c) {
+    return Character.digit(c, 16);
+  }
+
+  /**
+   * Encodes the code point (an unpaired surrogate like a character of three bytes, which the
+   * decoder replaces).
+   *
+   * @return position after the encoded bytes
+   */
+  private static int utf8(final int c, final byte[] bytes, int pos) {
+    if (c < 0x80) {
+      bytes[pos++] = (byte) c;
+    } else if (c < 0x800) {
+      bytes[pos++] = (byte) (0xC0 | c >> 6);
+      bytes[pos++] = (byte) (0x80 | c & 0x3F);
+    } else if (c < 0x10000) {
+      bytes[pos++] = (byte) (0xE0 | c >> 12);
+      bytes[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+      bytes[pos++] = (byte) (0x80 | c & 0x3F);
+    } else {
+      bytes[pos++] = (byte) (0xF0 | c >> 18);
+      bytes[pos++] = (byte) (0x80 | c >> 12 & 0x3F);
+      bytes[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+      bytes[pos++] = (byte) (0x80 | c & 0x3F);
+    }
+    return pos;
+  }
+
+  /**
+   * UTF-8 variant of {@link #literal(char[], int, int, boolean)} for (direct) byte buffers;
+   * <code>start</code> and <code>end</code> are absolute buffer indexes.
+   */
+  static String literal(final ByteBuffer buffer, final int start, final int end, final boolean escaped) {
+    final byte[] bytes = new byte[end - start];
+    for (int i = start; i < end; i++) {
+      bytes[i - start] = buffer.get(i);
+    }
+    return literal(bytes, 0, bytes.length, escaped);
+  }
+
+  /**
+   * Number of continuation bytes for the given UTF-8 lead byte.
+   *
+   * @param lead (unsigned) lead byte
+   * @return number of continuation bytes or <code>-1</code> if <code>lead</code> is no valid lead byte
+   */
+  static int utf8Continuations(final int lead) {
+    if ((lead & 0xE0) == 0xC0) {
+      return 1;
+    } else if ((lead & 0xF0) == 0xE0) {
+      return 2;
+    } else if ((lead & 0xF8) == 0xF0) {
+      return 3;
+    }
+    return -1;
+  }
+
+  static void invalidUtf8(final int pos) throws JsonTokenizerException {
+    throw new JsonTokenizerException("Invalid UTF-8 sequence at position " + pos,
+        JsonTokenizerException.MessageKeys.FORBIDDEN_CHARACTER, String.valueOf(pos));
+  }
+}
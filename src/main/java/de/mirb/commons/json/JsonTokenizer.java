@@ -34,10 +34,37 @@ import java.util.List;
  * string    = [ 'NOT' RWS ] ( searchPhrase / searchWord )
  * number  = quotation-mark 1*qchar-no-AMP-DQUOTE quotation-mark
  * </pre>
- *
+ * A tokenizer keeps the state of its input, so an instance must not be used by several threads at
+ * the same time.
  */
 public class JsonTokenizer {
 
+  /**
+   * Available tokenizer engines.
+   * <ul>
+   *   <li>{@link #STATE_MACHINE}: one state object per token (default)</li>
+   *   <li>{@link #TABLE}: primitive state table which only allocates for completed tokens</li>
+   * </ul>
+   */
+  public enum Engine {
+    STATE_MACHINE, TABLE
+  }
+
+  private final Engine engine;
+  /** cursor of the {@link Engine#TABLE} engine, reset for each input (so the tokenizer is not thread safe) */
+  private JsonCursor.CharArrayCursor cursor;
+
+  public JsonTokenizer() {
+    this(Engine.STATE_MACHINE);
+  }
+
+  public JsonTokenizer(final Engine engine) {
+    this.engine = engine;
+  }
+
+  public Engine getEngine() {
+    return engine;
+  }
 
   private static abstract class State implements JsonToken {
     private Token token = null;
@@ -135,8 +162,12 @@ public class JsonTokenizer {
       return this;
     }
 
+    /**
+     * Unescaped characters within a string: all except quotation mark, reverse solidus and
+     * control characters (besides tab).
+     */
     static boolean isAllowedString(final char character) {
-      return isDigit(character) || Character.isUnicodeIdentifierStart(character);
+      return character >= ' ' ? character != QUOTATION_MARK && character != ESCAPE_CHAR : character == '\t';
     }
 
     static boolean isSome(final char expected, char ... chars) {
@@ -152,6 +183,7 @@ public class JsonTokenizer {
     static boolean isAllowedEscapedChar(char character) {
       return character == QUOTATION_MARK
           || character == ESCAPE_CHAR
+          || character == '/'
           || character == 'b'
           || character == 'f'
           || character == 'n'
@@ -169,7 +201,7 @@ public class JsonTokenizer {
     // BWS = *( SP / HTAB / "%20" / "%09" ) ; "bad" whitespace
     // RWS = 1*( SP / HTAB / "%20" / "%09" ) ; "required" whitespace
     static boolean isWhitespace(final char character) {
-      return character == ' ' || character == '\t';
+      return character == ' ' || character == '\t' || character == '\n' || character == '\r';
     }
 
     static boolean isSomeClose(final char character) {
@@ -191,20 +223,23 @@ public class JsonTokenizer {
   }
 
   private static abstract class LiteralState extends State {
-    final StringBuilder literal = new StringBuilder();
+    final StringBuilder literal;
 
     private LiteralState() {
       super();
+      literal = new StringBuilder();
     }
 
     LiteralState(final Token t, final char c) throws JsonTokenizerException {
       super(t);
+      literal = new StringBuilder();
       init(c);
     }
 
-    public LiteralState(final Token t, final String initLiteral) {
+    /** Continues with the (not copied) literal of the previous state. */
+    public LiteralState(final Token t, final StringBuilder consume) {
       super(t);
-      literal.append(initLiteral);
+      literal = consume;
     }
 
     @Override
@@ -275,15 +310,13 @@ public class JsonTokenizer {
       } else if (escaped) {
         escaped = false;
         if (isAllowedEscapedChar(c)) {
-          return allowed(c);
+          return allowed(JsonTableTokenizer.unescape(c));
         } else {
           return forbidden(c);
         }
       } else if (c == ESCAPE_CHAR) {
         escaped = true;
         return this;
-      } else if (isWhitespace(c)) {
-        return allowed(c);
       } else if (c == QUOTATION_MARK) {
         if (literal.length() == 1) {
           return invalid();
@@ -397,6 +430,9 @@ public class JsonTokenizer {
       if(c == CHAR_CLOSE_CB) {
         finish();
         return new CloseCbState();
+      } else if(c == CHAR_CLOSE_BR) {
+        finish();
+        return new CloseBrState();
       } else if(c == COMMA) {
         finish();
         return new CommaState();
@@ -450,10 +486,12 @@ public class JsonTokenizer {
     public State nextChar(final char c) throws JsonTokenizerException {
       if (isDigit(c)) {
         return allowed(c);
+      } else if (!hasDigit()) {
+        return forbidden(c);
       } else if (c == CHAR_DOT) {
-        return new NumberFracState(c, getLiteral());
+        return new NumberFracState(c, literal);
       } else if (c == 'e' || c == 'E') {
-        return new NumberExpState(c, getLiteral());
+        return new NumberExpState(c, literal);
       } else if (isSomeClose(c)) {
         finish();
         return new SomeCloseState().init(c);
@@ -461,17 +499,23 @@ public class JsonTokenizer {
       return forbidden(c);
     }
 
+    private boolean hasDigit() {
+      return isDigit(literal.charAt(literal.length() - 1));
+    }
+
     @Override
     public State close() throws JsonTokenizerException {
       // FIXME: Remove this if simple json value parsing is not allowed
-      finish();
+      if (hasDigit()) {
+        finish();
+      }
       return super.close();
     }
   }
 
   private class NumberFracState extends LiteralState {
 
-    public NumberFracState(final char c, final String consume) throws JsonTokenizerException {
+    public NumberFracState(final char c, final StringBuilder consume) throws JsonTokenizerException {
       super(Token.NUMBER, consume);
       if (c != '.') {
         forbidden(c);
@@ -483,19 +527,33 @@ public class JsonTokenizer {
     public State nextChar(final char c) throws JsonTokenizerException {
       if (isDigit(c)) {
         return allowed(c);
+      } else if (!hasDigit()) {
+        return forbidden(c);
       } else if (c == CHAR_LOW_E || c == CHAR_E) {
-        return new NumberExpState(c, getLiteral());
+        return new NumberExpState(c, literal);
       } else if (isSomeClose(c)) {
         finish();
         return new SomeCloseState().init(c);
       }
       return forbidden(c);
     }
+
+    private boolean hasDigit() {
+      return isDigit(literal.charAt(literal.length() - 1));
+    }
+
+    @Override
+    public State close() throws JsonTokenizerException {
+      if (hasDigit()) {
+        finish();
+      }
+      return super.close();
+    }
   }
 
   private class NumberExpState extends LiteralState {
     int exponent = 1;
-    public NumberExpState(final char c, final String consume) throws JsonTokenizerException {
+    public NumberExpState(final char c, final StringBuilder consume) throws JsonTokenizerException {
       super(Token.NUMBER, consume);
       if (c != 'e' && c != 'E') {
         forbidden(c);
@@ -526,6 +584,14 @@ public class JsonTokenizer {
       }
       return forbidden(c);
     }
+
+    @Override
+    public State close() throws JsonTokenizerException {
+      if (exponent == 0) {
+        finish();
+      }
+      return super.close();
+    }
   }
 
   private class FalseState extends LiteralState {
@@ -640,11 +706,24 @@ public class JsonTokenizer {
    * @throws JsonTokenizerException if something in query is not valid (based on OData search query ABNF)
    */
   public List<JsonToken> tokenize(final String json) throws JsonTokenizerException {
+    return tokenize(json, new ArrayList<JsonToken>());
+  }
+
+  /**
+   * Tokenizes the given JSON into the given list, which is cleared first (so a list can be reused
+   * for several documents).
+   *
+   * @return the given list
+   */
+  public List<JsonToken> tokenize(final String json, final List<JsonToken> states) throws JsonTokenizerException {
+    states.clear();
+    if (engine == Engine.TABLE) {
+      return tokenizeTable(json, states);
+    }
 
     char[] chars = json.trim().toCharArray();
 
     State state = new StartState();
-    List<JsonToken> states = new ArrayList<>();
     for (char aChar : chars) {
       State next = state.nextChar(aChar);
       if (state.isFinished()) {
@@ -662,4 +741,22 @@ public class JsonTokenizer {
 
     return states;
   }
+
+  private List<JsonToken> tokenizeTable(final String json, final List<JsonToken> tokens)
+      throws JsonTokenizerException {
+    // the slice tokens reference the characters, so only the cursor is reused
+    final char[] chars = json.toCharArray();
+    JsonCursor.CharArrayCursor cursor = this.cursor;
+    if (cursor == null) {
+      cursor = new JsonCursor.CharArrayCursor(chars, 0, chars.length);
+      this.cursor = cursor;
+    } else {
+      cursor.reset(chars, 0, chars.length);
+    }
+    while (cursor.nextToken() != null) {
+      tokens.add(new JsonSliceToken(cursor.currentToken(), chars,
+          cursor.getOffset(), cursor.getLength(), cursor.isEscaped()));
+    }
+    return tokens;
+  }
 }
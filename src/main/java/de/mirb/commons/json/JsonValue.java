@@ -22,4 +22,12 @@ public abstract class JsonValue<T> {
   public JsonObject asObject() {
     return (JsonObject) this;
   }
+
+  public JsonArray asArray() {
+    return (JsonArray) this;
+  }
+
+  public JsonNumber asNumber() {
+    return (JsonNumber) this;
+  }
 }
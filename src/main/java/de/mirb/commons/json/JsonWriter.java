@@ -0,0 +1,543 @@
+package de.mirb.pg.pojo;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes JSON, either whole {@link JsonValue} trees via {@link #writeValue(JsonValue)} or as a
+ * streaming generator (<code>writeStartObject</code>, <code>writeKey</code>, <code>writeString</code>, ...).
+ * The output is compact (no whitespace between the tokens).
+ * <p>
+ * The writer encodes into an internal UTF-8 buffer which is passed to the target (an
+ * {@link OutputStream}, an {@link Appendable} or a {@link ByteBuffer}) when it is full and on
+ * {@link #flush()}. Strings are escaped via a table; runs of ASCII characters which need no
+ * escaping are copied without further checks. The buffer is kept when the writer is reset for
+ * the next target, so a writer can be reused like a {@link JsonParser} (and like a parser it must
+ * not be used by several threads at the same time).
+ * <p>
+ * The generator checks the structure: an {@link IllegalStateException} is thrown e.g. for a
+ * value without key within an object or for a second root value.
+ */
+public class JsonWriter implements Flushable {
+  private static final int BUFFER_SIZE = 8192;
+  /** maximal number of bytes which one character of a string needs (<code>&#92;u00XX</code>) */
+  private static final int MAX_CHAR_BYTES = 6;
+  private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+  /**
+   * Escape of each ASCII character: <code>0</code> if the character is written as it is, the
+   * character after the reverse solidus otherwise (<code>u</code> for <code>&#92;u00XX</code>).
+   */
+  private static final byte[] ESCAPES = new byte[128];
+
+  static {
+    for (int c = 0; c < ' '; c++) {
+      ESCAPES[c] = 'u';
+    }
+    ESCAPES['"'] = '"';
+    ESCAPES['\\'] = '\\';
+    ESCAPES['\n'] = 'n';
+    ESCAPES['\r'] = 'r';
+    ESCAPES['\t'] = 't';
+    ESCAPES['\b'] = 'b';
+    ESCAPES['\f'] = 'f';
+  }
+
+  // structure states
+  private static final byte ROOT = 0;
+  private static final byte DONE = 1;
+  private static final byte EMPTY_OBJECT = 2;
+  private static final byte OBJECT = 3;
+  private static final byte KEY = 4;
+  private static final byte EMPTY_ARRAY = 5;
+  private static final byte ARRAY = 6;
+
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private int count;
+  private byte[] stack = new byte[16];
+  private int depth;
+
+  private OutputStream out;
+  private Appendable appendable;
+  private ByteBuffer target;
+
+  public JsonWriter(OutputStream out) {
+    reset(out);
+  }
+
+  /**
+   * Writer to an {@link Appendable} (e.g. a {@link StringBuilder} or a {@link java.io.Writer}).
+   */
+  public JsonWriter(Appendable out) {
+    reset(out);
+  }
+
+  /**
+   * Writer into the remaining space of the buffer.
+   *
+   * @throws java.nio.BufferOverflowException on flush if the buffer has not enough space left
+   */
+  public JsonWriter(ByteBuffer out) {
+    reset(out);
+  }
+
+  /**
+   * Serializes the value into a String.
+   */
+  public static String toJson(JsonValue value) {
+    StringBuilder sb = new StringBuilder();
+    try {
+      new JsonWriter(sb).writeValue(value).flush();
+    } catch (IOException e) {
+      throw new IllegalStateException("StringBuilder failed", e);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Writes to the given target from now on, the buffered output (if any) is discarded.
+   */
+  public JsonWriter reset(OutputStream out) {
+    return reset(out, null, null);
+  }
+
+  public JsonWriter reset(Appendable out) {
+    return reset(null, out, null);
+  }
+
+  public JsonWriter reset(ByteBuffer out) {
+    return reset(null, null, out);
+  }
+
+  private JsonWriter reset(OutputStream out, Appendable appendable, ByteBuffer target) {
+    this.out = out;
+    this.appendable = appendable;
+    this.target = target;
+    count = 0;
+    depth = 0;
+    stack[0] = ROOT;
+    return this;
+  }
+
+  public JsonWriter writeStartObject() throws IOException {
+    beforeValue();
+    push(EMPTY_OBJECT);
+    return writeByte('{');
+  }
+
+  public JsonWriter writeEndObject() throws IOException {
+    if (stack[depth] != EMPTY_OBJECT && stack[depth] != OBJECT) {
+      throw new IllegalStateException("No object to end (" + state() + ")");
+    }
+    depth--;
+    return writeByte('}');
+  }
+
+  public JsonWriter writeStartArray() throws IOException {
+    beforeValue();
+    push(EMPTY_ARRAY);
+    return writeByte('[');
+  }
+
+  public JsonWriter writeEndArray() throws IOException {
+    if (stack[depth] != EMPTY_ARRAY && stack[depth] != ARRAY) {
+      throw new IllegalStateException("No array to end (" + state() + ")");
+    }
+    depth--;
+    return writeByte(']');
+  }
+
+  /**
+   * Writes the name of the next pair of the current object.
+   */
+  public JsonWriter writeKey(CharSequence name) throws IOException {
+    switch (stack[depth]) {
+      case OBJECT:
+        writeByte(',');
+        break;
+      case EMPTY_OBJECT:
+        break;
+      default:
+        throw new IllegalStateException("Key outside of an object (" + state() + ")");
+    }
+    stack[depth] = KEY;
+    quoted(name);
+    return writeByte(':');
+  }
+
+  public JsonWriter writeString(CharSequence value) throws IOException {
+    beforeValue();
+    quoted(value);
+    return this;
+  }
+
+  public JsonWriter writeNumber(long value) throws IOException {
+    beforeValue();
+    digits(value);
+    return this;
+  }
+
+  /**
+   * @throws IllegalArgumentException for infinite values and NaN (which JSON can not represent)
+   */
+  public JsonWriter writeNumber(double value) throws IOException {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      throw new IllegalArgumentException("Not a JSON number: " + value);
+    }
+    beforeValue();
+    if (value == (long) value && Math.abs(value) < 1e15 && !(value == 0 && 1 / value < 0)) {
+      // integral doubles (the common case) are written without creating a String
+      digits((long) value);
+      return writeBytes(".0");
+    }
+    return writeBytes(Double.toString(value));
+  }
+
+  public JsonWriter writeNumber(JsonNumber value) throws IOException {
+    switch (value.kind()) {
+      case JsonNumber.LONG:
+        return writeNumber(value.asLong());
+      case JsonNumber.DOUBLE:
+        return writeNumber(value.asDouble());
+      default:
+        beforeValue();
+        return writeBytes(value.asBigDecimal().toString());
+    }
+  }
+
+  public JsonWriter writeBoolean(boolean value) throws IOException {
+    beforeValue();
+    return writeBytes(value ? TRUE : FALSE);
+  }
+
+  public JsonWriter writeNull() throws IOException {
+    beforeValue();
+    return writeBytes(NULL);
+  }
+
+  /**
+   * Writes the value (with all its children); <code>null</code> is written as JSON null.
+   *
+   * @throws IllegalArgumentException for unknown {@link JsonValue} types
+   */
+  public JsonWriter writeValue(JsonValue value) throws IOException {
+    if (value == null) {
+      return writeNull();
+    } else if (value instanceof JsonString) {
+      final JsonString string = (JsonString) value;
+      if (string.isView()) {
+        // views into UTF-8 sources without escapes and control characters are copied as they are
+        beforeValue();
+        string.writeTo(raw);
+        return this;
+      }
+      return writeString(string.value());
+    } else if (value instanceof JsonNumber) {
+      return writeNumber((JsonNumber) value);
+    } else if (value instanceof JsonObject) {
+      writeStartObject();
+      for (JsonPair pair : ((JsonObject) value).value()) {
+        writeKey(pair.getName());
+        writeValue(pair.getValue());
+      }
+      return writeEndObject();
+    } else if (value instanceof JsonArray) {
+      final JsonArray array = (JsonArray) value;
+      writeStartArray();
+      if (array.isLongArray()) {
+        for (int i = 0; i < array.size(); i++) {
+          writeNumber(array.getLong(i));
+        }
+      } else if (array.isDoubleArray()) {
+        for (int i = 0; i < array.size(); i++) {
+          if (array.isIntegral(i)) {
+            writeNumber(array.getLong(i));
+          } else {
+            writeNumber(array.getDouble(i));
+          }
+        }
+      } else {
+        final List<JsonValue> values = array.value();
+        for (int i = 0; i < values.size(); i++) {
+          writeValue(values.get(i));
+        }
+      }
+      return writeEndArray();
+    }
+    throw new IllegalArgumentException("Unsupported value type: " + value.getClass().getName());
+  }
+
+  /**
+   * Passes the buffered output to the target (and flushes the target if it is {@link Flushable}).
+   */
+  @Override
+  public void flush() throws IOException {
+    drain();
+    if (out != null) {
+      out.flush();
+    } else if (appendable instanceof Flushable) {
+      ((Flushable) appendable).flush();
+    }
+  }
+
+  private void drain() throws IOException {
+    if (count == 0) {
+      return;
+    }
+    if (out != null) {
+      out.write(buffer, 0, count);
+    } else if (target != null) {
+      target.put(buffer, 0, count);
+    } else {
+      // an incomplete multi-byte character (of raw content) stays in the buffer
+      final int complete = complete();
+      appendable.append(new String(buffer, 0, complete, StandardCharsets.UTF_8));
+      System.arraycopy(buffer, complete, buffer, 0, count - complete);
+      count -= complete;
+      return;
+    }
+    count = 0;
+  }
+
+  /**
+   * @return length of the buffered output without an incomplete UTF-8 sequence at its end
+   */
+  private int complete() {
+    for (int i = count - 1; i >= 0 && i >= count - 3; i--) {
+      final int b = buffer[i] & 0xFF;
+      if (b < 0x80) {
+        return count;
+      } else if (b >= 0xC0) {
+        return i + JsonTableTokenizer.utf8Continuations(b) + 1 > count ? i : count;
+      }
+    }
+    return count;
+  }
+
+  private void ensure(int bytes) throws IOException {
+    if (count + bytes > buffer.length) {
+      drain();
+    }
+  }
+
+  private void beforeValue() throws IOException {
+    switch (stack[depth]) {
+      case ROOT:
+        stack[depth] = DONE;
+        break;
+      case EMPTY_ARRAY:
+        stack[depth] = ARRAY;
+        break;
+      case ARRAY:
+        writeByte(',');
+        break;
+      case KEY:
+        stack[depth] = OBJECT;
+        break;
+      default:
+        throw new IllegalStateException("Value not allowed (" + state() + ")");
+    }
+  }
+
+  private void push(byte state) {
+    if (++depth == stack.length) {
+      stack = Arrays.copyOf(stack, depth * 2);
+    }
+    stack[depth] = state;
+  }
+
+  private String state() {
+    switch (stack[depth]) {
+      case ROOT:
+        return "no value written";
+      case DONE:
+        return "root value already written";
+      case EMPTY_OBJECT:
+      case OBJECT:
+        return "in object";
+      case KEY:
+        return "after key";
+      default:
+        return "in array";
+    }
+  }
+
+  private JsonWriter writeByte(char c) throws IOException {
+    ensure(1);
+    buffer[count++] = (byte) c;
+    return this;
+  }
+
+  private JsonWriter writeBytes(byte[] bytes) throws IOException {
+    ensure(bytes.length);
+    System.arraycopy(bytes, 0, buffer, count, bytes.length);
+    count += bytes.length;
+    return this;
+  }
+
+  /**
+   * Writes ASCII characters (number literals).
+   */
+  private JsonWriter writeBytes(String ascii) throws IOException {
+    ensure(ascii.length());
+    for (int i = 0; i < ascii.length(); i++) {
+      buffer[count++] = (byte) ascii.charAt(i);
+    }
+    return this;
+  }
+
+  private void digits(long value) throws IOException {
+    if (value == Long.MIN_VALUE) {
+      writeBytes(MIN_LONG);
+      return;
+    }
+    ensure(20);
+    if (value < 0) {
+      buffer[count++] = '-';
+      value = -value;
+    }
+    int length = 1;
+    for (long v = value; v >= 10; v /= 10) {
+      length++;
+    }
+    for (int i = count + length - 1; i >= count; i--) {
+      buffer[i] = (byte) ('0' + value % 10);
+      value /= 10;
+    }
+    count += length;
+  }
+
+  /**
+   * Writes the characters escaped and UTF-8 encoded with quotation marks.
+   */
+  private void quoted(CharSequence value) throws IOException {
+    ensure(2 + MAX_CHAR_BYTES);
+    final byte[] buffer = this.buffer;
+    buffer[count++] = '"';
+    final int length = value.length();
+    int i = 0;
+    while (i < length) {
+      // characters which fit into the buffer without further checks
+      final int end = Math.min(length, i + (buffer.length - count - 2) / MAX_CHAR_BYTES);
+      int pos = count;
+      while (i < end) {
+        final char c = value.charAt(i);
+        if (c < 128 && ESCAPES[c] == 0) {
+          buffer[pos++] = (byte) c;
+          i++;
+        } else {
+          final int next = special(value, i, length, buffer, pos);
+          i += next - pos == 4 ? 2 : 1;
+          pos = next;
+        }
+      }
+      count = pos;
+      if (i < length) {
+        drain();
+      }
+    }
+    buffer[count++] = '"';
+  }
+
+  /**
+   * Writes the characters escaped and UTF-8 encoded with quotation marks to the stream without
+   * the buffer of a writer (for a single string): the bytes are encoded into an array of the
+   * length of the string, which only grows for characters which need an escape or more than one
+   * byte.
+   */
+  static void quoted(CharSequence value, OutputStream out) throws IOException {
+    final int length = value.length();
+    byte[] bytes = new byte[length + 2];
+    bytes[0] = '"';
+    int pos = 1;
+    int i = 0;
+    while (i < length) {
+      final char c = value.charAt(i);
+      if (c < 128 && ESCAPES[c] == 0) {
+        bytes[pos++] = (byte) c;
+        i++;
+      } else {
+        // space for this character, the rest (one byte each) and the quotation mark
+        final int needed = pos + MAX_CHAR_BYTES + length - i + 1;
+        if (needed > bytes.length) {
+          bytes = Arrays.copyOf(bytes, Math.max(needed, 2 * bytes.length));
+        }
+        final int next = special(value, i, length, bytes, pos);
+        i += next - pos == 4 ? 2 : 1;
+        pos = next;
+      }
+    }
+    bytes[pos++] = '"';
+    out.write(bytes, 0, pos);
+  }
+
+  /**
+   * Writes the character at <code>i</code> which needs an escape or more than one byte into the
+   * buffer; only a surrogate pair (two characters) is encoded with four bytes.
+   *
+   * @return position after the written bytes
+   */
+  private static int special(CharSequence value, int i, int length, byte[] buffer, int pos) {
+    final char c = value.charAt(i);
+    if (c < 128) {
+      final byte escape = ESCAPES[c];
+      buffer[pos++] = '\\';
+      buffer[pos++] = escape;
+      if (escape == 'u') {
+        buffer[pos++] = '0';
+        buffer[pos++] = '0';
+        buffer[pos++] = HEX[c >> 4];
+        buffer[pos++] = HEX[c & 0xF];
+      }
+    } else if (c < 0x800) {
+      buffer[pos++] = (byte) (0xC0 | c >> 6);
+      buffer[pos++] = (byte) (0x80 | c & 0x3F);
+    } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+      final int cp = Character.toCodePoint(c, value.charAt(i + 1));
+      buffer[pos++] = (byte) (0xF0 | cp >> 18);
+      buffer[pos++] = (byte) (0x80 | cp >> 12 & 0x3F);
+      buffer[pos++] = (byte) (0x80 | cp >> 6 & 0x3F);
+      buffer[pos++] = (byte) (0x80 | cp & 0x3F);
+      return pos;
+    } else if (Character.isSurrogate(c)) {
+      // unpaired surrogate: replaced like by String.getBytes
+      buffer[pos++] = '?';
+    } else {
+      buffer[pos++] = (byte) (0xE0 | c >> 12);
+      buffer[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+      buffer[pos++] = (byte) (0x80 | c & 0x3F);
+    }
+    return pos;
+  }
+
+  /**
+   * Output stream into the buffer (for raw content, e.g. of string views).
+   */
+  private final OutputStream raw = new OutputStream() {
+    @Override
+    public void write(int b) throws IOException {
+      ensure(1);
+      buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+      while (length > 0) {
+        ensure(Math.min(length, buffer.length));
+        final int chunk = Math.min(length, buffer.length - count);
+        System.arraycopy(bytes, offset, buffer, count, chunk);
+        count += chunk;
+        offset += chunk;
+        length -= chunk;
+      }
+    }
+  };
+}
@@ -0,0 +1,194 @@
+package de.mirb.pg.pojo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class JsonArrayTest {
+
+  @Test
+  public void longArray() throws JsonParserException {
+    JsonArray array = new JsonParser().parse("[ 1, -2, 9223372036854775807 ]").asArray();
+    Assert.assertTrue(array.isLongArray());
+    Assert.assertEquals(3, array.size());
+    Assert.assertArrayEquals(new long[] { 1, -2, Long.MAX_VALUE }, array.toLongArray());
+    Assert.assertEquals(-2L, array.getLong(1));
+    Assert.assertEquals(-2L, array.get(1).asNumber().asLong());
+    Assert.assertEquals("[1, -2, 9223372036854775807]", array.valueAsString());
+  }
+
+  @Test
+  public void doubleArray() throws JsonParserException {
+    JsonArray array = new JsonParser().parse("[1, 2.5, -3e2, 4]").asArray();
+    Assert.assertTrue(array.isDoubleArray());
+    Assert.assertArrayEquals(new double[] { 1, 2.5, -300, 4 }, array.toDoubleArray(), 0d);
+    Assert.assertEquals(2L, array.getLong(1));
+    Assert.assertEquals(4d, array.get(3).asNumber().asDouble(), 0d);
+  }
+
+  @Test
+  public void mixedNumbersRoundTrip() throws Exception {
+    String json = "{\"a\":[1.5,2],\"b\":[3,-4.25,5]}";
+    JsonObject object = new JsonParser().parse(json).asObject();
+    JsonArray a = object.get("a").asArray();
+    Assert.assertTrue(a.isDoubleArray());
+    Assert.assertEquals(JsonNumber.DOUBLE, a.get(0).asNumber().kind());
+    Assert.assertEquals(JsonNumber.LONG, a.get(1).asNumber().kind());
+    Assert.assertEquals(JsonNumber.LONG, object.get("b").asArray().get(0).asNumber().kind());
+    Assert.assertEquals(json, JsonWriter.toJson(object));
+    byte[] binary = JsonBinary.encode(object);
+    Assert.assertEquals(json, JsonWriter.toJson(JsonBinary.decode(binary, 0, binary.length)));
+
+    // more elements than one word of marks and a switch to values keep the kinds as well
+    JsonArray.JsonArrayBuilder builder = JsonArray.start();
+    StringBuilder expected = new StringBuilder("[");
+    for (int i = 0; i < 200; i++) {
+      if (i % 3 == 0) {
+        builder.add(i + 0.5);
+        expected.append(i > 0 ? "," : "").append(i).append(".5");
+      } else {
+        builder.add((long) i);
+        expected.append(i > 0 ? "," : "").append(i);
+      }
+    }
+    Assert.assertEquals(expected + "]", JsonWriter.toJson(builder.build()));
+    builder.add(0.5).add(1L).add(new JsonString("x"));
+    Assert.assertEquals("[0.5,1,\"x\"]", JsonWriter.toJson(builder.build()));
+  }
+
+  @Test
+  public void mixedArray() throws JsonParserException {
+    JsonArray array = new JsonParser().parse("[1, \"two\", { \"three\": 3 }, [4.5], []]").asArray();
+    Assert.assertFalse(array.isLongArray());
+    Assert.assertFalse(array.isDoubleArray());
+    Assert.assertEquals(5, array.size());
+    Assert.assertEquals(1L, array.getLong(0));
+    Assert.assertEquals("two", array.get(1).valueAsString());
+    Assert.assertEquals(3L, array.get(2).asObject().get("three").asNumber().asLong());
+    Assert.assertTrue(array.get(3).asArray().isDoubleArray());
+    Assert.assertEquals(0, array.get(4).asArray().size());
+
+    // long which is not exact as double stops the double specialization
+    array = new JsonParser().parse("[9007199254740993, 0.5]").asArray();
+    Assert.assertFalse(array.isDoubleArray());
+    Assert.assertEquals(9007199254740993L, array.getLong(0));
+  }
+
+  @Test
+  public void nestedInObject() throws JsonParserException {
+    String json = "{ \"series\": [[1, 2], [3.5]], \"name\": \"cpu\" }";
+    JsonObject object = new JsonParser().parse(json).asObject();
+    Assert.assertEquals(2L, object.get("series").asArray().get(0).asArray().getLong(1));
+
+    object = new JsonParser().parseLazy(json).asObject();
+    Assert.assertEquals(3.5, object.get("series").asArray().get(1).asArray().getDouble(0), 0d);
+    Assert.assertEquals("cpu", object.get("name").valueAsString());
+
+    JsonPushParser push = new JsonPushParser();
+    push.feed("{ \"series\": [[1, 2], [3".toCharArray());
+    push.feed(".5]], \"name\": \"cpu\" }".toCharArray());
+    object = push.endOfInput().asObject();
+    Assert.assertTrue(object.get("series").asArray().get(0).asArray().isLongArray());
+    Assert.assertEquals(3.5, object.get("series").asArray().get(1).asArray().getDouble(0), 0d);
+  }
+
+  @Test(expected = JsonParserException.class)
+  public void mismatchedClose() throws JsonParserException {
+    new JsonParser().parse("{ \"a\": [1, 2} ]");
+  }
+
+  @Test(expected = JsonParserException.class)
+  public void pushMismatchedClose() throws JsonParserException {
+    JsonPushParser push = new JsonPushParser();
+    push.feed("[1, 2}".toCharArray());
+    push.endOfInput();
+  }
+
+  @Test
+  public void parseDoubleArray() throws JsonParserException {
+    double[] target = new double[4];
+    JsonParser parser = new JsonParser();
+    Assert.assertEquals(3, parser.parseDoubleArray("[ 1, 2.5, 1e400 ]", target));
+    Assert.assertArrayEquals(new double[] { 1, 2.5, Double.POSITIVE_INFINITY, 0 }, target, 0d);
+
+    byte[] utf8 = "[0.25,-4]".getBytes(StandardCharsets.UTF_8);
+    Assert.assertEquals(2, parser.parseDoubleArray(utf8, 0, utf8.length, target));
+    Assert.assertEquals(-4d, target[1], 0d);
+    Assert.assertEquals(0, parser.parseDoubleArray(ByteBuffer.wrap("[ ]".getBytes()), target));
+  }
+
+  @Test
+  public void parseLongArray() throws JsonParserException {
+    long[] target = new long[3];
+    Assert.assertEquals(3, new JsonParser().parseLongArray("[ 7, -8, 9 ]", target));
+    Assert.assertArrayEquals(new long[] { 7, -8, 9 }, target);
+  }
+
+  @Test(expected = JsonParserException.class)
+  public void parseLongArrayFraction() throws JsonParserException {
+    new JsonParser().parseLongArray("[ 7, 8.5 ]", new long[2]);
+  }
+
+  @Test(expected = JsonParserException.class)
+  public void parseDoubleArrayTooSmall() throws JsonParserException {
+    new JsonParser().parseDoubleArray("[ 1, 2, 3 ]", new double[2]);
+  }
+
+  @Test(expected = JsonParserException.class)
+  public void parseDoubleArrayNoNumber() throws JsonParserException {
+    new JsonParser().parseDoubleArray("[ 1, \"2\" ]", new double[2]);
+  }
+
+  @Test
+  public void parsePrimitiveArrayTrailingContent() throws JsonParserException {
+    JsonParser parser = new JsonParser();
+    for (String json : new String[] {"[1,2] [3]", "[1,2],3", "[] ]", "[1] x"}) {
+      try {
+        parser.parseDoubleArray(json, new double[4]);
+        Assert.fail("Expected JsonParserException for " + json);
+      } catch (JsonParserException e) {
+        // expected
+      }
+      try {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        parser.parseLongArray(bytes, 0, bytes.length, new long[4]);
+        Assert.fail("Expected JsonParserException for " + json);
+      } catch (JsonParserException e) {
+        // expected
+      }
+    }
+    Assert.assertEquals(2, parser.parseLongArray("[1,2] \n", new long[4]));
+  }
+
+  @Test
+  public void builder() {
+    JsonArray array = JsonArray.with(new JsonNumber(1), new JsonNumber(2)).add(3L).build();
+    Assert.assertTrue(array.isLongArray());
+    Assert.assertEquals(3, array.size());
+    array = JsonArray.start().add(1L).add(new JsonString("x")).build();
+    Assert.assertEquals("[1, x]", array.valueAsString());
+  }
+
+  @Test
+  public void builderIsEmptyAfterBuild() {
+    JsonArray.JsonArrayBuilder builder = JsonArray.start().add(1L).add(new JsonString("x"));
+    JsonArray values = builder.build();
+    builder.add(new JsonString("y"));
+    Assert.assertEquals("[1, x]", values.valueAsString());
+    Assert.assertEquals("[y]", builder.build().valueAsString());
+
+    builder.add(1.5).add(2L);
+    JsonArray doubles = builder.build();
+    Assert.assertTrue(doubles.isDoubleArray());
+    for (long i = 0; i < 20; i++) {
+      builder.add(i);
+    }
+    JsonArray longs = builder.build();
+    Assert.assertTrue(longs.isLongArray());
+    Assert.assertEquals(20, longs.size());
+    Assert.assertArrayEquals(new double[] {1.5, 2}, doubles.toDoubleArray(), 0);
+    Assert.assertEquals(0, builder.build().size());
+  }
+}
@@ -0,0 +1,118 @@
+package de.mirb.pg.pojo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class JsonBinaryTest {
+
+  private static final String JSON = "{\"name\":\"value\",\"inner\":{\"list\":[1,-2,3],\"doubles\":[1.5,-0.25],"
+      + "\"mixed\":[\"a\",{\"name\":\"c\"},[],4711,2.5,12345678901234567890.5]},"
+      + "\"text\":\"q\\\"b\\\\s\\n\u00e4\u20ac\ud83d\ude00\",\"number\":-9223372036854775808}";
+
+  @Test
+  public void roundTrip() throws Exception {
+    JsonValue tree = new JsonParser().parse(JSON);
+    byte[] binary = JsonBinary.encode(tree);
+    Assert.assertEquals(JsonWriter.toJson(tree), JsonWriter.toJson(JsonBinary.decode(binary, 0, binary.length)));
+    // lazy trees encode the same way
+    Assert.assertArrayEquals(binary, JsonBinary.encode(new JsonParser().parseLazy(JSON)));
+  }
+
+  @Test
+  public void navigation() throws Exception {
+    byte[] binary = JsonBinary.encode(new JsonParser().parse(JSON));
+    JsonObject root = JsonBinary.decode(binary, 0, binary.length).asObject();
+    Assert.assertEquals("value", root.get("name").valueAsString());
+    Assert.assertEquals(Long.MIN_VALUE, root.get("number").asNumber().asLong());
+    JsonArray list = root.get("inner").asObject().get("list").asArray();
+    Assert.assertTrue(list.isLongArray());
+    Assert.assertArrayEquals(new long[] {1, -2, 3}, list.toLongArray());
+    JsonArray doubles = root.get("inner").asObject().get("doubles").asArray();
+    Assert.assertTrue(doubles.isDoubleArray());
+    JsonArray mixed = root.get("inner").asObject().get("mixed").asArray();
+    Assert.assertEquals(6, mixed.size());
+    Assert.assertEquals("c", mixed.get(1).asObject().get("name").valueAsString());
+    Assert.assertEquals(0, mixed.get(2).asArray().size());
+    Assert.assertEquals(new BigDecimal("12345678901234567890.5"), mixed.get(5).asNumber().asBigDecimal());
+    Assert.assertEquals("q\"b\\s\n\u00e4\u20ac\ud83d\ude00", root.get("text").valueAsString());
+  }
+
+  @Test
+  public void keyDictionary() throws Exception {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < 100; i++) {
+      sb.append(i == 0 ? "" : ",").append("{\"identifier\":").append(i).append(",\"description\":\"d\"}");
+    }
+    byte[] binary = JsonBinary.encode(new JsonParser().parse(sb.append(']').toString()));
+    // both names are stored once
+    Assert.assertEquals(1, occurrences(binary, "identifier"));
+    Assert.assertEquals(1, occurrences(binary, "description"));
+    JsonArray array = JsonBinary.decode(binary, 0, binary.length).asArray();
+    Assert.assertEquals(99, array.get(99).asObject().get("identifier").asNumber().asLong());
+  }
+
+  @Test
+  public void bufferSlice() throws Exception {
+    byte[] binary = JsonBinary.encode(new JsonParser().parse(JSON));
+    ByteBuffer buffer = ByteBuffer.allocateDirect(binary.length + 10);
+    buffer.position(5);
+    buffer.put(binary);
+    buffer.position(5);
+    buffer.limit(5 + binary.length);
+    JsonValue decoded = JsonBinary.decode(buffer);
+    Assert.assertEquals(5, buffer.position());
+    Assert.assertEquals(JsonWriter.toJson(new JsonParser().parse(JSON)), JsonWriter.toJson(decoded));
+  }
+
+  @Test
+  public void numbers() throws Exception {
+    JsonArray array = JsonArray.with(new JsonNumber(Long.MAX_VALUE), new JsonNumber(Double.MIN_VALUE),
+        new JsonNumber(new BigDecimal("1E+400")), new JsonString("x")).build();
+    byte[] binary = JsonBinary.encode(array);
+    JsonArray decoded = JsonBinary.decode(binary, 0, binary.length).asArray();
+    Assert.assertEquals(Long.MAX_VALUE, decoded.getLong(0));
+    Assert.assertEquals(Double.MIN_VALUE, decoded.getDouble(1), 0);
+    Assert.assertEquals(new BigDecimal("1E+400"), decoded.get(2).asNumber().asBigDecimal());
+    Assert.assertEquals("x", decoded.get(3).valueAsString());
+  }
+
+  @Test
+  public void invalid() throws Exception {
+    assertInvalid(new byte[] {'J', 'B'});
+    assertInvalid("{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+    byte[] binary = JsonBinary.encode(new JsonParser().parse(JSON));
+    binary[2] = 99;
+    assertInvalid(binary);
+    binary = JsonBinary.encode(new JsonParser().parse(JSON));
+    assertInvalid(Arrays.copyOf(binary, binary.length - 3));
+  }
+
+  private static void assertInvalid(byte[] data) {
+    try {
+      JsonBinary.decode(data, 0, data.length);
+      Assert.fail("Expected JsonParserException");
+    } catch (JsonParserException e) {
+      // expected
+    }
+  }
+
+  private static int occurrences(byte[] data, String text) {
+    byte[] pattern = text.getBytes(StandardCharsets.UTF_8);
+    int count = 0;
+    for (int i = 0; i + pattern.length <= data.length; i++) {
+      int j = 0;
+      while (j < pattern.length && data[i + j] == pattern[j]) {
+        j++;
+      }
+      if (j == pattern.length) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
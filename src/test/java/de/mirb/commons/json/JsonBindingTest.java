@@ -0,0 +1,259 @@
+package de.mirb.pg.pojo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class JsonBindingTest {
+
+  private static final String ORDER = "{ \"id\": 4711, \"customer\": \"Gr\u00fc\u00dfe\", \"total\": 12.5,"
+      + " \"paid\": true, \"status\": \"SHIPPED\", \"unknown\": { \"a\": [1, { \"b\": 2 }] },"
+      + " \"items\": [ { \"sku\": \"A-1\", \"quantity\": 2, \"price\": 1.25 }, { \"sku\": \"B-2\", \"quantity\": 1 } ],"
+      + " \"tags\": [\"new\", \"new\", \"gift\"], \"attributes\": { \"color\": \"red\", \"size\": 42 },"
+      + " \"scores\": [1, 2, 3], \"note\": null }";
+
+  enum Status { OPEN, SHIPPED }
+
+  private static class Order {
+    private long id;
+    private String customer;
+    private double total;
+    private boolean paid;
+    private Status status;
+    private List<Item> items;
+    private Set<String> tags;
+    private Map<String, Object> attributes;
+    private int[] scores;
+    private String note = "none";
+  }
+
+  private static class Item {
+    private String sku;
+    private int quantity;
+    private Double price;
+
+    public void setPrice(Double price) {
+      // the setter is used instead of the field
+      this.price = price == null ? null : price * 2;
+    }
+  }
+
+  private static final class Point {
+    private final int x;
+    private final int y;
+    private final String label;
+
+    Point(int x, int y, String label) {
+      this.x = x;
+      this.y = y;
+      this.label = label;
+    }
+  }
+
+  private static class Node {
+    private String name;
+    private List<Node> children;
+  }
+
+  private static class Numbers {
+    private short s;
+    private byte b;
+    private float f;
+    private Long boxed;
+    private BigDecimal decimal;
+    private BigInteger integer;
+    private Number number;
+    private Object any;
+    private JsonValue raw;
+    private double[] doubles;
+    private String[][] matrix;
+  }
+
+  private static class Overloaded {
+    private int count;
+    private String text;
+
+    public void setCount(String count) {
+      this.count = -1;
+    }
+
+    public void setCount(int count) {
+      this.count = count;
+    }
+  }
+
+  private static class Ambiguous {
+    public void setValue(String value) {
+    }
+
+    public void setValue(long value) {
+    }
+  }
+
+  private static class Box<T> {
+    T content;
+
+    public void setContent(T content) {
+      this.content = content;
+    }
+  }
+
+  private static class TextBox extends Box<String> {
+    @Override
+    public void setContent(String content) {
+      this.content = content + "!";
+    }
+  }
+
+  private static void assertOrder(Order order) {
+    Assert.assertEquals(4711, order.id);
+    Assert.assertEquals("Gr\u00fc\u00dfe", order.customer);
+    Assert.assertEquals(12.5, order.total, 0);
+    Assert.assertTrue(order.paid);
+    Assert.assertEquals(Status.SHIPPED, order.status);
+    Assert.assertEquals(2, order.items.size());
+    Assert.assertEquals("A-1", order.items.get(0).sku);
+    Assert.assertEquals(2, order.items.get(0).quantity);
+    Assert.assertEquals(2.5, order.items.get(0).price, 0);
+    Assert.assertNull(order.items.get(1).price);
+    Assert.assertEquals(Arrays.asList("new", "gift"), Arrays.asList(order.tags.toArray()));
+    Assert.assertEquals("red", order.attributes.get("color"));
+    Assert.assertEquals(42L, ((Number) order.attributes.get("size")).longValue());
+    Assert.assertArrayEquals(new int[] {1, 2, 3}, order.scores);
+    Assert.assertNull(order.note);
+  }
+
+  @Test
+  public void bean() throws Exception {
+    assertOrder(new JsonParser().parse(ORDER, Order.class));
+    byte[] bytes = ORDER.getBytes(StandardCharsets.UTF_8);
+    assertOrder(new JsonParser().parse(bytes, 0, bytes.length, Order.class));
+    assertOrder(new JsonParser().parse(ByteBuffer.wrap(bytes), Order.class));
+  }
+
+  @Test
+  public void constructor() throws Exception {
+    Point point = new JsonParser().parse("{ \"y\": 2, \"label\": \"p\", \"z\": 3, \"x\": 1 }", Point.class);
+    Assert.assertEquals(1, point.x);
+    Assert.assertEquals(2, point.y);
+    Assert.assertEquals("p", point.label);
+    // missing arguments keep their defaults
+    point = new JsonParser().parse("{ \"label\": \"q\" }", Point.class);
+    Assert.assertEquals(0, point.x);
+    Assert.assertEquals("q", point.label);
+  }
+
+  @Test
+  public void recursive() throws Exception {
+    Node root = new JsonParser().parse("{ \"name\": \"root\", \"children\": [ { \"name\": \"a\","
+        + " \"children\": [ { \"name\": \"b\" } ] }, { \"name\": \"c\", \"children\": [] } ] }", Node.class);
+    Assert.assertEquals("b", root.children.get(0).children.get(0).name);
+    Assert.assertNull(root.children.get(0).children.get(0).children);
+    Assert.assertEquals(Collections.emptyList(), root.children.get(1).children);
+  }
+
+  @Test
+  public void numbersAndValues() throws Exception {
+    Numbers numbers = new JsonParser().parse("{ \"s\": -300, \"b\": 127, \"f\": 0.5, \"boxed\": 9007199254740993,"
+        + " \"decimal\": 1.10, \"integer\": 123456789012345678901234567890, \"number\": 1e3,"
+        + " \"any\": [true, \"x\", { \"k\": 1.5 }], \"raw\": { \"k\": [1, 2] }, \"doubles\": [1, 2.5, -3e2],"
+        + " \"matrix\": [[\"a\"], [], [\"b\", \"c\"]] }", Numbers.class);
+    Assert.assertEquals(-300, numbers.s);
+    Assert.assertEquals(127, numbers.b);
+    Assert.assertEquals(0.5f, numbers.f, 0);
+    Assert.assertEquals(Long.valueOf(9007199254740993L), numbers.boxed);
+    Assert.assertEquals(0, new BigDecimal("1.10").compareTo(numbers.decimal));
+    Assert.assertEquals(new BigInteger("123456789012345678901234567890"), numbers.integer);
+    Assert.assertEquals(1000, numbers.number.doubleValue(), 0);
+    List<?> any = (List<?>) numbers.any;
+    Assert.assertEquals(Boolean.TRUE, any.get(0));
+    Assert.assertEquals("x", any.get(1));
+    Assert.assertEquals(1.5, ((Number) ((Map<?, ?>) any.get(2)).get("k")).doubleValue(), 0);
+    Assert.assertArrayEquals(new long[] {1, 2}, numbers.raw.asObject().get("k").asArray().toLongArray());
+    Assert.assertArrayEquals(new double[] {1, 2.5, -300}, numbers.doubles, 0);
+    Assert.assertArrayEquals(new String[][] {{"a"}, {}, {"b", "c"}}, numbers.matrix);
+  }
+
+  @Test
+  public void topLevelTypes() throws Exception {
+    Assert.assertEquals("x", new JsonParser().parse("\"x\"", String.class));
+    Assert.assertArrayEquals(new Integer[] {5, null}, new JsonParser().parse("[5, null]", Integer[].class));
+    Assert.assertNull(new JsonParser().parse("[null]", Order[].class)[0]);
+    Assert.assertArrayEquals(new long[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10},
+        new JsonParser().parse("[1, 2, 3, 4, 5, 6, 7, 8, 9, 10]", long[].class));
+    Assert.assertEquals(0, new JsonParser().parse("[]", Item[].class).length);
+    Assert.assertEquals(2, new JsonParser().parse("[{ \"sku\": \"a\" }, {}]", Item[].class).length);
+  }
+
+  @Test
+  public void mismatches() {
+    String[] documents = {
+        "{ \"id\": \"4711\" }",
+        "{ \"id\": 1.5 }",
+        "{ \"paid\": 1 }",
+        "{ \"status\": \"LOST\" }",
+        "{ \"scores\": [1, 2147483648] }",
+        "{ \"items\": {} }",
+        "{ \"id\": null }",
+        "{ \"customer\": \"x\" ",
+        "[]"
+    };
+    for (String json : documents) {
+      try {
+        new JsonParser().parse(json, Order.class);
+        Assert.fail("Expected JsonParserException for " + json);
+      } catch (JsonParserException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void overloadedSetters() throws Exception {
+    // the setter with the type of the field is chosen, independent of the order of the methods
+    Overloaded overloaded = new JsonParser().parse("{ \"count\": 3, \"text\": \"t\" }", Overloaded.class);
+    Assert.assertEquals(3, overloaded.count);
+    Assert.assertEquals("t", overloaded.text);
+    // the bridge method of a generic setter is no overload
+    Assert.assertEquals("x!", new JsonParser().parse("{ \"content\": \"x\" }", TextBox.class).content);
+    try {
+      new JsonParser().parse("{ \"value\": 1 }", Ambiguous.class);
+      Assert.fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("Ambiguous setters for property value"));
+    }
+  }
+
+  @Test
+  public void unsupportedTypes() throws Exception {
+    try {
+      new JsonParser().parse("{}", Runnable.class);
+      Assert.fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void reuse() throws Exception {
+    // the parser can be used again after an error
+    JsonParser parser = new JsonParser();
+    try {
+      parser.parse("{ \"id\": true }", Order.class);
+      Assert.fail("Expected JsonParserException");
+    } catch (JsonParserException e) {
+      // expected
+    }
+    assertOrder(parser.parse(ORDER, Order.class));
+    Assert.assertEquals(4711, parser.parse("{ \"id\": 4711 }").asObject().get("id").asNumber().asLong());
+  }
+}
@@ -0,0 +1,93 @@
+package de.mirb.pg.pojo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class JsonCachingParserTest {
+
+  private static String document(int id) {
+    return "{ \"id\": " + id + ", \"name\": \"document " + id + "\", \"values\": [1, 2.5, \"x\"] }";
+  }
+
+  @Test
+  public void hitsReturnTheCachedTree() throws Exception {
+    JsonCachingParser parser = new JsonCachingParser(1 << 20);
+    JsonValue first = parser.parse(document(1));
+    // an equal document in another instance
+    Assert.assertSame(first, parser.parse(new String(document(1).toCharArray())));
+    Assert.assertNotSame(first, parser.parse(document(2)));
+    Assert.assertEquals(1, parser.getHitCount());
+    Assert.assertEquals(2, parser.getMissCount());
+    Assert.assertEquals(2, parser.size());
+    Assert.assertTrue(parser.getRetainedSize() > 2 * document(1).length());
+
+    byte[] bytes = ("  " + document(3) + "  ").getBytes(StandardCharsets.UTF_8);
+    JsonValue fromBytes = parser.parse(bytes, 2, bytes.length - 4);
+    bytes[0] = 'x';
+    Assert.assertSame(fromBytes, parser.parse(bytes, 2, bytes.length - 4));
+    byte[] other = document(3).getBytes(StandardCharsets.UTF_8);
+    Assert.assertSame(fromBytes, parser.parse(other, 0, other.length));
+    // the cached copy is compared, not the caller's array
+    other[other.length - 5] = 'y';
+    Assert.assertNotSame(fromBytes, parser.parse(other, 0, other.length));
+    Assert.assertEquals(3, parser.getHitCount());
+
+    parser.clear();
+    Assert.assertEquals(0, parser.size());
+    Assert.assertEquals(0, parser.getRetainedSize());
+    Assert.assertNotSame(first, parser.parse(document(1)));
+  }
+
+  @Test
+  public void evictionBySize() throws Exception {
+    long size = JsonCachingParser.retainedSize(new JsonParser().parse(document(100))) + 2 * 40 + 40;
+    JsonCachingParser parser = new JsonCachingParser(size * 25);
+    for (int i = 100; i < 200; i++) {
+      parser.parse(document(i));
+      Assert.assertTrue(parser.getRetainedSize() <= size * 25);
+    }
+    Assert.assertTrue(parser.getEvictionCount() > 0);
+    Assert.assertEquals(100 - parser.size(), parser.getEvictionCount());
+    // the latest documents are still cached
+    JsonValue last = parser.parse(document(199));
+    Assert.assertSame(last, parser.parse(document(199)));
+  }
+
+  @Test
+  public void frequentDocumentsSurviveScans() throws Exception {
+    JsonCachingParser parser = new JsonCachingParser(1 << 16);
+    JsonValue hot = parser.parse(document(1));
+    Assert.assertSame(hot, parser.parse(document(1)));
+    for (int i = 1000; i < 2000; i++) {
+      parser.parse(document(i));
+    }
+    Assert.assertTrue(parser.getEvictionCount() > 0);
+    Assert.assertSame(hot, parser.parse(document(1)));
+  }
+
+  @Test
+  public void largeDocumentsAreNotCached() throws Exception {
+    JsonCachingParser parser = new JsonCachingParser(1000);
+    StringBuilder json = new StringBuilder("{ \"a\": \"");
+    for (int i = 0; i < 1000; i++) {
+      json.append('x');
+    }
+    JsonValue value = parser.parse(json.append("\" }").toString());
+    Assert.assertEquals(1000, value.asObject().get("a").valueAsString().length());
+    Assert.assertEquals(0, parser.size());
+    Assert.assertEquals(0, parser.getEvictionCount());
+  }
+
+  @Test
+  public void hash() {
+    byte[] bytes = "{ \"key\": \"value\" }".getBytes(StandardCharsets.UTF_8);
+    Assert.assertEquals(JsonCachingParser.hash(bytes, 0, bytes.length),
+        JsonCachingParser.hash(bytes.clone(), 0, bytes.length));
+    Assert.assertNotEquals(JsonCachingParser.hash(bytes, 0, bytes.length),
+        JsonCachingParser.hash(bytes, 0, bytes.length - 1));
+    Assert.assertNotEquals(JsonCachingParser.hash("ab"), JsonCachingParser.hash("ba"));
+    Assert.assertNotEquals(JsonCachingParser.hash(""), JsonCachingParser.hash("\u0000"));
+  }
+}
@@ -0,0 +1,159 @@
+package de.mirb.pg.pojo;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class JsonCursorTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void basicObject() throws JsonTokenizerException {
+    JsonCursor cursor = JsonCursor.create("  { \"name\" : \"value\", \"number\": -47.11 } ");
+
+    Assert.assertNull(cursor.currentToken());
+    Assert.assertEquals(JsonToken.Token.OPEN_CB, cursor.nextToken());
+    Assert.assertEquals(2, cursor.getOffset());
+    Assert.assertEquals(1, cursor.getLength());
+    Assert.assertEquals(JsonToken.Token.STRING, cursor.nextToken());
+    Assert.assertEquals("\"name\"", cursor.getLiteral());
+    Assert.assertEquals("name", cursor.getStringValue());
+    Assert.assertEquals(4, cursor.getOffset());
+    Assert.assertEquals(6, cursor.getLength());
+    Assert.assertEquals(JsonToken.Token.COLON, cursor.nextToken());
+    Assert.assertEquals(JsonToken.Token.STRING, cursor.nextToken());
+    Assert.assertEquals("value", cursor.getStringValue());
+    Assert.assertEquals(JsonToken.Token.COMMA, cursor.nextToken());
+    Assert.assertEquals(JsonToken.Token.STRING, cursor.nextToken());
+    Assert.assertEquals(JsonToken.Token.COLON, cursor.nextToken());
+    Assert.assertEquals(JsonToken.Token.NUMBER, cursor.nextToken());
+    Assert.assertEquals(JsonToken.Token.NUMBER, cursor.currentToken());
+    Assert.assertEquals("-47.11", cursor.getLiteral());
+    Assert.assertEquals(JsonToken.Token.CLOSE_CB, cursor.nextToken());
+    Assert.assertNull(cursor.nextToken());
+    Assert.assertNull(cursor.currentToken());
+    Assert.assertNull(cursor.nextToken());
+  }
+
+  @Test
+  public void sameAsTokenizer() throws JsonTokenizerException {
+    String json = "{ \"Sample\" : 4711, \"Sample2\" : [1903, true ], \"Inner\": { \"Esc\" : \"Va\\\"lue\"}}";
+    StringBuilder tokens = new StringBuilder();
+    JsonCursor cursor = JsonCursor.create(json);
+    while (cursor.nextToken() != null) {
+      tokens.append(tokens.length() == 0 ? "[" : ", ").append(cursor);
+    }
+    tokens.append("]");
+
+    Assert.assertEquals(new JsonTokenizer().tokenize(json).toString(), tokens.toString());
+  }
+
+  @Test
+  public void lazyFailure() throws JsonTokenizerException {
+    JsonCursor cursor = JsonCursor.create("{ \"Sample\" : 12-4711}");
+    Assert.assertEquals(JsonToken.Token.OPEN_CB, cursor.nextToken());
+    Assert.assertEquals(JsonToken.Token.STRING, cursor.nextToken());
+    Assert.assertEquals(JsonToken.Token.COLON, cursor.nextToken());
+    try {
+      cursor.nextToken();
+      Assert.fail("Expected JsonTokenizerException");
+    } catch (JsonTokenizerException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void prettyPrinted() throws JsonTokenizerException {
+    String json = "{\r\n  \"name\" : \"value\",\n  \"list\" : [\n    1,\n    \"two\"\n  ]\n}\n";
+    String expected = new JsonTokenizer().tokenize(json).toString();
+    Assert.assertEquals(expected, tokens(JsonCursor.create(json)));
+    Assert.assertEquals(expected, tokens(utf8(json)));
+    Assert.assertEquals(expected, tokens(direct(json)));
+  }
+
+  @Test
+  public void scannerBoundaries() throws JsonTokenizerException {
+    // special characters at every position of the eight byte words
+    String[] specials = { "\\\"", "\u00e4", "\u20ac", "\t", "\\n", " ", "_-./:{}" };
+    for (String special : specials) {
+      for (int prefix = 0; prefix < 20; prefix++) {
+        StringBuilder sb = new StringBuilder("{\"");
+        for (int i = 0; i < prefix; i++) {
+          sb.append((char) ('a' + i));
+        }
+        sb.append(special).append("xyz0123456789\":").append(spaces(prefix)).append("\"v\"}");
+        String json = sb.toString();
+        String expected = new JsonTokenizer().tokenize(json).toString();
+        Assert.assertEquals(json, expected, tokens(JsonCursor.create(json)));
+        Assert.assertEquals(json, expected, tokens(utf8(json)));
+        Assert.assertEquals(json, expected, tokens(direct(json)));
+      }
+    }
+  }
+
+  @Test
+  public void controlCharacterInString() {
+    for (String json : new String[] { "{ \"a\nb\": \"c\" }", "{ \"a\": \"0123456789\u0001\" }" }) {
+      for (JsonCursor cursor : new JsonCursor[] { JsonCursor.create(json), utf8(json), direct(json) }) {
+        try {
+          tokens(cursor);
+          Assert.fail("Expected JsonTokenizerException for " + json);
+        } catch (JsonTokenizerException e) {
+          // expected
+        }
+      }
+    }
+  }
+
+  @Test
+  public void mappedWindows() throws Exception, JsonTokenizerException {
+    String json = " {\n  \"name\" : \"va\\\"lue \u00e4\u20ac\",\n  \"list\" : [ 1, -2.5e3, \"two\", [ 12345 ] ],"
+        + " \"long\" : \"" + spaces(40) + "x\" }\n\n";
+    String expected = new JsonTokenizer().tokenize(json.trim()).toString();
+    File file = folder.newFile();
+    Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+    try (FileChannel channel = FileChannel.open(file.toPath())) {
+      for (int window = 1; window < 24; window++) {
+        Assert.assertEquals("window " + window, expected,
+            tokens(new JsonCursor.MappedCursor(channel, 0, channel.size(), window)));
+      }
+    }
+  }
+
+  private static JsonCursor utf8(String json) {
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    return JsonCursor.create(bytes, 0, bytes.length);
+  }
+
+  private static JsonCursor direct(String json) {
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes).flip();
+    return JsonCursor.create(buffer);
+  }
+
+  private static String spaces(int count) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      sb.append(' ');
+    }
+    return sb.toString();
+  }
+
+  private static String tokens(JsonCursor cursor) throws JsonTokenizerException {
+    StringBuilder tokens = new StringBuilder();
+    while (cursor.nextToken() != null) {
+      tokens.append(tokens.length() == 0 ? "[" : ", ").append(cursor);
+    }
+    return tokens.append("]").toString();
+  }
+}
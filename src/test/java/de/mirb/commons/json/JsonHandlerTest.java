@@ -0,0 +1,107 @@
+package de.mirb.pg.pojo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonHandlerTest {
+
+  private static class Recorder implements JsonHandler {
+    final StringBuilder events = new StringBuilder();
+    final String skip;
+
+    Recorder(String skip) {
+      this.skip = skip;
+    }
+
+    @Override
+    public boolean startObject() {
+      events.append('{');
+      return true;
+    }
+
+    @Override
+    public void endObject() {
+      events.append('}');
+    }
+
+    @Override
+    public boolean startArray() {
+      events.append('[');
+      return true;
+    }
+
+    @Override
+    public void endArray() {
+      events.append(']');
+    }
+
+    @Override
+    public boolean key(String name) {
+      events.append(name).append('=');
+      return !name.equals(skip);
+    }
+
+    @Override
+    public void stringValue(String value) {
+      events.append('\'').append(value).append("' ");
+    }
+
+    @Override
+    public void numberValue(JsonNumber value) {
+      events.append(value).append(' ');
+    }
+
+    @Override
+    public void booleanValue(boolean value) {
+      events.append(value).append(' ');
+    }
+
+    @Override
+    public void nullValue() {
+      events.append("null ");
+    }
+  }
+
+  private static final String JSON = "{ \"name\": \"value\", \"inner\" : { \"a\": [ 1, true, { \"b\": null } ] }, "
+      + "\"number\": -47.11, \"flag\": false }";
+
+  @Test
+  public void events() throws JsonParserException {
+    Recorder recorder = new Recorder(null);
+    new JsonParser().parse(JSON, recorder);
+    Assert.assertEquals("{name='value' inner={a=[1 true {b=null }]}number=-47.11 flag=false }",
+        recorder.events.toString());
+  }
+
+  @Test
+  public void skipValue() throws JsonParserException {
+    Recorder recorder = new Recorder("inner");
+    new JsonParser().parse(JSON, recorder);
+    Assert.assertEquals("{name='value' inner=number=-47.11 flag=false }", recorder.events.toString());
+  }
+
+  @Test
+  public void skipObject() throws JsonParserException {
+    Recorder recorder = new Recorder(null) {
+      @Override
+      public boolean startObject() {
+        events.append('{');
+        return events.length() == 1;
+      }
+    };
+    new JsonParser().parse(JSON, recorder);
+    Assert.assertEquals("{name='value' inner={number=-47.11 flag=false }", recorder.events.toString());
+  }
+
+  @Test
+  public void emptyStructures() throws JsonParserException {
+    Recorder recorder = new Recorder(null);
+    new JsonParser().parse("{ \"a\": {}, \"b\": [] }", recorder);
+    Assert.assertEquals("{a={}b=[]}", recorder.events.toString());
+  }
+
+  @Test(expected = JsonParserException.class)
+  public void unexpectedEnd() throws JsonParserException {
+    new JsonParser().parse("{ \"a\": [ 1, 2 ", new Recorder(null));
+  }
+}
@@ -0,0 +1,50 @@
+package de.mirb.pg.pojo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class JsonKeyCacheTest {
+
+  @Test
+  public void canonicalKeys() {
+    JsonKeyCache cache = new JsonKeyCache(16);
+    String key = cache.get("prefix-name".toCharArray(), 7, 4);
+    Assert.assertEquals("name", key);
+    Assert.assertSame(key, cache.get("name".toCharArray(), 0, 4));
+    Assert.assertSame(key, cache.get("name".getBytes(StandardCharsets.UTF_8), 0, 4));
+    ByteBuffer direct = ByteBuffer.allocateDirect(8);
+    direct.put("xxname".getBytes(StandardCharsets.UTF_8));
+    Assert.assertSame(key, cache.get(direct, 2, 4));
+    Assert.assertSame(key, cache.get(new String("name")));
+    Assert.assertEquals("nam", cache.get("name".toCharArray(), 0, 3));
+  }
+
+  @Test
+  public void nonAsciiKeys() {
+    JsonKeyCache cache = new JsonKeyCache();
+    byte[] bytes = "n\u00e4me".getBytes(StandardCharsets.UTF_8);
+    String key = cache.get(bytes, 0, bytes.length);
+    Assert.assertEquals("n\u00e4me", key);
+    Assert.assertSame(key, cache.get(bytes, 0, bytes.length));
+    Assert.assertSame(key, cache.get("n\u00e4me".toCharArray(), 0, 4));
+  }
+
+  @Test
+  public void parserSharesKeys() throws JsonParserException {
+    JsonParser jp = new JsonParser(new JsonKeyCache());
+    String json = "{ \"name\": \"value\", \"object\": { \"name\": \"value2\" } }";
+    JsonObject first = jp.parse(json).asObject();
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    JsonObject second = jp.parse(bytes, 0, bytes.length).asObject();
+    JsonObject lazy = jp.parseLazy(json).asObject();
+
+    String name = first.value().get(0).getName();
+    Assert.assertSame(name, first.get("object").asObject().value().get(0).getName());
+    Assert.assertSame(name, second.value().get(0).getName());
+    Assert.assertSame(name, lazy.value().get(0).getName());
+    Assert.assertSame(first.value().get(1).getName(), second.value().get(1).getName());
+  }
+}
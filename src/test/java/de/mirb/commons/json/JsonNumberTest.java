@@ -0,0 +1,94 @@
+package de.mirb.pg.pojo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+public class JsonNumberTest {
+
+  @Test
+  public void integral() {
+    JsonNumber number = JsonNumber.valueOf("-4711");
+    Assert.assertTrue(number.isIntegral());
+    Assert.assertEquals(-4711L, number.asLong());
+    Assert.assertEquals(-4711d, number.asDouble(), 0d);
+    Assert.assertEquals(Long.valueOf(-4711), number.value());
+    Assert.assertEquals("-4711", number.valueAsString());
+
+    number = JsonNumber.valueOf(String.valueOf(Long.MAX_VALUE));
+    Assert.assertTrue(number.isIntegral());
+    Assert.assertEquals(Long.MAX_VALUE, number.asLong());
+    number = JsonNumber.valueOf(String.valueOf(Long.MIN_VALUE));
+    Assert.assertTrue(number.isIntegral());
+    Assert.assertEquals(Long.MIN_VALUE, number.asLong());
+    Assert.assertFalse(JsonNumber.valueOf("9223372036854775808").isIntegral());
+  }
+
+  @Test
+  public void fractional() {
+    assertDouble(-47.11, "-47.11");
+    assertDouble(4711e-2, "4711e-2");
+    assertDouble(-0.5e3, "-0.5E+3");
+    assertDouble(0.001, "0.001");
+    assertDouble(1.5e22, "15e21");
+    Assert.assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(JsonNumber.valueOf("-0.0").asDouble()));
+    Assert.assertFalse(JsonNumber.valueOf("1.0").isIntegral());
+    Assert.assertEquals(Double.valueOf(1.0), JsonNumber.valueOf("1.0").value());
+  }
+
+  @Test
+  public void bigDecimalFallback() {
+    JsonNumber number = JsonNumber.valueOf("92233720368547758070");
+    Assert.assertFalse(number.isIntegral());
+    Assert.assertEquals(new BigDecimal("92233720368547758070"), number.value());
+    Assert.assertEquals(9.223372036854776E19, number.asDouble(), 0d);
+
+    // not exactly representable via the fast path (power of ten out of range)
+    assertDouble(1.7976931348623157e308, "1.7976931348623157e308");
+    assertDouble(4.9e-324, "4.9e-324");
+    assertDouble(0.1234567890123456789, "0.1234567890123456789");
+    Assert.assertEquals(new BigDecimal("1e400"), JsonNumber.valueOf("1e400").asBigDecimal());
+  }
+
+  @Test
+  public void parse() throws JsonParserException {
+    JsonParser parser = new JsonParser();
+    JsonObject object = parser.parse("{ \"a\": 12, \"b\": -47.11e1, \"c\": { \"d\": 1e-3 } }").asObject();
+    Assert.assertEquals(12L, object.get("a").asNumber().asLong());
+    Assert.assertEquals(-471.1, object.get("b").asNumber().asDouble(), 0d);
+    Assert.assertEquals(0.001, object.get("c").asObject().get("d").asNumber().asDouble(), 0d);
+
+    byte[] utf8 = "{ \"a\": 12, \"b\": -47.11e1 }".getBytes();
+    object = parser.parse(utf8, 0, utf8.length).asObject();
+    Assert.assertEquals(12L, object.get("a").asNumber().asLong());
+    Assert.assertEquals(-471.1, object.get("b").asNumber().asDouble(), 0d);
+
+    object = parser.parseLazy(utf8, 0, utf8.length).asObject();
+    Assert.assertEquals(12L, object.get("a").asNumber().asLong());
+    Assert.assertEquals(-471.1, object.get("b").asNumber().asDouble(), 0d);
+  }
+
+  @Test
+  public void pushParse() throws JsonParserException {
+    JsonPushParser parser = new JsonPushParser();
+    parser.feed("{ \"a\": 1".toCharArray());
+    parser.feed("2, \"b\": -47.".toCharArray());
+    parser.feed("11e1 }".toCharArray());
+    JsonObject object = parser.endOfInput().asObject();
+    Assert.assertEquals(12L, object.get("a").asNumber().asLong());
+    Assert.assertEquals(-471.1, object.get("b").asNumber().asDouble(), 0d);
+  }
+
+  @Test(expected = JsonParserException.class)
+  public void exponentOutOfRange() throws JsonParserException {
+    new JsonParser().parse("{ \"a\": 1e99999999999 }");
+  }
+
+  private static void assertDouble(double expected, String literal) {
+    JsonNumber number = JsonNumber.valueOf(literal);
+    Assert.assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(number.asDouble()));
+    Assert.assertEquals(Double.doubleToLongBits(expected),
+        Double.doubleToLongBits(new JsonNumber(new BigDecimal(literal)).asDouble()));
+  }
+}
@@ -0,0 +1,73 @@
+package de.mirb.pg.pojo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonObjectTest {
+
+  @Test
+  public void smallObject() {
+    JsonObject object = JsonObject.with(
+        JsonPair.with("name").value(new JsonString("value")).build(),
+        JsonPair.with("name2").value(new JsonString("value2")).build()).build();
+
+    Assert.assertTrue(object.has("name"));
+    Assert.assertEquals("value2", object.get("name2").valueAsString());
+    Assert.assertFalse(object.has("name3"));
+    Assert.assertNull(object.get("name3"));
+    Assert.assertSame(object.value(), object.value());
+  }
+
+  @Test
+  public void largeObject() {
+    JsonObject.JsonObjectBuilder builder = JsonObject.start();
+    for (int i = 0; i < 500; i++) {
+      builder.add(JsonPair.with("key" + i).value(new JsonString("value" + i)).build());
+    }
+    builder.add(JsonPair.with("key42").value(new JsonString("duplicate")).build());
+    JsonObject object = builder.build();
+
+    Assert.assertEquals(501, object.value().size());
+    for (int i = 0; i < 500; i++) {
+      Assert.assertEquals("value" + i, object.get("key" + i).valueAsString());
+    }
+    Assert.assertEquals("value42", object.get("key42").valueAsString());
+    Assert.assertEquals("duplicate", object.value().get(500).getValue().valueAsString());
+    Assert.assertFalse(object.has("key500"));
+    Assert.assertFalse(object.has(""));
+  }
+
+  @Test
+  public void lazyObject() throws JsonParserException {
+    StringBuilder json = new StringBuilder("{ ");
+    for (int i = 0; i < 20; i++) {
+      json.append(i == 0 ? "" : ", ").append("\"key").append(i).append("\": \"value").append(i).append('"');
+    }
+    JsonObject object = new JsonParser().parseLazy(json.append(" }").toString()).asObject();
+
+    Assert.assertEquals("value7", object.get("key7").valueAsString());
+    Assert.assertEquals("value19", object.get("key19").valueAsString());
+    Assert.assertNull(object.get("key20"));
+  }
+
+  @Test
+  public void builderHandsOverPairs() {
+    JsonObject.JsonObjectBuilder builder = JsonObject.start()
+        .add(JsonPair.with("a").value(new JsonString("1")).build());
+    JsonObject first = builder.build();
+    builder.add(JsonPair.with("b").value(new JsonString("2")).build());
+    JsonObject second = builder.build();
+
+    Assert.assertEquals(1, first.value().size());
+    Assert.assertFalse(first.has("b"));
+    Assert.assertEquals(1, second.value().size());
+    Assert.assertEquals("2", second.get("b").valueAsString());
+    Assert.assertTrue(builder.build().value().isEmpty());
+    try {
+      first.value().clear();
+      Assert.fail("Expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+  }
+}
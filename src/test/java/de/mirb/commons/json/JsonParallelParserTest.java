@@ -0,0 +1,167 @@
+package de.mirb.pg.pojo;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+public class JsonParallelParserTest {
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  @After
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private static byte[] utf8(String json) {
+    return json.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static List<String> names(List<JsonValue> values) {
+    return values.stream().map(v -> v.asObject().get("name").valueAsString()).collect(Collectors.toList());
+  }
+
+  @Test
+  public void lines() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      sb.append("{ \"name\": \"value").append(i).append("\" }").append(i % 3 == 0 ? "\r\n" : "\n");
+      if (i % 7 == 0) {
+        sb.append("  \n");
+      }
+      expected.add("value" + i);
+    }
+    byte[] json = utf8(sb.toString());
+
+    JsonParallelParser parser = new JsonParallelParser(executor, new JsonParserPool(), 64);
+    Assert.assertEquals(expected, names(parser.streamLines(json, 0, json.length).collect(Collectors.toList())));
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(json.length);
+    direct.put(json);
+    direct.flip();
+    Assert.assertEquals(expected, names(parser.streamLines(direct).collect(Collectors.toList())));
+  }
+
+  @Test
+  public void array() throws Exception {
+    StringBuilder sb = new StringBuilder("[\n");
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      if (i > 0) {
+        sb.append(",\n");
+      }
+      // commas, brackets and escaped quotes in strings must not end a chunk
+      sb.append("  { \"name\": \"a, \\\"b\\\" ] ").append(i).append("\", \"list\": [1, [2, 3], { \"x\": \"}\" }] }");
+      expected.add("a, \"b\" ] " + i);
+    }
+    byte[] json = utf8(sb.append("\n]\n").toString());
+
+    List<JsonValue> values = new ArrayList<>();
+    new JsonParallelParser(executor, new JsonParserPool(), 100)
+        .parseArray(json, 0, json.length, values::add);
+    Assert.assertEquals(expected, names(values));
+    Assert.assertEquals(3, values.get(7).asObject().get("list").asArray().size());
+  }
+
+  @Test
+  public void scalarElements() throws Exception {
+    byte[] json = utf8("[1, \"two\", 3.5, [4]]");
+    List<JsonValue> values = new JsonParallelParser(executor, new JsonParserPool(), 1)
+        .streamArray(json, 0, json.length).collect(Collectors.toList());
+    Assert.assertEquals(4, values.size());
+    Assert.assertEquals(1L, values.get(0).asNumber().asLong());
+    Assert.assertEquals("two", values.get(1).valueAsString());
+    Assert.assertEquals(3.5, values.get(2).asNumber().asDouble(), 0.0);
+    Assert.assertEquals(4L, values.get(3).asArray().getLong(0));
+  }
+
+  @Test
+  public void emptyInput() throws Exception {
+    JsonParallelParser parser = new JsonParallelParser();
+    byte[] array = utf8(" [ ] ");
+    Assert.assertEquals(0, parser.streamArray(array, 0, array.length).count());
+    byte[] lines = utf8("\n\n");
+    Assert.assertEquals(0, parser.streamLines(lines, 0, lines.length).count());
+  }
+
+  @Test
+  public void invalidLine() {
+    byte[] json = utf8("{ \"name\": \"a\" }\n{ \"name\": }\n");
+    final List<JsonValue> values = new ArrayList<>();
+    try {
+      new JsonParallelParser().parseLines(json, 0, json.length, values::add);
+      Assert.fail("Expected exception");
+    } catch (JsonParserException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid line at offset 16"));
+    }
+    Assert.assertEquals(1, values.size());
+  }
+
+  @Test
+  public void trailingContentInLine() {
+    byte[] json = utf8("{ \"name\": \"a\" }\n{ \"name\": \"b\" } junk\n");
+    final List<JsonValue> values = new ArrayList<>();
+    try {
+      new JsonParallelParser().parseLines(json, 0, json.length, values::add);
+      Assert.fail("Expected exception");
+    } catch (JsonParserException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid line at offset 16"));
+    }
+    Assert.assertEquals(1, values.size());
+  }
+
+  @Test
+  public void invalidArray() {
+    assertInvalidArray("{ \"name\": \"a\" }");
+    assertInvalidArray("[1, 2");
+    assertInvalidArray("[1, 2] 3");
+    assertInvalidArray("[1, 2, ]");
+    assertInvalidArray("[1, \"2]");
+    assertInvalidArray("[1, 2 3]");
+  }
+
+  @Test(expected = JsonParallelParser.UncheckedParserException.class)
+  public void invalidStream() {
+    byte[] json = utf8("[1, x]");
+    new JsonParallelParser().streamArray(json, 0, json.length).count();
+  }
+
+  @Test
+  public void elementsBeforeInvalidEnd() {
+    byte[] json = utf8("[1, 2, 3");
+    final List<JsonValue> values = new ArrayList<>();
+    try {
+      new JsonParallelParser(executor, new JsonParserPool(), 1)
+          .parseArray(json, 0, json.length, values::add);
+      Assert.fail("Expected exception");
+    } catch (JsonParserException e) {
+      Assert.assertEquals(2, values.size());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidChunkSize() {
+    new JsonParallelParser(executor, new JsonParserPool(), 0);
+  }
+
+  private void assertInvalidArray(String json) {
+    byte[] bytes = utf8(json);
+    Consumer<JsonValue> ignore = v -> { };
+    try {
+      new JsonParallelParser(executor, new JsonParserPool(), 1)
+          .parseArray(bytes, 0, bytes.length, ignore);
+      Assert.fail("Expected exception for " + json);
+    } catch (JsonParserException e) {
+      Assert.assertNotNull(e.getMessage());
+    }
+  }
+}
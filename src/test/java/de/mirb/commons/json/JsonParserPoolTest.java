@@ -0,0 +1,62 @@
+package de.mirb.pg.pojo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class JsonParserPoolTest {
+
+  @Test
+  public void acquireRelease() {
+    JsonParserPool pool = new JsonParserPool(1, null);
+    JsonParser first = pool.acquire();
+    JsonParser second = pool.acquire();
+    Assert.assertNotSame(first, second);
+    pool.release(first);
+    pool.release(second);
+    Assert.assertEquals(1, pool.getIdleCount());
+    Assert.assertSame(first, pool.acquire());
+    Assert.assertEquals(0, pool.getIdleCount());
+  }
+
+  @Test
+  public void sharedKeyCache() {
+    JsonKeyCache cache = new JsonKeyCache();
+    Assert.assertSame(cache, new JsonParserPool(2, cache).acquire().getKeyCache());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeMaxIdle() {
+    new JsonParserPool(-1, null);
+  }
+
+  @Test
+  public void concurrentParse() throws Exception {
+    final JsonParserPool pool = new JsonParserPool();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        final String value = "value" + i;
+        results.add(executor.submit(new Callable<String>() {
+          @Override
+          public String call() throws Exception {
+            return pool.parse("{ \"name\": \"" + value + "\" }").asObject().get("name").valueAsString();
+          }
+        }));
+      }
+      for (int i = 0; i < results.size(); i++) {
+        Assert.assertEquals("value" + i, results.get(i).get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    Assert.assertTrue(pool.getIdleCount() <= 4);
+  }
+}
@@ -1,9 +1,20 @@
 package de.mirb.pg.pojo;
 
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.*;
 
@@ -12,6 +23,9 @@ import static org.junit.Assert.*;
  */
 public class JsonParserTest {
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   @Test
   public void basic() throws JsonParserException {
     JsonParser jp = new JsonParser();
@@ -56,4 +70,259 @@ public class JsonParserTest {
     Assert.assertEquals("value2", pair.get(1).getValue().valueAsString());
   }
 
-}
\ No newline at end of file
+  @Test
+  public void utf8Bytes() throws JsonParserException {
+    JsonParser jp = new JsonParser();
+    byte[] json = "  { \"n\u00e4me\" : { \"name\": \"v\u00e4lue \u00e9\" } } ".getBytes(StandardCharsets.UTF_8);
+
+    assertUtf8Object(jp.parse(json, 0, json.length));
+    assertUtf8Object(jp.parse(ByteBuffer.wrap(json)));
+    ByteBuffer direct = ByteBuffer.allocateDirect(json.length + 4);
+    direct.put(new byte[] { 'x', 'x' }).put(json).flip();
+    direct.position(2);
+    assertUtf8Object(jp.parse(direct));
+    Assert.assertEquals(2, direct.position());
+  }
+
+  private void assertUtf8Object(JsonValue value) {
+    List<JsonPair> pair = value.asObject().value();
+    Assert.assertEquals(1, pair.size());
+    Assert.assertEquals("n\u00e4me", pair.get(0).getName());
+    pair = pair.get(0).getValue().asObject().value();
+    Assert.assertEquals("name", pair.get(0).getName());
+    Assert.assertEquals("v\u00e4lue \u00e9", pair.get(0).getValue().valueAsString());
+  }
+
+  @Test(expected = JsonParserException.class)
+  public void invalidUtf8Bytes() throws JsonParserException {
+    byte[] json = { '{', '"', 'a', (byte) 0xC3, '"', ':', '"', 'b', '"', '}' };
+    new JsonParser().parse(json, 0, json.length);
+  }
+  @Test
+  public void lazyObject() throws JsonParserException {
+    JsonParser jp = new JsonParser();
+    String json = "{ \"name\": \"value\", \"object\" : { \"inner\": \"va\\\"lue\", \"next\": { \"a\": \"b\" } }, "
+        + "\"name2\": \"value2\" }";
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+    for (JsonValue value : new JsonValue[] { jp.parseLazy(json), jp.parseLazy(bytes, 0, bytes.length) }) {
+      List<JsonPair> pair = value.asObject().value();
+      Assert.assertEquals(3, pair.size());
+      Assert.assertEquals("name2", pair.get(2).getName());
+      Assert.assertEquals("value2", pair.get(2).getValue().valueAsString());
+      Assert.assertSame(pair.get(2).getValue(), pair.get(2).getValue());
+      Assert.assertEquals("name", pair.get(0).getName());
+      Assert.assertEquals("value", pair.get(0).getValue().valueAsString());
+      List<JsonPair> inner = pair.get(1).getValue().asObject().value();
+      Assert.assertEquals(2, inner.size());
+      Assert.assertEquals("inner", inner.get(0).getName());
+      Assert.assertEquals("va\"lue", inner.get(0).getValue().valueAsString());
+      Assert.assertEquals("b", inner.get(1).getValue().asObject().value().get(0).getValue().valueAsString());
+    }
+  }
+
+  @Test(expected = JsonParserException.class)
+  public void lazyObjectValidates() throws JsonParserException {
+    new JsonParser().parseLazy("{ \"name\": \"value\", \"object\" : { \"inner\": \"value\" }");
+  }
+
+  @Test
+  public void reuse() throws JsonParserException {
+    JsonParser jp = new JsonParser();
+    JsonValue lazy = jp.parseLazy("{ \"lazy\": \"value\" }");
+    JsonValue first = jp.parse("{ \"name\": \"value\", \"long\": \"" + repeat('x', 1000) + "\" }");
+    try {
+      jp.parse("{ \"name\": ");
+      Assert.fail("Expected JsonParserException");
+    } catch (JsonParserException e) {
+      // the next document starts with a clean state
+    }
+    byte[] bytes = "{ \"a\": \"b\" }".getBytes(StandardCharsets.UTF_8);
+    JsonValue second = jp.parse(bytes, 0, bytes.length);
+    JsonValue third = jp.parse("{ \"c\": \"d\" }");
+
+    Assert.assertEquals("value", first.asObject().get("name").valueAsString());
+    Assert.assertEquals(1000, first.asObject().get("long").valueAsString().length());
+    Assert.assertEquals("b", second.asObject().get("a").valueAsString());
+    Assert.assertEquals("d", third.asObject().get("c").valueAsString());
+    Assert.assertEquals("value", lazy.asObject().get("lazy").valueAsString());
+    Assert.assertSame(JsonParser.forCurrentThread(), JsonParser.forCurrentThread());
+  }
+
+  @Test
+  public void mappedFile() throws Exception {
+    StringBuilder sb = new StringBuilder("{ \"numbers\": [");
+    for (int i = 0; i < 1000; i++) {
+      sb.append(i > 0 ? ", " : "").append(i);
+    }
+    sb.append("], \"text\": \"").append(repeat('x', 5000)).append("\", \"name\": \"value\" }\n");
+    File file = folder.newFile();
+    Files.write(file.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+
+    JsonParser jp = new JsonParser();
+    JsonObject object = jp.parse(file.toPath()).asObject();
+    Assert.assertEquals(999L, object.get("numbers").asArray().getLong(999));
+    Assert.assertEquals(5000, object.get("text").valueAsString().length());
+    Assert.assertEquals("value", object.get("name").valueAsString());
+
+    try (FileChannel channel = FileChannel.open(file.toPath())) {
+      // windows which are smaller than the tokens
+      object = jp.parse(channel, 64).asObject();
+      Assert.assertEquals(999L, object.get("numbers").asArray().getLong(999));
+      Assert.assertEquals(5000, object.get("text").valueAsString().length());
+      Assert.assertEquals(0, channel.position());
+    }
+
+    final List<String> keys = new ArrayList<>();
+    jp.parse(file.toPath(), new JsonHandler() {
+      @Override
+      public boolean key(String name) {
+        keys.add(name);
+        return true;
+      }
+    });
+    Assert.assertEquals(Arrays.asList("numbers", "text", "name"), keys);
+  }
+
+  private static String repeat(char c, int count) {
+    char[] chars = new char[count];
+    Arrays.fill(chars, c);
+    return new String(chars);
+  }
+
+  @Test
+  public void trailingContent() throws Exception {
+    for (String json : new String[] {"{ \"a\": \"b\" } x", "{ \"a\": \"b\" } \"x", "{ \"a\": [1] } garbage",
+        "{ \"a\": \"b\" } { \"c\": \"d\" }", "[1] ]"}) {
+      byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+      assertInvalid(json, () -> new JsonParser().parse(json));
+      assertInvalid(json, () -> new JsonParser().parse(bytes, 0, bytes.length));
+      assertInvalid(json, () -> new JsonParser().parse(ByteBuffer.wrap(bytes)));
+      assertInvalid(json, () -> new JsonParser().parseLazy(json));
+      assertInvalid(json, () -> new JsonParser().parseIndexed(bytes, 0, bytes.length));
+      assertInvalid(json, () -> new JsonParser().parse(json, new JsonHandler() { }));
+      assertInvalid(json, () -> new JsonParser().parse(json, JsonProjection.of("/a")));
+      assertInvalid(json, () -> new JsonParser().parse(json, Object.class));
+      assertInvalid(json, () -> {
+        JsonPushParser push = new JsonPushParser();
+        push.feed(bytes);
+        push.endOfInput();
+      });
+    }
+    // trailing whitespace is fine
+    Assert.assertEquals("b", new JsonParser().parse("{ \"a\": \"b\" } \n\t").asObject().get("a").valueAsString());
+  }
+
+  @Test
+  public void emptyObjects() throws Exception {
+    JsonParser parser = new JsonParser();
+    for (String json : new String[] {"{}", "{\"a\":{}}", "[{},{}]", "{\"a\":{},\"b\":[{}],\"c\":{\"d\":{}}}"}) {
+      byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+      Assert.assertEquals(json, JsonWriter.toJson(parser.parse(json)));
+      Assert.assertEquals(json, JsonWriter.toJson(parser.parseLazy(json)));
+      Assert.assertEquals(json, JsonWriter.toJson(parser.parseLazy(bytes, 0, bytes.length)));
+      Assert.assertEquals(json, JsonWriter.toJson(parser.parseIndexed(bytes, 0, bytes.length)));
+    }
+    Assert.assertEquals(0, parser.parseLazy("{\"a\":{}}").asObject().get("a").asObject().value().size());
+  }
+
+  @Test
+  public void mismatchedBracketsInSkippedValues() throws Exception {
+    StringBuilder deep = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      deep.append(i % 3 == 0 ? "{ \"x\": " : "[");
+    }
+    deep.append('1');
+    StringBuilder closing = new StringBuilder();
+    for (int i = 99; i >= 0; i--) {
+      closing.append(i % 3 == 0 ? '}' : ']');
+    }
+    JsonHandler skipB = new JsonHandler() {
+      @Override
+      public boolean key(String name) {
+        return !"b".equals(name);
+      }
+    };
+    String valid = "{ \"a\": 1, \"b\": " + deep + closing + " }";
+    new JsonParser().parse(valid, skipB);
+    Assert.assertEquals(1, new JsonParser().parse(valid, JsonProjection.of("/a")).asObject().value().size());
+
+    // the innermost object is closed by a bracket
+    String deepMismatch = "{ \"a\": 1, \"b\": " + deep + "]" + closing.substring(1) + " }";
+    for (String json : new String[] {"{ \"a\": 1, \"b\": [1} }", "{ \"a\": 1, \"b\": { \"c\": 1] }",
+        "{ \"a\": 1, \"b\": [[1]} }", deepMismatch}) {
+      assertInvalid(json, () -> new JsonParser().parse(json, skipB));
+      assertInvalid(json, () -> new JsonParser().parse(json, JsonProjection.of("/a")));
+      assertInvalid(json, () -> new JsonParser().parse(json, Map.class));
+      assertInvalid(json, () -> new JsonParser().parse(json, Skipping.class));
+      assertInvalid(json, () -> new JsonParser().select(json, JsonPath.compile("/c")));
+    }
+  }
+
+  private static class Skipping {
+    private int a;
+  }
+
+  @Test
+  public void reentrantParse() throws Exception {
+    final List<String> inner = new ArrayList<>();
+    JsonParser.forCurrentThread().parse("{ \"a\": \"{ \\\"b\\\": \\\"c\\\" }\", \"d\": [1, 2] }", new JsonHandler() {
+      @Override
+      public void stringValue(String value) {
+        try {
+          // the outer document is still parsed with the buffers of the thread parser
+          inner.add(JsonParser.forCurrentThread().parse("{ \"b\": \"c\" }").asObject().get("b").valueAsString());
+          byte[] bytes = "[3, 4]".getBytes(StandardCharsets.UTF_8);
+          inner.add(Arrays.toString(JsonParser.forCurrentThread().parse(bytes, 0, bytes.length).asArray().toLongArray()));
+        } catch (JsonParserException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    });
+    Assert.assertEquals(Arrays.asList("c", "[3, 4]"), inner);
+    Assert.assertEquals(2, JsonParser.forCurrentThread().parse("{ \"a\": [1, 2] }").asObject().get("a").asArray().size());
+  }
+
+  @Test
+  public void concurrentUseOfOneInstance() throws Exception {
+    final JsonParser parser = new JsonParser();
+    final List<Throwable> errors = new ArrayList<>();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final int id = t;
+      threads[t] = new Thread(() -> {
+        try {
+          for (int i = 0; i < 2000; i++) {
+            String json = "{ \"id\": \"t" + id + "-" + i + "\", \"values\": [" + i + ", " + id + "] }";
+            JsonObject object = id % 2 == 0 ? parser.parse(json).asObject()
+                : parser.parse(json.getBytes(StandardCharsets.UTF_8), 0, json.length()).asObject();
+            Assert.assertEquals("t" + id + "-" + i, object.get("id").valueAsString());
+            Assert.assertArrayEquals(new long[] {i, id}, object.get("values").asArray().toLongArray());
+          }
+        } catch (Throwable e) {
+          synchronized (errors) {
+            errors.add(e);
+          }
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    Assert.assertEquals(Collections.emptyList(), errors);
+  }
+
+  private interface ParseCall {
+    void call() throws Exception;
+  }
+
+  private static void assertInvalid(String json, ParseCall call) throws Exception {
+    try {
+      call.call();
+      Assert.fail("Expected JsonParserException for " + json);
+    } catch (JsonParserException e) {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package de.mirb.pg.pojo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class JsonPathTest {
+
+  private static final String ORDERS = "{ \"header\": { \"id\": \"h1\", \"tags\": [\"a\", \"b\"] },"
+      + " \"orders\": [ { \"customer\": { \"id\": 4711, \"name\": \"Gr\u00fc\u00dfe\" }, \"items\": [1, 2, 3] },"
+      + " { \"customer\": { \"id\": 4712 }, \"items\": [] } ],"
+      + " \"a/b\": \"slash\", \"m~n\": \"tilde\", \"0\": \"zero\" }";
+
+  @Test
+  public void pointerOnTree() throws Exception {
+    JsonValue tree = new JsonParser().parse(ORDERS);
+    Assert.assertEquals(4711, JsonPath.compile("/orders/0/customer/id").get(tree).asNumber().asLong());
+    Assert.assertEquals(3, JsonPath.compile("/orders/0/items/2").get(tree).asNumber().asLong());
+    Assert.assertEquals("slash", JsonPath.compile("/a~1b").get(tree).valueAsString());
+    Assert.assertEquals("tilde", JsonPath.compile("/m~0n").get(tree).valueAsString());
+    Assert.assertEquals("zero", JsonPath.compile("/0").get(tree).valueAsString());
+    Assert.assertSame(tree, JsonPath.compile("").get(tree));
+    Assert.assertNull(JsonPath.compile("/orders/2").get(tree));
+    Assert.assertNull(JsonPath.compile("/orders/first").get(tree));
+    Assert.assertNull(JsonPath.compile("/header/id/x").get(tree));
+  }
+
+  @Test
+  public void jsonPathOnTree() throws Exception {
+    JsonValue tree = new JsonParser().parse(ORDERS);
+    Assert.assertEquals(4712, JsonPath.compile("$.orders[1].customer.id").get(tree).asNumber().asLong());
+    Assert.assertEquals("b", JsonPath.compile("$['header'].tags[1]").get(tree).valueAsString());
+    Assert.assertEquals("slash", JsonPath.compile("$[\"a/b\"]").get(tree).valueAsString());
+    // an index only selects array elements
+    Assert.assertNull(JsonPath.compile("$[0]").get(tree));
+    Assert.assertEquals(JsonPath.compile("$.orders[0]"), JsonPath.compile("$['orders'][0]"));
+  }
+
+  @Test
+  public void select() throws Exception {
+    JsonPath[] paths = {
+        JsonPath.compile("/orders/0/customer/name"),
+        JsonPath.compile("$.header.tags"),
+        JsonPath.compile("/orders/1/customer/id"),
+        JsonPath.compile("/orders/5"),
+        JsonPath.compile("/0"),
+        JsonPath.compile("/orders/0/items/1")
+    };
+    JsonValue tree = new JsonParser().parse(ORDERS);
+    byte[] bytes = ORDERS.getBytes(StandardCharsets.UTF_8);
+    for (JsonValue[] values : new JsonValue[][] {
+        new JsonParser().select(ORDERS, paths), new JsonParser().select(bytes, 0, bytes.length, paths)}) {
+      Assert.assertEquals(paths.length, values.length);
+      for (int i = 0; i < paths.length; i++) {
+        Assert.assertEquals(paths[i].toString(), JsonWriter.toJson(paths[i].get(tree)), JsonWriter.toJson(values[i]));
+      }
+    }
+  }
+
+  @Test
+  public void selectNested() throws Exception {
+    // a selected value which also contains other paths
+    JsonValue[] values = new JsonParser().select(ORDERS,
+        JsonPath.compile("/orders/0/customer/id"), JsonPath.compile("/orders/0"), JsonPath.compile("/orders/0/items"));
+    Assert.assertEquals(4711, values[0].asNumber().asLong());
+    Assert.assertEquals("Gr\u00fc\u00dfe", values[1].asObject().get("customer").asObject().get("name").valueAsString());
+    Assert.assertArrayEquals(new long[] {1, 2, 3}, values[2].asArray().toLongArray());
+  }
+
+  @Test
+  public void earlyTermination() throws Exception {
+    // the rest of the document is not read once all paths are found
+    String json = "{ \"id\": \"x\", \"payload\": { \"a\": [1, 2, ";
+    Assert.assertEquals("x", new JsonParser().select(json, JsonPath.compile("/id"))[0].valueAsString());
+    // the skipped part of an object is still validated up to the value
+    try {
+      new JsonParser().select("{ \"payload\": [1, 2, @], \"id\": 1 }", JsonPath.compile("/id"));
+      Assert.fail("Expected JsonParserException");
+    } catch (JsonParserException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void firstPairCounts() throws Exception {
+    JsonValue[] values = new JsonParser().select("{ \"a\": { \"c\": 1 }, \"a\": { \"b\": 2 } }", JsonPath.compile("/a/b"));
+    Assert.assertNull(values[0]);
+  }
+
+  @Test
+  public void literalsSelectNull() throws Exception {
+    JsonValue[] values = new JsonParser().select("{ \"t\": true, \"f\": false, \"n\": null, \"a\": [null, 1], \"b\": 2 }",
+        JsonPath.compile("/t"), JsonPath.compile("/f"), JsonPath.compile("/n"), JsonPath.compile("/a/0"),
+        JsonPath.compile("/t/x"), JsonPath.compile("/b"));
+    Assert.assertNull(values[0]);
+    Assert.assertNull(values[1]);
+    Assert.assertNull(values[2]);
+    Assert.assertNull(values[3]);
+    Assert.assertNull(values[4]);
+    Assert.assertEquals(2, values[5].asNumber().asLong());
+  }
+
+  @Test
+  public void escapedNames() throws Exception {
+    String json = "{ \"a\\\"b\": \"escaped\", \"\u00e4\": \"umlaut\" }";
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    JsonValue[] values = new JsonParser().select(bytes, 0, bytes.length,
+        JsonPath.compile("/a\"b"), JsonPath.compile("/\u00e4"));
+    Assert.assertEquals("escaped", values[0].valueAsString());
+    Assert.assertEquals("umlaut", values[1].valueAsString());
+  }
+
+  @Test
+  public void invalidPaths() {
+    for (String path : new String[] {"orders", "/a~2", "/a~", "$.", "$[x]", "$['a'", "$[01]", "$a"}) {
+      try {
+        JsonPath.compile(path);
+        Assert.fail("Expected IllegalArgumentException for " + path);
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package de.mirb.pg.pojo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class JsonProjectionTest {
+
+  private static final String EVENT = "{ \"id\": \"e1\", \"payload\": { \"big\": [1, 2, { \"x\": \"y\" }], \"text\": \"t\" },"
+      + " \"user\": { \"name\": \"n\", \"address\": { \"city\": \"c\", \"zip\": 12345 }, \"id\": 7 },"
+      + " \"items\": [ { \"price\": 1.5, \"sku\": \"a\" }, \"scalar\", [ { \"price\": 2 } ], { \"sku\": \"b\" } ],"
+      + " \"ts\": 1234567890123 }";
+
+  @Test
+  public void projection() throws Exception {
+    JsonProjection projection = JsonProjection.of("/id", "/user/name", "$.user.address", "/items/price", "/missing");
+    String expected = "{\"id\":\"e1\",\"user\":{\"name\":\"n\",\"address\":{\"city\":\"c\",\"zip\":12345}},"
+        + "\"items\":[{\"price\":1.5},[{\"price\":2}],{}]}";
+    Assert.assertEquals(expected, JsonWriter.toJson(new JsonParser().parse(EVENT, projection)));
+    byte[] bytes = EVENT.getBytes(StandardCharsets.UTF_8);
+    Assert.assertEquals(expected, JsonWriter.toJson(new JsonParser().parse(bytes, 0, bytes.length, projection)));
+  }
+
+  @Test
+  public void prefixKeepsWholeValue() throws Exception {
+    // a path which is the prefix of another path keeps the complete value
+    JsonProjection projection = JsonProjection.of("/user/address/zip", "/user", "/user/name");
+    JsonObject object = new JsonParser().parse(EVENT, projection).asObject();
+    Assert.assertEquals(1, object.value().size());
+    Assert.assertEquals(3, object.get("user").asObject().value().size());
+  }
+
+  @Test
+  public void nestedValueIsNoObject() throws Exception {
+    JsonObject object = new JsonParser().parse(EVENT, JsonProjection.of("/id/value", "/ts")).asObject();
+    Assert.assertFalse(object.has("id"));
+    Assert.assertEquals(1234567890123L, object.get("ts").asNumber().asLong());
+  }
+
+  @Test
+  public void skippedValuesAreValidated() throws Exception {
+    try {
+      new JsonParser().parse("{ \"skipped\": [1, @], \"id\": 1 }", JsonProjection.of("/id"));
+      Assert.fail("Expected JsonParserException");
+    } catch (JsonParserException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void emptyObjects() throws Exception {
+    // like select and the handler mode, projections accept empty objects (projected or skipped)
+    JsonProjection projection = JsonProjection.of("/a/x", "/c");
+    for (String json : new String[] {"{}", "{\"a\":{}}", "{\"a\":{},\"b\":{},\"c\":{}}", "{\"a\":[{},{\"x\":1}]}"}) {
+      Assert.assertNotNull(json, new JsonParser().parse(json, projection));
+    }
+    Assert.assertEquals("{\"a\":{},\"c\":{}}",
+        JsonWriter.toJson(new JsonParser().parse("{\"a\":{},\"b\":{},\"c\":{}}", projection)));
+    Assert.assertEquals("{}", JsonWriter.toJson(new JsonParser().parse("{\"a\":{}}", JsonProjection.of("/b"))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void arrayIndex() {
+    JsonProjection.of("$.items[0].price");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void emptyPath() {
+    JsonProjection.of("");
+  }
+}
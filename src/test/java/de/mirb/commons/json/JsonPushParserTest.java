@@ -0,0 +1,102 @@
+package de.mirb.pg.pojo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class JsonPushParserTest {
+
+  private static final String JSON = " { \"object\" : { \"n\u00e4me\": \"value\", \"name2\": \"va\\\"lue2\" }, "
+      + "\"name3\" : \"value3\" }  ";
+
+  @Test
+  public void charChunks() throws JsonParserException {
+    JsonPushParser parser = new JsonPushParser();
+    char[] chars = JSON.toCharArray();
+    for (int chunk = 1; chunk <= chars.length; chunk++) {
+      for (int i = 0; i < chars.length; i += chunk) {
+        parser.feed(chars, i, Math.min(chunk, chars.length - i));
+      }
+      assertObject(parser.endOfInput());
+    }
+  }
+
+  @Test
+  public void byteChunks() throws JsonParserException {
+    JsonPushParser parser = new JsonPushParser();
+    byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+    for (int chunk = 1; chunk <= bytes.length; chunk++) {
+      for (int i = 0; i < bytes.length; i += chunk) {
+        parser.feed(bytes, i, Math.min(chunk, bytes.length - i));
+      }
+      assertObject(parser.endOfInput());
+    }
+  }
+
+  private void assertObject(JsonValue value) {
+    List<JsonPair> pairs = value.asObject().value();
+    Assert.assertEquals(2, pairs.size());
+    Assert.assertEquals("object", pairs.get(0).getName());
+    Assert.assertEquals("name3", pairs.get(1).getName());
+    Assert.assertEquals("value3", pairs.get(1).getValue().valueAsString());
+    List<JsonPair> inner = pairs.get(0).getValue().asObject().value();
+    Assert.assertEquals("n\u00e4me", inner.get(0).getName());
+    Assert.assertEquals("value", inner.get(0).getValue().valueAsString());
+    Assert.assertEquals("name2", inner.get(1).getName());
+    Assert.assertEquals("va\"lue2", inner.get(1).getValue().valueAsString());
+  }
+
+  @Test
+  public void emptyObjects() throws JsonParserException {
+    JsonPushParser parser = new JsonPushParser();
+    for (String json : new String[] {"{}", "{ }", "{\"a\":{}}", "[{},{ }]", "{\"a\":{},\"b\":[{}],\"c\":{\"d\":{}}}"}) {
+      char[] chars = json.toCharArray();
+      for (int i = 0; i < chars.length; i++) {
+        parser.feed(chars, i, 1);
+      }
+      Assert.assertEquals(json, JsonWriter.toJson(new JsonParser().parse(json)), JsonWriter.toJson(parser.endOfInput()));
+    }
+  }
+
+  @Test
+  public void incompleteInput() throws JsonParserException {
+    JsonPushParser parser = new JsonPushParser();
+    parser.feed("{ \"name\": \"val".toCharArray());
+    try {
+      parser.endOfInput();
+      Assert.fail("Expected JsonParserException");
+    } catch (JsonParserException e) {
+      // expected
+    }
+
+    parser.feed("{ \"name\": ".toCharArray());
+    parser.feed("\"value\" }".toCharArray());
+    Assert.assertEquals("value", parser.endOfInput().asObject().value().get(0).getValue().valueAsString());
+  }
+
+  @Test(expected = JsonParserException.class)
+  public void invalidChunk() throws JsonParserException {
+    JsonPushParser parser = new JsonPushParser();
+    parser.feed("{ \"name\": ".toCharArray());
+    parser.feed("12-4711 }".toCharArray());
+  }
+
+  @Test
+  public void structuralErrorResetsTheParser() throws JsonParserException {
+    JsonPushParser parser = new JsonPushParser();
+    for (String invalid : new String[] {"{ \"name\": [1, 2} }", "{ \"name\" \"value\" }", "[1] 2"}) {
+      parser.feed("  ".toCharArray());
+      try {
+        parser.feed(invalid.getBytes(StandardCharsets.UTF_8));
+        parser.endOfInput();
+        Assert.fail("Expected JsonParserException for " + invalid);
+      } catch (JsonParserException e) {
+        // expected
+      }
+      parser.feed(JSON.getBytes(StandardCharsets.UTF_8));
+      assertObject(parser.endOfInput());
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package de.mirb.pg.pojo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class JsonSharedParserTest {
+
+  private static final JsonSharedParser PARSER = new JsonSharedParser();
+
+  private static String document(int id) {
+    return "{ \"id\": " + id + ", \"name\": \"name" + id + "\", \"values\": [" + id + ", " + (id + 1)
+        + "], \"nested\": { \"id\": \"n" + id + "\" } }";
+  }
+
+  @Test
+  public void concurrentCalls() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<JsonValue>> results = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        final int id = i;
+        results.add(executor.submit(new Callable<JsonValue>() {
+          @Override
+          public JsonValue call() throws Exception {
+            if (id % 2 == 0) {
+              return PARSER.parse(document(id));
+            }
+            byte[] bytes = document(id).getBytes(StandardCharsets.UTF_8);
+            return PARSER.parse(bytes, 0, bytes.length);
+          }
+        }));
+      }
+      // the trees are read by another thread than the one which created them
+      for (int i = 0; i < results.size(); i++) {
+        JsonObject object = results.get(i).get().asObject();
+        Assert.assertEquals(i, object.get("id").asNumber().asLong());
+        Assert.assertEquals("name" + i, object.get("name").valueAsString());
+        Assert.assertArrayEquals(new long[] {i, i + 1}, object.get("values").asArray().toLongArray());
+        Assert.assertEquals("n" + i, object.get("nested").asObject().get("id").valueAsString());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void modes() throws Exception {
+    String json = document(7);
+    Assert.assertEquals("n7", PARSER.select(json, JsonPath.compile("/nested/id"))[0].valueAsString());
+    JsonObject projected = PARSER.parse(json, JsonProjection.of("/name")).asObject();
+    Assert.assertEquals(1, projected.value().size());
+    Assert.assertEquals("name7", projected.get("name").valueAsString());
+    final StringBuilder names = new StringBuilder();
+    PARSER.parse(json, new JsonHandler() {
+      @Override
+      public boolean key(String name) {
+        names.append(name).append(' ');
+        return true;
+      }
+    });
+    Assert.assertEquals("id name values nested id ", names.toString());
+  }
+
+  @Test
+  public void errorsReleaseTheParser() throws Exception {
+    JsonSharedParser parser = new JsonSharedParser(null, 1);
+    for (int i = 0; i < 3; i++) {
+      try {
+        parser.parse("{ \"id\": ");
+        Assert.fail("Expected JsonParserException");
+      } catch (JsonParserException e) {
+        // expected
+      }
+      Assert.assertEquals(7, parser.parse(document(7)).asObject().get("id").asNumber().asLong());
+    }
+    Assert.assertNull(parser.getKeyCache());
+  }
+}
@@ -0,0 +1,124 @@
+package de.mirb.pg.pojo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class JsonStringTest {
+
+  private static JsonObject lazyUtf8(String json) throws JsonParserException {
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    return new JsonParser().parseLazy(bytes, 0, bytes.length).asObject();
+  }
+
+  private static JsonString string(JsonObject object, String name) {
+    return (JsonString) object.get(name);
+  }
+
+  private static String written(JsonString string) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    string.writeTo(out);
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void plainView() throws Exception {
+    JsonString view = string(lazyUtf8("{ \"a\": \"Hello World\" }"), "a");
+    Assert.assertEquals(11, view.length());
+    Assert.assertEquals('W', view.charAt(6));
+    Assert.assertEquals("World", view.subSequence(6, 11).toString());
+    Assert.assertTrue(view.contentEquals("Hello World"));
+    Assert.assertFalse(view.contentEquals("Hello world"));
+    Assert.assertEquals("Hello World".hashCode(), view.hashCode());
+    Assert.assertEquals(new JsonString("Hello World"), view);
+    Assert.assertEquals(view, new JsonString("Hello World"));
+    Assert.assertEquals("Hello World", view.value());
+  }
+
+  @Test
+  public void nonAsciiView() throws Exception {
+    String value = "Gr\u00fc\u00dfe \u20ac";
+    JsonString view = string(lazyUtf8("{ \"a\": \"" + value + "\" }"), "a");
+    Assert.assertEquals(value.length(), view.length());
+    Assert.assertEquals('\u20ac', view.charAt(6));
+    Assert.assertEquals(value.hashCode(), view.hashCode());
+    Assert.assertTrue(view.contentEquals(value));
+    Assert.assertEquals(new JsonString(value), view);
+  }
+
+  @Test
+  public void escapedView() throws Exception {
+    JsonString view = string(lazyUtf8("{ \"a\": \"Va\\\"lue\" }"), "a");
+    Assert.assertEquals("Va\"lue", view.value());
+    Assert.assertEquals(6, view.length());
+    Assert.assertEquals("Va\"lue".hashCode(), view.hashCode());
+    Assert.assertEquals("\"Va\\\"lue\"", written(view));
+  }
+
+  @Test
+  public void escapeSequences() throws Exception {
+    JsonString view = string(lazyUtf8("{ \"a\": \"x\\ny\\t\\r\\b\\f\\/\\\\\u00e4\" }"), "a");
+    Assert.assertEquals("x\ny\t\r\b\f/\\\u00e4", view.value());
+    Assert.assertEquals("\"x\\ny\\t\\r\\b\\f/\\\\\u00e4\"", written(view));
+    // the tokenizers do not accept unicode escapes yet, the decoding of the cursors does
+    String unicode = "a\\u00e4\\u20AC\\ud83d\\ude00.";
+    byte[] bytes = unicode.getBytes(StandardCharsets.UTF_8);
+    String expected = "a\u00e4\u20ac\ud83d\ude00.";
+    Assert.assertEquals(expected, JsonTableTokenizer.literal(unicode.toCharArray(), 0, unicode.length(), true));
+    Assert.assertEquals(expected, JsonTableTokenizer.literal(bytes, 0, bytes.length, true));
+  }
+
+  @Test
+  public void lazyWritesLikeEager() throws Exception {
+    // escape sequences and raw tabs (allowed by the tokenizers) in strings and names
+    String json = "{\"t\\tab\":[\"x\\ny\",\"raw\ttab\",\"q\\\"s\\\\b\\/\",\"plain\",\"\u00e4\\r\u20ac\"],\"n\":{\"\\b\":\"\\f\"}}";
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+    direct.put(bytes).flip();
+    JsonParser parser = new JsonParser();
+    String eager = JsonWriter.toJson(parser.parse(json));
+    Assert.assertEquals("{\"t\\tab\":[\"x\\ny\",\"raw\\ttab\",\"q\\\"s\\\\b/\",\"plain\",\"\u00e4\\r\u20ac\"],"
+        + "\"n\":{\"\\b\":\"\\f\"}}", eager);
+    Assert.assertEquals(eager, JsonWriter.toJson(parser.parse(bytes, 0, bytes.length)));
+    Assert.assertEquals(eager, JsonWriter.toJson(parser.parseLazy(json)));
+    Assert.assertEquals(eager, JsonWriter.toJson(parser.parseLazy(bytes, 0, bytes.length)));
+    Assert.assertEquals(eager, JsonWriter.toJson(parser.parseLazy(direct)));
+    JsonPushParser push = new JsonPushParser();
+    push.feed(json.toCharArray());
+    Assert.assertEquals(eager, JsonWriter.toJson(push.endOfInput()));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new JsonWriter(out).writeValue(parser.parseLazy(bytes, 0, bytes.length)).flush();
+    Assert.assertEquals(eager, new String(out.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void viewsOfDifferentSources() throws Exception {
+    JsonObject utf8 = lazyUtf8("{ \"a\": \"same\", \"b\": \"same\", \"c\": \"other\" }");
+    JsonObject chars = new JsonParser().parseLazy("{ \"a\": \"same\" }").asObject();
+    byte[] bytes = "{ \"a\": \"same\" }".getBytes(StandardCharsets.UTF_8);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes).flip();
+    JsonObject direct = new JsonParser().parseLazy(buffer).asObject();
+
+    Assert.assertEquals(string(utf8, "a"), string(utf8, "b"));
+    Assert.assertNotEquals(string(utf8, "a"), string(utf8, "c"));
+    Assert.assertEquals(string(utf8, "a"), string(chars, "a"));
+    Assert.assertEquals(string(utf8, "a"), string(direct, "a"));
+    Assert.assertEquals(string(chars, "a").hashCode(), string(direct, "a").hashCode());
+    Assert.assertEquals("\"same\"", written(string(direct, "a")));
+    Assert.assertEquals("\"same\"", written(string(chars, "a")));
+  }
+
+  @Test
+  public void writeEscaped() throws Exception {
+    Assert.assertEquals("\"a\\\"b\\\\c\\nd\\u0001\u00e4\"", written(new JsonString("a\"b\\c\nd\u0001\u00e4")));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void charAtOutOfRange() throws Exception {
+    string(lazyUtf8("{ \"a\": \"abc\" }"), "a").charAt(3);
+  }
+}
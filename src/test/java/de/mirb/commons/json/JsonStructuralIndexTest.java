@@ -0,0 +1,103 @@
+package de.mirb.pg.pojo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+public class JsonStructuralIndexTest {
+
+  @Test
+  public void positions() throws JsonTokenizerException {
+    //             0123456789012345678901234567890
+    String json = " { \"a\\\"{\" : [1, true], \"b\":-2 } ";
+    JsonStructuralIndex index = index(json);
+    int[] expected = { 1, 3, 8, 10, 12, 13, 14, 16, 20, 21, 23, 25, 26, 27, 30 };
+    Assert.assertEquals(expected.length, index.size());
+    for (int i = 0; i < expected.length; i++) {
+      Assert.assertEquals("entry " + i, expected[i], index.position(i));
+    }
+    Assert.assertEquals(1, index.start());
+    Assert.assertEquals(31, index.limit());
+  }
+
+  @Test
+  public void sameTokensAsCursor() throws JsonTokenizerException {
+    String[] samples = {
+        "{ \"Sample\" : 4711, \"Sample2\" : [1903, TRUE, null, -1.5e3 ], \"Inner\": { \"Esc\" : \"Va\\\"lue\\\\\"}}",
+        "{\n  \"name\" : \"v\u00e4lue \u20ac\",\n  \"list\" : [\n    1,\n    \"two\"\n  ]\n}",
+        "[[], {}, [[1]], \"\\\\\\\\\", \"x\\\\\"]",
+        "\"0123456789abcdef0123456789\"",
+        "[12345678901234567]"
+    };
+    for (String json : samples) {
+      Assert.assertEquals(json, tokens(JsonCursor.create(json)), tokens(indexed(json)));
+    }
+  }
+
+  @Test
+  public void failures() {
+    String[] samples = {
+        "{ \"Sample\" : 12-4711}", "{ \"Sample\" : 12e}", "{ \"Sample\" : tru}", "{ \"Sample\" : \"\"}",
+        "{ \"Sample\" : \"Value}", "{ \"Sample\" : 12.}", "{ \"Sample\" : -}", "[ 1.e5 ]", "12.", "[ x ]",
+        "{ \"a\nb\": 1 }", "{ \"a\\x\": 1 }", "[ 1 @ ]", "4711"
+    };
+    for (String json : samples) {
+      try {
+        tokens(indexed(json));
+        Assert.fail("Expected JsonTokenizerException for " + json);
+      } catch (JsonTokenizerException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void parseIndexed() throws JsonParserException {
+    StringBuilder sb = new StringBuilder("{ \"values\": [");
+    for (int i = 0; i < 1000; i++) {
+      sb.append(i > 0 ? ", " : "").append(i).append(".5");
+    }
+    sb.append("], \"text\": \"").append("lorem ipsum \\\"dolor\\\" \u00e4 ").append("\", \"n\": { \"m\": 7 } }");
+    byte[] json = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+    JsonParser parser = new JsonParser();
+    JsonObject expected = parser.parse(json, 0, json.length).asObject();
+    JsonObject object = parser.parseIndexed(json, 0, json.length).asObject();
+    Assert.assertArrayEquals(expected.get("values").asArray().toDoubleArray(),
+        object.get("values").asArray().toDoubleArray(), 0d);
+    Assert.assertEquals(expected.get("text").valueAsString(), object.get("text").valueAsString());
+    Assert.assertEquals(7L, object.get("n").asObject().get("m").asNumber().asLong());
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(json.length);
+    direct.put(json).flip();
+    Assert.assertEquals(7L, parser.parseIndexed(direct).asObject().get("n").asObject().get("m").asNumber().asLong());
+  }
+
+  @Test(expected = JsonParserException.class)
+  public void unterminatedString() throws JsonParserException {
+    byte[] json = "{ \"a\": \"b }".getBytes(StandardCharsets.UTF_8);
+    new JsonParser().parseIndexed(json, 0, json.length);
+  }
+
+  private static JsonStructuralIndex index(String json) throws JsonTokenizerException {
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    return new JsonStructuralIndex().build(ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN), 0, bytes.length);
+  }
+
+  private static JsonCursor indexed(String json) throws JsonTokenizerException {
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer words = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    return new JsonCursor.IndexedCursor(words, new JsonStructuralIndex().build(words, 0, bytes.length));
+  }
+
+  private static String tokens(JsonCursor cursor) throws JsonTokenizerException {
+    StringBuilder tokens = new StringBuilder();
+    while (cursor.nextToken() != null) {
+      tokens.append(tokens.length() == 0 ? "[" : ", ").append(cursor);
+    }
+    return tokens.append("]").toString();
+  }
+}
@@ -3,6 +3,7 @@ package de.mirb.pg.pojo;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -147,16 +148,50 @@ public class JsonTokenizerTest {
 
   @Test
   public void failNumbers() throws JsonTokenizerException {
-    Assert.assertTrue(fail("{ \"Sample\" : 12-4711}"));
-    Assert.assertTrue(fail("{ \"Sample\" : 12.}"));
-    Assert.assertTrue(fail("{ \"Sample\" : 12.e}"));
-    Assert.assertTrue(fail("{ \"Sample\" : 12.-12}"));
-    Assert.assertTrue(fail("{ \"Sample\" : 12e}"));
+    Assert.assertTrue(fail(jt, "{ \"Sample\" : 12-4711}"));
+    Assert.assertTrue(fail(jt, "{ \"Sample\" : 12.}"));
+    Assert.assertTrue(fail(jt, "{ \"Sample\" : 12.e}"));
+    Assert.assertTrue(fail(jt, "{ \"Sample\" : 12.-12}"));
+    Assert.assertTrue(fail(jt, "{ \"Sample\" : 12e}"));
+    Assert.assertTrue(fail(jt, "{ \"Sample\" : -}"));
+    Assert.assertTrue(fail(jt, "{ \"Sample\" : -.5}"));
+    Assert.assertTrue(fail(jt, "[ 1, 12. ]"));
+    Assert.assertTrue(fail(jt, "-"));
   }
 
-  private boolean fail(String json) {
+  @Test
+  public void simpleNumbers() throws JsonTokenizerException {
+    JsonTokenizer table = new JsonTokenizer(JsonTokenizer.Engine.TABLE);
+    for (String number : new String[] { "4711", "-47.11", "4711e-2", "-0.5E+3" }) {
+      final String expected = "[OPEN_BR=>{OPEN_BR}, NUMBER=>{" + number + "}, CLOSE_BR=>{CLOSE_BR}]";
+      Assert.assertEquals(expected, jt.tokenize("[" + number + "]").toString());
+      Assert.assertEquals(expected, table.tokenize("[" + number + "]").toString());
+    }
+  }
+
+  @Test
+  public void nestedArrays() throws JsonTokenizerException {
+    final String expected = "[OPEN_BR=>{OPEN_BR}, OPEN_BR=>{OPEN_BR}, NUMBER=>{1}, CLOSE_BR=>{CLOSE_BR}, "
+        + "COMMA=>{COMMA}, OPEN_BR=>{OPEN_BR}, CLOSE_BR=>{CLOSE_BR}, CLOSE_BR=>{CLOSE_BR}]";
+    Assert.assertEquals(expected, jt.tokenize("[[1], [ ]]").toString());
+    Assert.assertEquals(expected, new JsonTokenizer(JsonTokenizer.Engine.TABLE).tokenize("[[1], [ ]]").toString());
+  }
+
+  @Test
+  public void reuseTokenList() throws JsonTokenizerException {
+    JsonTokenizer table = new JsonTokenizer(JsonTokenizer.Engine.TABLE);
+    List<JsonToken> tokens = new ArrayList<>();
+    Assert.assertSame(tokens, table.tokenize("{ \"a\" : \"b\" }", tokens));
+    Assert.assertEquals(5, tokens.size());
+    table.tokenize("[ 1 ]", tokens);
+    Assert.assertEquals("[OPEN_BR=>{OPEN_BR}, NUMBER=>{1}, CLOSE_BR=>{CLOSE_BR}]", tokens.toString());
+    jt.tokenize("[ 2 ]", tokens);
+    Assert.assertEquals("[OPEN_BR=>{OPEN_BR}, NUMBER=>{2}, CLOSE_BR=>{CLOSE_BR}]", tokens.toString());
+  }
+
+  private static boolean fail(JsonTokenizer tokenizer, String json) {
     try {
-      jt.tokenize("{ \"Sample\" : 12-4711}");
+      tokenizer.tokenize(json);
     } catch (JsonTokenizerException e) {
       return true;
     }
@@ -183,4 +218,53 @@ public class JsonTokenizerTest {
     Assert.assertEquals(17, result.size());
   }
 
-}
\ No newline at end of file
+  @Test
+  public void tableEngine() throws JsonTokenizerException {
+    JsonTokenizer table = new JsonTokenizer(JsonTokenizer.Engine.TABLE);
+    String[] samples = {
+        "{ }",
+        "\"Name\": \"Value\"",
+        "\"Name\": 42",
+        "[ \"Name\", \"Value\"]",
+        "[ 42, 4711 ] ",
+        "{ \"Sample\" : \"Value\", \"Sample2\" : \"Value2\"}",
+        "{ \"Sample\" : -47.11e-2, \"Sample2\" : 1903E99  }",
+        "{ \"Sample\" : NULL, \"Sample2\" : fALse, \"Sample3\" : trUE}",
+        "{ \"Sample\" : 4711, \"Sample2\" : [1903, true ]}",
+        "{ \"Sample\" : \"Va\\\"lue\", \"InnerJson\": { \"Sample\" : \"Value\"}}"
+    };
+    for (String sample : samples) {
+      Assert.assertEquals(sample, jt.tokenize(sample).toString(), table.tokenize(sample).toString());
+    }
+  }
+
+  @Test
+  public void tableEngineSliceTokens() throws JsonTokenizerException {
+    JsonTokenizer table = new JsonTokenizer(JsonTokenizer.Engine.TABLE);
+    List<JsonToken> result = table.tokenize(" { \"Sample\" : 4711}");
+    Assert.assertEquals(5, result.size());
+
+    JsonSliceToken name = (JsonSliceToken) result.get(1);
+    Assert.assertEquals(3, name.getOffset());
+    Assert.assertEquals(8, name.getLength());
+    Assert.assertEquals("\"Sample\"", name.getLiteral());
+    JsonSliceToken number = (JsonSliceToken) result.get(3);
+    Assert.assertEquals(14, number.getOffset());
+    Assert.assertEquals(4, number.getLength());
+    Assert.assertEquals("4711", number.getLiteral());
+  }
+
+  @Test
+  public void tableEngineFailures() {
+    JsonTokenizer table = new JsonTokenizer(JsonTokenizer.Engine.TABLE);
+    String[] samples = {
+        "", "{", "{ \"Sample\" : 12-4711}", "{ \"Sample\" : 12e}", "{ \"Sample\" : tru}",
+        "{ \"Sample\" : \"\"}", "{ \"Sample\" : \"Value}", "{ \"Sample\" \"Value\"}", "[ 1 ] 2",
+        "{ \"Sample\" : 12.}", "{ \"Sample\" : -}", "[ 1.e5 ]", "12.", "12e"
+    };
+    for (String sample : samples) {
+      Assert.assertTrue(sample, fail(jt, sample));
+      Assert.assertTrue(sample, fail(table, sample));
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package de.mirb.pg.pojo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class JsonWriterTest {
+
+  @Test
+  public void tree() throws Exception {
+    String json = "{\"name\":\"value\",\"inner\":{\"list\":[1,-2,3],\"doubles\":[1.5,-0.25],"
+        + "\"mixed\":[\"a\",{\"b\":\"c\"},[]]},\"number\":4711}";
+    Assert.assertEquals(json, JsonWriter.toJson(new JsonParser().parse(json)));
+    Assert.assertEquals(json, JsonWriter.toJson(new JsonParser().parseLazy(json)));
+  }
+
+  @Test
+  public void generator() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    new JsonWriter(sb)
+        .writeStartObject()
+        .writeKey("a").writeString("b")
+        .writeKey("c").writeStartArray()
+        .writeNumber(1).writeNumber(2.5).writeBoolean(true).writeBoolean(false).writeNull()
+        .writeStartObject().writeEndObject()
+        .writeEndArray()
+        .writeKey("d").writeNumber(JsonNumber.valueOf("12345678901234567890.5"))
+        .writeEndObject()
+        .flush();
+    Assert.assertEquals("{\"a\":\"b\",\"c\":[1,2.5,true,false,null,{}],\"d\":12345678901234567890.5}", sb.toString());
+  }
+
+  @Test
+  public void numbers() throws Exception {
+    Assert.assertEquals("[-9223372036854775808,9223372036854775807,0,-7]", generated(Long.MIN_VALUE, Long.MAX_VALUE, 0, -7));
+    Assert.assertEquals("[1.0,-0.0,1.0E20,1.0E-5,123.456]", generated(1.0, -0.0, 1e20, 1e-5, 123.456));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void notANumber() throws Exception {
+    new JsonWriter(new StringBuilder()).writeNumber(Double.NaN);
+  }
+
+  @Test
+  public void escaping() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    new JsonWriter(sb).writeString("q\"b\\s/n\nr\rt\tb\bf\f\u0000\u001f\u00e4\u20ac\ud83d\ude00").flush();
+    Assert.assertEquals("\"q\\\"b\\\\s/n\\nr\\rt\\tb\\bf\\f\\u0000\\u001f\u00e4\u20ac\ud83d\ude00\"", sb.toString());
+  }
+
+  @Test
+  public void roundTripEscapes() throws Exception {
+    // escape sequences and raw tabs are written like the decoded values, for every source and target
+    String json = "{\"k\\ney\":[\"x\\ny\",\"raw\ttab\",\"q\\\"\\\\\\/\\b\\f\\r\",\"plain \u00e4\"]}";
+    String expected = "{\"k\\ney\":[\"x\\ny\",\"raw\\ttab\",\"q\\\"\\\\/\\b\\f\\r\",\"plain \u00e4\"]}";
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+    direct.put(bytes).flip();
+    JsonParser parser = new JsonParser();
+    for (JsonValue tree : new JsonValue[] {parser.parse(json), parser.parseLazy(json),
+        parser.parseLazy(bytes, 0, bytes.length), parser.parseLazy(direct)}) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      new JsonWriter(out).writeValue(tree).flush();
+      Assert.assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+      Assert.assertEquals(expected, JsonWriter.toJson(tree));
+      ByteBuffer target = ByteBuffer.allocate(256);
+      new JsonWriter(target).writeValue(tree).flush();
+      Assert.assertEquals(expected, new String(target.array(), 0, target.position(), StandardCharsets.UTF_8));
+      // the output is parsed into the same values again
+      Assert.assertEquals(expected, JsonWriter.toJson(parser.parse(expected)));
+    }
+    // only views of UTF-8 sources without escapes and control characters are copied
+    JsonArray views = parser.parseLazy(bytes, 0, bytes.length).asObject().get("k\ney").asArray();
+    Assert.assertFalse(((JsonString) views.get(0)).isView());
+    Assert.assertFalse(((JsonString) views.get(1)).isView());
+    Assert.assertTrue(((JsonString) views.get(3)).isView());
+    Assert.assertFalse(((JsonString) parser.parseLazy(json).asObject().get("k\ney").asArray().get(3)).isView());
+  }
+
+  @Test
+  public void largeStrings() throws Exception {
+    // strings which span several internal buffers (escapes and multi-byte characters at the borders)
+    StringBuilder value = new StringBuilder();
+    for (int i = 0; value.length() < 50000; i++) {
+      value.append("text ").append(i).append(i % 7 == 0 ? "\u00e4\"\u20ac" : "").append(i % 11 == 0 ? "\ud83d\ude00" : "");
+    }
+    String expected = "[\"" + value.toString().replace("\"", "\\\"") + "\"]";
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new JsonWriter(out).writeStartArray().writeString(value).writeEndArray().flush();
+    Assert.assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+    StringBuilder sb = new StringBuilder();
+    new JsonWriter(sb).writeStartArray().writeString(value).writeEndArray().flush();
+    Assert.assertEquals(expected, sb.toString());
+
+    // views are copied raw, also across buffer borders into an Appendable
+    byte[] bytes = ("{\"v\":" + expected.substring(1, expected.length() - 1) + "}").getBytes(StandardCharsets.UTF_8);
+    sb.setLength(0);
+    new JsonWriter(sb).writeValue(new JsonParser().parseLazy(bytes, 0, bytes.length)).flush();
+    Assert.assertEquals(new String(bytes, StandardCharsets.UTF_8), sb.toString());
+  }
+
+  @Test
+  public void byteBuffer() throws Exception {
+    ByteBuffer buffer = ByteBuffer.allocate(64);
+    JsonWriter writer = new JsonWriter(buffer);
+    writer.writeValue(new JsonParser().parse("{ \"a\": [1, 2] }")).flush();
+    Assert.assertEquals("{\"a\":[1,2]}", new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+
+    // reuse for the next target
+    StringBuilder sb = new StringBuilder();
+    writer.reset(sb).writeString("next").flush();
+    Assert.assertEquals("\"next\"", sb.toString());
+  }
+
+  @Test
+  public void invalidStructure() throws Exception {
+    assertInvalid(new JsonWriter(new StringBuilder()).writeStartObject(), "value");
+    assertInvalid(new JsonWriter(new StringBuilder()).writeStartArray(), "key");
+    assertInvalid(new JsonWriter(new StringBuilder()).writeStartArray(), "endObject");
+    assertInvalid(new JsonWriter(new StringBuilder()).writeStartObject().writeKey("a"), "key");
+    assertInvalid(new JsonWriter(new StringBuilder()).writeNumber(1), "value");
+  }
+
+  @Test
+  public void writeStringTo() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new JsonString("a\"\u00e4").writeTo(out);
+    Assert.assertEquals("\"a\\\"\u00e4\"", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    // escapes, multi-byte characters, surrogates and a long string encode like by the writer
+    StringBuilder sb = new StringBuilder("\u0001\n\t\\\u20ac\ud83d\ude00\ud83dx");
+    for (int i = 0; i < 3000; i++) {
+      sb.append(i % 3 == 0 ? '\u00e4' : i % 3 == 1 ? '\u0002' : 'a');
+    }
+    for (String value : new String[] {"", "plain", "\u00e4\u00e4", sb.toString()}) {
+      out.reset();
+      new JsonString(value).writeTo(out);
+      ByteArrayOutputStream expected = new ByteArrayOutputStream();
+      new JsonWriter(expected).writeString(value).flush();
+      Assert.assertArrayEquals(expected.toByteArray(), out.toByteArray());
+    }
+  }
+
+  private static String generated(long... values) throws Exception {
+    StringBuilder sb = new StringBuilder();
+    JsonWriter writer = new JsonWriter(sb).writeStartArray();
+    for (long value : values) {
+      writer.writeNumber(value);
+    }
+    writer.writeEndArray().flush();
+    return sb.toString();
+  }
+
+  private static String generated(double... values) throws Exception {
+    StringBuilder sb = new StringBuilder();
+    JsonWriter writer = new JsonWriter(sb).writeStartArray();
+    for (double value : values) {
+      writer.writeNumber(value);
+    }
+    writer.writeEndArray().flush();
+    return sb.toString();
+  }
+
+  private static void assertInvalid(JsonWriter writer, String call) throws Exception {
+    try {
+      switch (call) {
+        case "value":
+          writer.writeString("x");
+          break;
+        case "key":
+          writer.writeKey("x");
+          break;
+        default:
+          writer.writeEndObject();
+      }
+      Assert.fail("Expected IllegalStateException for " + call);
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void decimal() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    new JsonWriter(sb).writeNumber(new JsonNumber(new BigDecimal("1E+400"))).flush();
+    Assert.assertEquals("1E+400", sb.toString());
+  }
+}